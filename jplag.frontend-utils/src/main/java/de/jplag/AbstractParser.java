@@ -1,5 +1,9 @@
 package de.jplag;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * @author Emeric Kwemou
  */
@@ -7,6 +11,9 @@ public abstract class AbstractParser {
     protected ErrorConsumer errorConsumer;
     protected int errors = 0;
     private int errorsSum = 0;
+    private final Map<String, Long> fileParseTimes = new LinkedHashMap<>();
+    private Map<String, Long> lastFileParseTimes = Collections.emptyMap();
+    private long fileStartTime;
 
     public boolean hasErrors() {
         return errors != 0;
@@ -18,6 +25,39 @@ public abstract class AbstractParser {
 
     protected void parseEnd() {
         errorsSum += errors;
+        lastFileParseTimes = new LinkedHashMap<>(fileParseTimes);
+        fileParseTimes.clear();
+    }
+
+    /**
+     * Starts measuring the parse time of a file.
+     */
+    public void startFile() {
+        fileStartTime = System.nanoTime();
+    }
+
+    /**
+     * Records the parse time of a file since {@link #startFile()}.
+     */
+    public void finishFile(String file) {
+        finishFile(file, 0);
+    }
+
+    /**
+     * Records the parse time of a file since {@link #startFile()}, plus the time spent on the file before, e.g. while it
+     * was parsed in a batch with other files.
+     * @param earlierTime is the earlier time in nanoseconds.
+     */
+    public void finishFile(String file, long earlierTime) {
+        fileParseTimes.put(file, System.nanoTime() - fileStartTime + earlierTime);
+    }
+
+    /**
+     * Creates the result of the last parse run of this parser, which has to be ended with {@link #parseEnd()}.
+     * @param tokenList are the tokens of the parse run.
+     */
+    public ParseResult createResult(TokenList tokenList) {
+        return new ParseResult(tokenList, errors, lastFileParseTimes);
     }
 
     public ErrorConsumer getErrorConsumer() {
@@ -0,0 +1,58 @@
+package de.jplag;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reusable buffer that reads whole files at once, instead of reading them byte by byte through unbuffered streams. It is
+ * not thread-safe, thus parsers keep one buffer per thread.
+ */
+public class FileBuffer {
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    private static final int MAXIMUM_RETAINED_CAPACITY = 1024 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Reads a file into the buffer.
+     * @param file is the file to read.
+     * @param appendNewline determines whether a newline is appended, which some scanners require at the end of a file.
+     * @return a stream over the content of the file, which is valid until the next call.
+     * @throws IOException if the file cannot be read.
+     */
+    public InputStream read(File file, boolean appendNewline) throws IOException {
+        int length = 0;
+        try (FileInputStream stream = new FileInputStream(file)) {
+            int read;
+            while ((read = stream.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+        }
+        if (appendNewline) {
+            if (length + 2 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = '\r';
+            buffer[length++] = '\n';
+        }
+        return new ByteArrayInputStream(buffer, 0, length);
+    }
+
+    /**
+     * Shrinks the buffer to its initial capacity if a large file grew it beyond a megabyte, thus the buffer of a thread
+     * does not keep the size of the largest file it has read. The stream returned by the last read must not be used
+     * afterwards.
+     */
+    public void release() {
+        if (buffer.length > MAXIMUM_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+    }
+}
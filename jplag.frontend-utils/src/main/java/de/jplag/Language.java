@@ -1,6 +1,12 @@
 package de.jplag;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Common interface for all languages. Each language-front end must provide a concrete language implementation.
@@ -28,17 +34,65 @@ public interface Language {
     public int minimumTokenMatch();
 
     /**
-     * Parses a set files in a directory.
+     * Parses a set files in a directory. This uses the parser of the language instance, thus it must not be called
+     * concurrently. Prefer {@link #parseFiles}.
      */
     public TokenList parse(File dir, String[] files);
 
+    /**
+     * Parses a set of files in a directory with a new parser instance. The result does not depend on the state of the
+     * language instance, thus this method can be called concurrently if {@link #supportsParallelParsing()} is true.
+     * @return the tokens, the errors and the per-file parse times.
+     */
+    public ParseResult parseFiles(File dir, String[] files);
+
+    /**
+     * Creates a new parser instance, which allows parsing files concurrently if {@link #supportsParallelParsing()} is true.
+     * Languages whose parsers are not instances of {@link LanguageParser} delegate to {@link #parseFiles}.
+     */
+    public default LanguageParser createParser() {
+        return this::parseFiles;
+    }
+
+    /**
+     * Parses the files of several submissions at once, which allows the language to share setup costs between them. Like
+     * {@link #parseFiles}, it can be called concurrently if {@link #supportsParallelParsing()} is true.
+     * @param directories are the directories of the submissions.
+     * @param files are the files of each submission, relative to its directory.
+     * @return the parse result of each submission, in the given order.
+     */
+    public default List<ParseResult> parseFilesInBatch(List<File> directories, List<String[]> files) {
+        List<ParseResult> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            results.add(parseFiles(directories.get(i), files.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Parses the files of several submissions like {@link #parseFilesInBatch(List, List)}, but takes the contents of files
+     * that were already read into memory, so they need not be read again. Languages that only parse from the file system
+     * ignore the contents, see {@link #supportsInMemorySources()}.
+     * @param contents are the contents of some or all files of each submission, by their name relative to its directory.
+     */
+    public default List<ParseResult> parseFilesInBatch(List<File> directories, List<String[]> files, List<Map<String, CharSequence>> contents) {
+        return parseFilesInBatch(directories, files);
+    }
+
+    /**
+     * Releases the resources that the parsers keep to speed up later calls, like the file managers of a compiler. It is
+     * called after the submissions of a run were parsed, later calls of the parse methods may allocate them again.
+     */
+    public default void releaseParserResources() {
+    }
+
     /**
      * Whether errors were found during the last {@link #parse}.
      */
     public boolean hasErrors();
 
     /**
-     * Number of errors found during the last {@link #parse}.
+     * Number of errors found during all calls of {@link #parse}.
      */
     public int errorCount();
 
@@ -66,4 +120,65 @@ public interface Language {
      * Convert a token type to a text representation.
      */
     public String type2string(int type);
+
+    /**
+     * Determines whether {@link #parseFiles} can be called concurrently. This requires that the token types do not depend
+     * on the state of a parser instance.
+     */
+    public default boolean supportsParallelParsing() {
+        return true;
+    }
+
+    /**
+     * Determines whether the token types depend on state that the language builds up while parsing, like a vocabulary.
+     * Token streams of such languages can only be reused in later runs together with their state, see
+     * {@link #writeState(DataOutputStream)}. Otherwise, the token stream of a file only depends on its content.
+     */
+    public default boolean hasState() {
+        return false;
+    }
+
+    /**
+     * Discards the state built up by earlier runs, so a reused language instance starts like a new one. It is called at
+     * the start of each run, before the state may be restored with {@link #readState(DataInputStream)}.
+     */
+    public default void resetState() {
+    }
+
+    /**
+     * Restores the state that was written by {@link #writeState(DataOutputStream)}. It has to be called before any file is
+     * parsed.
+     * @throws IOException if the state cannot be read.
+     */
+    public default void readState(DataInputStream input) throws IOException {
+    }
+
+    /**
+     * Writes the state that the token types depend on, see {@link #hasState()}.
+     * @throws IOException if the state cannot be written.
+     */
+    public default void writeState(DataOutputStream output) throws IOException {
+    }
+
+    /**
+     * Determines whether the language parses the contents passed to {@link #parseFilesInBatch(List, List, List)} instead
+     * of reading the files from the file system.
+     */
+    public default boolean supportsInMemorySources() {
+        return false;
+    }
+
+    /**
+     * Determines whether the language can derive its tokens from the lexer alone, see {@link #setLexerOnly(boolean)}.
+     */
+    public default boolean supportsLexerOnlyMode() {
+        return false;
+    }
+
+    /**
+     * Selects whether the tokens are derived from the lexer alone instead of a full parse, which is much faster but less
+     * precise. It has to be called before any file is parsed and is ignored if the mode is not supported.
+     */
+    public default void setLexerOnly(boolean lexerOnly) {
+    }
 }
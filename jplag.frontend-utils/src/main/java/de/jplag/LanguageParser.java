@@ -0,0 +1,17 @@
+package de.jplag;
+
+import java.io.File;
+
+/**
+ * Parser instance of a language, see {@link Language#createParser()}. An instance keeps state while it parses and must
+ * not be used concurrently, but separate instances of a language can parse concurrently if
+ * {@link Language#supportsParallelParsing()} is true.
+ */
+public interface LanguageParser {
+
+    /**
+     * Parses a set of files in a directory.
+     * @return the tokens, the errors and the per-file parse times of these files.
+     */
+    ParseResult parseFiles(File dir, String[] files);
+}
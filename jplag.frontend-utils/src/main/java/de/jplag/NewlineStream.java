@@ -5,7 +5,9 @@ import java.io.InputStream;
 
 /**
  * This stream adds a newline to the end of a file. This is a proxy.
+ * @deprecated reads byte by byte from the proxied stream, use {@link FileBuffer#read(java.io.File, boolean)} instead.
  */
+@Deprecated
 public class NewlineStream extends InputStream {
     private int endOfFile = 0;
     private InputStream stream;
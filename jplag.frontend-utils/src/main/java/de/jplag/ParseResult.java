@@ -0,0 +1,55 @@
+package de.jplag;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of parsing the files of a submission, see {@link Language#parseFiles(java.io.File, String[])}. It does not
+ * change after its creation and does not depend on the state of the language.
+ */
+public class ParseResult {
+    private final TokenList tokenList;
+    private final int errorCount;
+    private final Map<String, Long> fileParseTimes;
+
+    /**
+     * Creates a parse result.
+     * @param tokenList are the tokens of all parsed files, it is owned by the result.
+     * @param errorCount is the number of errors that occurred during parsing.
+     * @param fileParseTimes are the parse times of the files in nanoseconds, in the order they were parsed.
+     */
+    public ParseResult(TokenList tokenList, int errorCount, Map<String, Long> fileParseTimes) {
+        this.tokenList = tokenList;
+        this.errorCount = errorCount;
+        this.fileParseTimes = Collections.unmodifiableMap(new LinkedHashMap<>(fileParseTimes));
+    }
+
+    /**
+     * @return the tokens of all parsed files.
+     */
+    public TokenList getTokenList() {
+        return tokenList;
+    }
+
+    /**
+     * @return true if at least one error occurred during parsing.
+     */
+    public boolean hasErrors() {
+        return errorCount != 0;
+    }
+
+    /**
+     * @return the number of errors that occurred during parsing.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the parse time of each file in nanoseconds, in the order the files were parsed.
+     */
+    public Map<String, Long> getFileParseTimes() {
+        return fileParseTimes;
+    }
+}
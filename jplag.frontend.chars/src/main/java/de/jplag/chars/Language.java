@@ -1,8 +1,12 @@
 package de.jplag.chars;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import de.jplag.ErrorConsumer;
+import de.jplag.ParseResult;
 import de.jplag.Token;
 import de.jplag.TokenList;
 
@@ -50,6 +54,33 @@ public class Language implements de.jplag.Language {
         return this.parser.parse(dir, files);
     }
 
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createParser().parseFiles(dir, files);
+    }
+
+    @Override
+    public List<ParseResult> parseFilesInBatch(List<File> directories, List<String[]> files, List<Map<String, CharSequence>> contents) {
+        Parser parser = createParser();
+        List<ParseResult> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            TokenList tokenList = parser.parse(directories.get(i), files.get(i), contents.get(i));
+            results.add(parser.createResult(tokenList));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsInMemorySources() {
+        return true;
+    }
+    @Override
+    public Parser createParser() {
+        Parser parser = new Parser();
+        parser.setProgram(program);
+        return parser;
+    }
+
     @Override
     public boolean hasErrors() {
         return this.parser.hasErrors();
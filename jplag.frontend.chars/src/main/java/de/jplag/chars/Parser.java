@@ -1,24 +1,55 @@
 package de.jplag.chars;
 
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
 
 import de.jplag.AbstractParser;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.TokenConstants;
 import de.jplag.TokenList;
 
-public class Parser extends AbstractParser implements TokenConstants {
+public class Parser extends AbstractParser implements LanguageParser, TokenConstants {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
 
     private TokenList struct;
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+    private final CharBuffer characters = CharBuffer.allocate(CHUNK_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createResult(parse(dir, files));
+    }
 
     public TokenList parse(File dir, String files[]) {
+        return parse(dir, files, Map.of());
+    }
+
+    /**
+     * Parses the files of a submission.
+     * @param contents are the contents of the files that are already in memory, the other files are read from the file
+     * system.
+     */
+    public TokenList parse(File dir, String files[], Map<String, CharSequence> contents) {
         struct = new TokenList();
         errors = 0;
         for (String file : files) {
             getErrorConsumer().print(null, "Parsing file " + file);
-            if (!parseFile(dir, file))
+            startFile();
+            if (!parseFile(dir, file, contents.get(file)))
                 errors++;
+            finishFile(file);
             struct.addToken(new CharToken(FILE_END, file, this));
         }
         if (errors == 0)
@@ -30,36 +61,58 @@ public class Parser extends AbstractParser implements TokenConstants {
         return struct;
     }
 
-    private boolean parseFile(File dir, String file) {
-        char[] buffer = new char[4096];
-        int type;
-        int length;
-        int offset = 0;
-
-        try {
-            FileReader reader = new FileReader(new File(dir, file), StandardCharsets.UTF_8);
-
+    private boolean parseFile(File dir, String file, CharSequence content) {
+        if (content != null) {
+            tokenize(content, file, 0);
+            return true;
+        }
+        // the file is decoded in chunks, so the memory needed does not grow with the size of the file
+        try (ReadableByteChannel channel = Files.newByteChannel(new File(dir, file).toPath())) {
+            decoder.reset();
+            bytes.clear();
+            int offset = 0;
+            boolean endOfInput;
             do {
-                length = reader.read(buffer);
-
-                for (int i = 0; i < length; i++) {
-                    if (buffer[i] <= 127 && (type = mapping[buffer[i]]) > 1) {
-                        struct.addToken(new CharToken(type, file, offset + i, this));
-                    }
-                }
-                offset += length;
-            } while (length != -1);
-
-            // close file
-            reader.close();
-        } catch (Exception e) {
+                endOfInput = channel.read(bytes) == -1;
+                bytes.flip();
+                decoder.decode(bytes, characters, endOfInput); // UTF-8 never decodes to more characters than bytes
+                bytes.compact();
+                offset = tokenizeCharacters(file, offset);
+            } while (!endOfInput);
+            decoder.flush(characters);
+            tokenizeCharacters(file, offset);
+        } catch (IOException e) {
             e.printStackTrace();
             return false;
         }
         return true;
     }
 
-    private int[] mapping = {-1, // 0 (nul)
+    private int tokenizeCharacters(String file, int offset) {
+        characters.flip();
+        int nextOffset = tokenize(characters, file, offset);
+        characters.clear();
+        return nextOffset;
+    }
+
+    /**
+     * Adds the tokens of a chunk of a file.
+     * @param offset is the index of the first character of the chunk in the file.
+     * @return the index of the character after the chunk.
+     */
+    private int tokenize(CharSequence chunk, String file, int offset) {
+        int length = chunk.length();
+        int type;
+        for (int i = 0; i < length; i++) {
+            char character = chunk.charAt(i);
+            if (character <= 127 && (type = mapping[character]) > 1) {
+                struct.addToken(new CharToken(type, file, offset + i, this));
+            }
+        }
+        return offset + length;
+    }
+
+    private static final int[] mapping = {-1, // 0 (nul)
             -1, // 1 (soh)
             -1, // 2 (stx)
             -1, // 3 (etx)
@@ -3,15 +3,18 @@ package de.jplag.cpp;
 import java.io.File;
 
 import de.jplag.ErrorConsumer;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
 /*
  * Leider werden C/C++ nicht geparst, sondern nur gescannt...
  */
 public class Language implements de.jplag.Language {
+	private final ErrorConsumer program;
 	private Scanner scanner;
 
 	public Language(ErrorConsumer program) {
+		this.program = program;
 		this.scanner = new Scanner();
 		this.scanner.setProgram(program);
 
@@ -64,6 +67,18 @@ public class Language implements de.jplag.Language {
 		return this.scanner.scan(dir, files);
 	}
 
+	@Override
+	public ParseResult parseFiles(File dir, String[] files) {
+		return createParser().parseFiles(dir, files);
+	}
+
+	@Override
+	public Scanner createParser() {
+		Scanner scanner = new Scanner();
+		scanner.setProgram(program);
+		return scanner;
+	}
+
 	@Override
     public boolean hasErrors() {
 		return this.scanner.hasErrors();
@@ -1,26 +1,47 @@
 package de.jplag.cpp;
 
 import java.io.File;
+import java.io.InputStream;
 
 import de.jplag.AbstractParser;
+import de.jplag.FileBuffer;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
-public class Scanner extends AbstractParser implements CPPTokenConstants {
+public class Scanner extends AbstractParser implements LanguageParser, CPPTokenConstants {
+	/**
+	 * The generated scanner allocates large buffers, thus each thread reuses its scanner and file buffer for all files.
+	 */
+	private static final ThreadLocal<CPPScanner> scanners = ThreadLocal
+			.withInitial(() -> new CPPScanner(InputStream.nullInputStream(), "UTF-8"));
+	private static final ThreadLocal<FileBuffer> buffers = ThreadLocal.withInitial(FileBuffer::new);
+
 	private String actFile;
 
 	private TokenList struct;
 
+	@Override
+	public ParseResult parseFiles(File dir, String[] files) {
+		return createResult(scan(dir, files));
+	}
+
 	public TokenList scan(File dir, String files[]) {
 		struct = new TokenList();
 		errors = 0;
-		CPPScanner scanner = null;// will be initialized in Method scanFile
+		CPPScanner scanner = scanners.get();
+		FileBuffer buffer = buffers.get();
 		for (int i = 0; i < files.length; i++) {
 			actFile = files[i];
 		    getErrorConsumer().print(null, "Scanning file " + files[i]);
-			if (!CPPScanner.scanFile(dir, files[i], scanner, this))
+			startFile();
+			if (!CPPScanner.scanFile(dir, files[i], scanner, buffer, this))
 				errors++;
+			finishFile(files[i]);
 			struct.addToken(new CPPToken(FILE_END, actFile, 1));
 		}
+		scanner.ReInit(InputStream.nullInputStream(), "UTF-8"); // drops the reference to the content of the last file
+		buffer.release();
 		this.parseEnd();
 		return struct;
 	}
@@ -3,12 +3,16 @@ package de.jplag.csharp;
 import java.io.File;
 
 import de.jplag.ErrorConsumer;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
 public class Language implements de.jplag.Language {
+	private final ErrorConsumer program;
 	private Parser parser;
+	private boolean lexerOnly = false;
 
 	public Language(ErrorConsumer program) {
+		this.program = program;
 		this.parser = new Parser();
 		this.parser.setProgram(program);
 
@@ -45,6 +49,18 @@ public class Language implements de.jplag.Language {
 		return this.parser.parse(dir, files);
 	}
 
+	@Override
+	public ParseResult parseFiles(File dir, String[] files) {
+		return createParser().parseFiles(dir, files);
+	}
+	@Override
+	public Parser createParser() {
+		Parser parser = new Parser();
+		parser.setProgram(program);
+		parser.setLexerOnly(lexerOnly);
+		return parser;
+	}
+
 	@Override
     public boolean hasErrors() {
 		return parser.hasErrors();
@@ -60,6 +76,17 @@ public class Language implements de.jplag.Language {
 		return true;
 	}
 
+	@Override
+	public boolean supportsLexerOnlyMode() {
+		return true;
+	}
+
+	@Override
+	public void setLexerOnly(boolean lexerOnly) {
+		this.lexerOnly = lexerOnly;
+		parser.setLexerOnly(lexerOnly);
+	}
+
 	@Override
     public boolean usesIndex() {
 		return false;
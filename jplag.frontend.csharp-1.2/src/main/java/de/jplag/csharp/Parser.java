@@ -5,22 +5,34 @@ import java.io.FileInputStream;
 import java.nio.charset.StandardCharsets;
 
 import antlr.Token;
+import antlr.TokenStreamException;
 import de.jplag.AbstractParser;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 import de.jplag.UnicodeReader;
 import de.jplag.csharp.grammar.CSharpLexer;
 import de.jplag.csharp.grammar.CSharpParser;
+import de.jplag.csharp.grammar.CSharpTokenTypes;
 
-public class Parser extends AbstractParser implements CSharpTokenConstants {
+public class Parser extends AbstractParser implements LanguageParser, CSharpTokenConstants {
 	private TokenList struct;
 	private String currentFile;
+	private boolean lexerOnly = false;
+
+	@Override
+	public ParseResult parseFiles(File dir, String[] files) {
+		return createResult(parse(dir, files));
+	}
 
 	public TokenList parse(File dir, String files[]) {
 		struct = new TokenList();
 		errors = 0;
 		for (int i = 0; i < files.length; i++) {
+			startFile();
 			if (!parseFile(dir, files[i]))
 				errors++;
+			finishFile(files[i]);
 			struct.addToken(new CSharpToken(FILE_END, files[i], -1, -1, -1));
 		}
 		this.parseEnd();
@@ -36,12 +48,16 @@ public class Parser extends AbstractParser implements CSharpTokenConstants {
 			lexer.setFilename(file);
 			lexer.setTabSize(1);
 
-			// Create a parser that reads from the scanner
-			CSharpParser parser = new CSharpParser(lexer);
-			parser.setFilename(file);
-			parser.parser = this;//Added by emeric 22.01.05
-			// start parsing at the compilationUnit rule
-			parser.compilation_unit();
+			if (lexerOnly) {
+				scan(lexer);
+			} else {
+				// Create a parser that reads from the scanner
+				CSharpParser parser = new CSharpParser(lexer);
+				parser.setFilename(file);
+				parser.parser = this;//Added by emeric 22.01.05
+				// start parsing at the compilationUnit rule
+				parser.compilation_unit();
+			}
 
 			// close file
 			fis.close();
@@ -52,6 +68,165 @@ public class Parser extends AbstractParser implements CSharpTokenConstants {
 		return true;
 	}
 
+	/**
+	 * Selects whether the tokens are derived from the lexer alone, see {@link #scan(CSharpLexer)}.
+	 */
+	public void setLexerOnly(boolean lexerOnly) {
+		this.lexerOnly = lexerOnly;
+	}
+
+	/**
+	 * Derives the tokens from the lexer alone, which maps keywords and operators directly to the token types that the
+	 * parser assigns to their constructs. An opening parenthesis after an identifier is told apart by the two tokens
+	 * before it: a type before the identifier declares a method, a modifier declares a constructor, and {@code new}
+	 * creates an object, anything else is an invocation.
+	 */
+	private void scan(CSharpLexer lexer) throws TokenStreamException {
+		int previousType = Token.INVALID_TYPE;
+		int typeBeforePrevious = Token.INVALID_TYPE;
+		for (Token token = lexer.nextToken(); token.getType() != Token.EOF_TYPE; token = lexer.nextToken()) {
+			int type = lexicalType(token.getType(), previousType, typeBeforePrevious);
+			if (type != -1) {
+				add(type, token);
+			}
+			typeBeforePrevious = previousType;
+			previousType = token.getType();
+		}
+	}
+
+	private int lexicalType(int lexerType, int previousType, int typeBeforePrevious) {
+		switch (lexerType) {
+		case CSharpTokenTypes.LPAREN:
+			return previousType == CSharpTokenTypes.IDENTIFIER ? parenthesisType(typeBeforePrevious) : -1;
+		case CSharpTokenTypes.NEW:
+			return _OBJECT_CREATION;
+		case CSharpTokenTypes.ASSIGN:
+		case CSharpTokenTypes.PLUS_ASN:
+		case CSharpTokenTypes.MINUS_ASN:
+		case CSharpTokenTypes.STAR_ASN:
+		case CSharpTokenTypes.DIV_ASN:
+		case CSharpTokenTypes.MOD_ASN:
+		case CSharpTokenTypes.BAND_ASN:
+		case CSharpTokenTypes.BOR_ASN:
+		case CSharpTokenTypes.BXOR_ASN:
+		case CSharpTokenTypes.SL_ASN:
+		case CSharpTokenTypes.SR_ASN:
+		case CSharpTokenTypes.BSR_ASN:
+		case CSharpTokenTypes.INC:
+		case CSharpTokenTypes.DEC:
+			return _ASSIGNMENT;
+		case CSharpTokenTypes.LBRACE:
+			return _L_BRACE;
+		case CSharpTokenTypes.RBRACE:
+			return _R_BRACE;
+		case CSharpTokenTypes.CONST:
+			return _DECLARE_CONST;
+		case CSharpTokenTypes.IF:
+			return _IF;
+		case CSharpTokenTypes.ELSE:
+			return _ELSE;
+		case CSharpTokenTypes.SWITCH:
+			return _SWITCH_BEGIN;
+		case CSharpTokenTypes.CASE:
+		case CSharpTokenTypes.DEFAULT:
+			return _CASE;
+		case CSharpTokenTypes.DO:
+			return _DO;
+		case CSharpTokenTypes.WHILE:
+			return _WHILE;
+		case CSharpTokenTypes.FOR:
+			return _FOR;
+		case CSharpTokenTypes.FOREACH:
+			return _FOREACH;
+		case CSharpTokenTypes.BREAK:
+			return _BREAK;
+		case CSharpTokenTypes.CONTINUE:
+			return _CONTINUE;
+		case CSharpTokenTypes.GOTO:
+			return _GOTO;
+		case CSharpTokenTypes.RETURN:
+			return _RETURN;
+		case CSharpTokenTypes.THROW:
+			return _THROW;
+		case CSharpTokenTypes.CHECKED:
+			return _CHECKED;
+		case CSharpTokenTypes.UNCHECKED:
+			return _UNCHECKED;
+		case CSharpTokenTypes.LOCK:
+			return _LOCK;
+		case CSharpTokenTypes.USING:
+			return _USING;
+		case CSharpTokenTypes.TRY:
+			return _TRY;
+		case CSharpTokenTypes.CATCH:
+			return _CATCH;
+		case CSharpTokenTypes.FINALLY:
+			return _FINALLY;
+		case CSharpTokenTypes.UNSAFE:
+			return _UNSAFE;
+		case CSharpTokenTypes.FIXED:
+			return _FIXED;
+		case CSharpTokenTypes.NAMESPACE:
+			return _NAMESPACE_BEGIN;
+		case CSharpTokenTypes.CLASS:
+			return _CLASS_BEGIN;
+		case CSharpTokenTypes.STRUCT:
+			return _STRUCT_BEGIN;
+		case CSharpTokenTypes.INTERFACE:
+			return _INTERFACE_BEGIN;
+		case CSharpTokenTypes.ENUM:
+			return _ENUM;
+		case CSharpTokenTypes.DELEGATE:
+			return _DELEGATE;
+		case CSharpTokenTypes.EVENT:
+			return _EVENT;
+		case CSharpTokenTypes.OPERATOR:
+			return _OPERATOR;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Maps an opening parenthesis after an identifier by the token before that identifier.
+	 */
+	private int parenthesisType(int typeBeforeIdentifier) {
+		switch (typeBeforeIdentifier) {
+		case CSharpTokenTypes.IDENTIFIER: // a named return type
+		case CSharpTokenTypes.RBRACK: // an array return type
+		case CSharpTokenTypes.VOID:
+		case CSharpTokenTypes.BOOL:
+		case CSharpTokenTypes.BYTE:
+		case CSharpTokenTypes.SBYTE:
+		case CSharpTokenTypes.CHAR:
+		case CSharpTokenTypes.DECIMAL:
+		case CSharpTokenTypes.DOUBLE:
+		case CSharpTokenTypes.FLOAT:
+		case CSharpTokenTypes.INT:
+		case CSharpTokenTypes.UINT:
+		case CSharpTokenTypes.LONG:
+		case CSharpTokenTypes.ULONG:
+		case CSharpTokenTypes.SHORT:
+		case CSharpTokenTypes.USHORT:
+		case CSharpTokenTypes.OBJECT:
+		case CSharpTokenTypes.STRING:
+			return _METHOD;
+		case CSharpTokenTypes.PUBLIC:
+		case CSharpTokenTypes.PROTECTED:
+		case CSharpTokenTypes.INTERNAL:
+		case CSharpTokenTypes.PRIVATE:
+		case CSharpTokenTypes.EXTERN:
+		case CSharpTokenTypes.UNSAFE:
+			return _CONSTRUCTOR;
+		case CSharpTokenTypes.STATIC:
+			return _STATIC_CONSTR;
+		case CSharpTokenTypes.NEW: // the arguments belong to the object creation
+			return -1;
+		default:
+			return _INVOCATION;
+		}
+	}
+
 	private void add(int type, Token tok) {
 		if (tok == null) {
 			System.out.println("tok == null  ERROR!");
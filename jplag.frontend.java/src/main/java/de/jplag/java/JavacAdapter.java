@@ -2,12 +2,19 @@ package de.jplag.java;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.tools.Diagnostic;
-import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
@@ -17,25 +24,163 @@ import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.LineMap;
 import com.sun.source.util.JavacTask;
 import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
 import com.sun.source.util.Trees;
 
+import de.jplag.ErrorConsumer;
+
 public class JavacAdapter {
 
     private static final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
 
-    public int parseFiles(File dir, File[] pathedFiles, final Parser parser) {
-        final StandardJavaFileManager jfm = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8);
-        DiagnosticCollector<? super JavaFileObject> diagListen = new DiagnosticCollector<>();
-        final JavaCompiler.CompilationTask task = javac.getTask(null, jfm, diagListen, null, null, jfm.getJavaFileObjects(pathedFiles));
+    /**
+     * The files are only parsed, thus annotation processing and lint checks are not needed. The errors are not limited,
+     * as a task parses several submissions and the errors of each one must be counted.
+     */
+    private static final List<String> OPTIONS = List.of("-proc:none", "-Xlint:none", "-Xmaxerrs", String.valueOf(Integer.MAX_VALUE));
+
+    /**
+     * Creating a file manager is expensive and it is not thread-safe, thus each parse borrows an idle one and returns it
+     * afterwards. The idle file managers are closed by {@link #closeFileManagers()}.
+     */
+    private static final Queue<StandardJavaFileManager> idleFileManagers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Compilation units of several submissions that were parsed by a single javac task.
+     */
+    public static class ParsedSubmissions {
+        private final List<List<CompilationUnitTree>> compilationUnits;
+        private final int[] errors;
+        private final SourcePositions positions;
+        private final Map<URI, Long> parseTimes;
+
+        private ParsedSubmissions(List<List<CompilationUnitTree>> compilationUnits, int[] errors, SourcePositions positions,
+                Map<URI, Long> parseTimes) {
+            this.compilationUnits = compilationUnits;
+            this.errors = errors;
+            this.positions = positions;
+            this.parseTimes = parseTimes;
+        }
+
+        /**
+         * @return the number of errors in the files of a submission.
+         */
+        public int getErrors(int submissionIndex) {
+            return errors[submissionIndex];
+        }
+    }
+
+    /**
+     * Parses the files of several submissions with a single javac task, which shares the setup costs of javac between
+     * them.
+     * @param pathedFiles are the files of each submission.
+     * @param contents are the contents of the files that are already in memory, the other files are read by javac.
+     * @param errorConsumer receives the messages of the syntax errors.
+     * @return the compilation units and the number of errors of each submission.
+     */
+    public ParsedSubmissions parse(List<File[]> pathedFiles, Map<File, CharSequence> contents, ErrorConsumer errorConsumer) {
+        StandardJavaFileManager idleFileManager = idleFileManagers.poll();
+        final StandardJavaFileManager jfm = idleFileManager != null ? idleFileManager
+                : javac.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        try {
+            return parse(jfm, pathedFiles, contents, errorConsumer);
+        } finally {
+            try {
+                jfm.flush(); // drops the cached file contents, as the file manager is reused
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            idleFileManagers.add(jfm);
+        }
+    }
+
+    /**
+     * Closes the idle file managers, e.g. after the submissions of a run were parsed. Later parses create new ones.
+     */
+    public static void closeFileManagers() {
+        StandardJavaFileManager fileManager;
+        while ((fileManager = idleFileManagers.poll()) != null) {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private ParsedSubmissions parse(StandardJavaFileManager jfm, List<File[]> pathedFiles, Map<File, CharSequence> contents,
+            ErrorConsumer errorConsumer) {
+        Map<URI, Integer> submissionIndices = new HashMap<>();
+        List<JavaFileObject> units = new ArrayList<>();
+        List<List<CompilationUnitTree>> compilationUnits = new ArrayList<>();
+        for (int i = 0; i < pathedFiles.size(); i++) {
+            for (File file : pathedFiles.get(i)) {
+                JavaFileObject unit;
+                if (contents.containsKey(file)) {
+                    unit = new MemoryJavaFileObject(file, contents.get(file));
+                } else {
+                    unit = jfm.getJavaFileObjects(file).iterator().next();
+                }
+                submissionIndices.put(unit.toUri(), i);
+                units.add(unit);
+            }
+            compilationUnits.add(new ArrayList<>());
+        }
+
+        // only errors are of interest, thus they are counted directly instead of collecting all diagnostics
+        final int[] errors = new int[pathedFiles.size()];
+        DiagnosticListener<JavaFileObject> diagListen = diagnostic -> {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errorConsumer.addError(diagnostic.toString());
+                Integer index = diagnostic.getSource() == null ? null : submissionIndices.get(diagnostic.getSource().toUri());
+                for (int i = 0; i < errors.length; i++) {
+                    if (index == null || index == i) { // errors without source invalidate all submissions
+                        errors[i]++;
+                    }
+                }
+            }
+        };
+        final JavaCompiler.CompilationTask task = javac.getTask(null, jfm, diagListen, OPTIONS, null, units);
+        Map<URI, Long> parseTimes = new HashMap<>(); // the files are parsed one after the other by the task
+        ((JavacTask) task).addTaskListener(new TaskListener() {
+            private long startTime;
+
+            @Override
+            public void started(TaskEvent event) {
+                if (event.getKind() == TaskEvent.Kind.PARSE) {
+                    startTime = System.nanoTime();
+                }
+            }
+
+            @Override
+            public void finished(TaskEvent event) {
+                if (event.getKind() == TaskEvent.Kind.PARSE) {
+                    parseTimes.put(event.getSourceFile().toUri(), System.nanoTime() - startTime);
+                }
+            }
+        });
         Iterable<? extends CompilationUnitTree> asts = Collections.emptyList();
         try {
             asts = ((JavacTask) task).parse();
         } catch (IOException e) {
             e.printStackTrace();
         }
-        final Trees trees = Trees.instance(task);
-        final SourcePositions positions = trees.getSourcePositions();
         for (final CompilationUnitTree ast : asts) {
+            compilationUnits.get(submissionIndices.get(ast.getSourceFile().toUri())).add(ast);
+        }
+        return new ParsedSubmissions(compilationUnits, errors, Trees.instance(task).getSourcePositions(), parseTimes);
+    }
+
+    /**
+     * Generates the tokens of the compilation units of a submission.
+     * @param dir is the directory of the submission, the file names of the tokens are relative to it.
+     * @param parsedSubmissions are the parsed submissions.
+     * @param submissionIndex is the index of the submission.
+     * @param parser receives the tokens.
+     */
+    public void scan(File dir, ParsedSubmissions parsedSubmissions, int submissionIndex, final Parser parser) {
+        for (final CompilationUnitTree ast : parsedSubmissions.compilationUnits.get(submissionIndex)) {
             final String filename;
             if (dir == null)
                 filename = ast.getSourceFile().getName();
@@ -43,17 +188,11 @@ public class JavacAdapter {
                 filename = Paths.get(dir.toURI()).relativize(Paths.get(ast.getSourceFile().toUri())).toString();
             }
             final LineMap map = ast.getLineMap();
-            ast.accept(new TokenGeneratingTreeScanner(filename, parser, map, positions, ast), null);
+            parser.startFile(); // the syntax trees were parsed in one batch, the time javac spent on the file is added
+            ast.accept(new TokenGeneratingTreeScanner(filename, parser, map, parsedSubmissions.positions, ast), null);
             parser.add(JavaTokenConstants.FILE_END, filename, 1, -1, -1);
+            parser.finishFile(filename, parsedSubmissions.parseTimes.getOrDefault(ast.getSourceFile().toUri(), 0L));
         }
-        int errors = 0;
-        for (Diagnostic<?> diagItem : diagListen.getDiagnostics()) {
-            if (diagItem.getKind() == javax.tools.Diagnostic.Kind.ERROR) {
-                parser.getErrorConsumer().addError(diagItem.toString());
-                errors++;
-            }
-        }
-        return errors;
     }
 
 }
@@ -1,17 +1,22 @@
 package de.jplag.java;
 
 import java.io.File;
+import java.util.List;
+import java.util.Map;
 
 import de.jplag.ErrorConsumer;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
 /**
  * Language for Java 9 and newer.
  */
 public class Language implements de.jplag.Language {
+    private final ErrorConsumer program;
     private Parser parser;
 
     public Language(ErrorConsumer program) {
+        this.program = program;
         this.parser = new Parser();
         this.parser.setProgram(program);
     }
@@ -67,6 +72,37 @@ public class Language implements de.jplag.Language {
         return this.parser.parse(dir, files);
     }
 
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createParser().parseFiles(dir, files);
+    }
+
+    @Override
+    public List<ParseResult> parseFilesInBatch(List<File> directories, List<String[]> files) {
+        return createParser().parseInBatch(directories, files);
+    }
+
+    @Override
+    public List<ParseResult> parseFilesInBatch(List<File> directories, List<String[]> files, List<Map<String, CharSequence>> contents) {
+        return createParser().parseInBatch(directories, files, contents);
+    }
+
+    @Override
+    public void releaseParserResources() {
+        JavacAdapter.closeFileManagers();
+    }
+
+    @Override
+    public boolean supportsInMemorySources() {
+        return true;
+    }
+    @Override
+    public Parser createParser() {
+        Parser parser = new Parser();
+        parser.setProgram(program);
+        return parser;
+    }
+
     @Override
     public boolean hasErrors() {
         return this.parser.hasErrors();
@@ -0,0 +1,27 @@
+package de.jplag.java;
+
+import java.io.File;
+
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * Java source file whose content is already in memory, thus javac does not read it from the file system.
+ */
+class MemoryJavaFileObject extends SimpleJavaFileObject {
+    private final CharSequence content;
+
+    /**
+     * Creates a source file.
+     * @param file is the path of the file, it determines the name of the file and need not exist.
+     * @param content is the content of the file.
+     */
+    MemoryJavaFileObject(File file, CharSequence content) {
+        super(file.getAbsoluteFile().toURI(), Kind.SOURCE);
+        this.content = content;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return content;
+    }
+}
@@ -1,24 +1,71 @@
 package de.jplag.java;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import de.jplag.AbstractParser;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
-public class Parser extends AbstractParser {
+public class Parser extends AbstractParser implements LanguageParser {
     private TokenList tokenList;
 
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createResult(parse(dir, files));
+    }
+
     public TokenList parse(File dir, String files[]) {
-        tokenList = new TokenList();
-        errors = 0;
-        File pathedFiles[] = new File[files.length];
-        for (int i = 0; i < files.length; i++) {
-            pathedFiles[i] = new File(dir, files[i]);
+        return parseInBatch(Collections.singletonList(dir), Collections.singletonList(files)).get(0).getTokenList();
+    }
+
+    /**
+     * Parses the files of several submissions with a single javac task, as setting up javac is a large share of the parse
+     * time of small submissions.
+     * @param directories are the directories of the submissions.
+     * @param files are the files of each submission, relative to its directory.
+     * @return the parse result of each submission.
+     */
+    public List<ParseResult> parseInBatch(List<File> directories, List<String[]> files) {
+        return parseInBatch(directories, files, Collections.nCopies(files.size(), Map.of()));
+    }
+
+    /**
+     * Parses the files of several submissions like {@link #parseInBatch(List, List)}, but takes the contents of files that
+     * are already in memory instead of reading them again.
+     * @param contents are the contents of some or all files of each submission, by their name relative to its directory.
+     * @return the parse result of each submission.
+     */
+    public List<ParseResult> parseInBatch(List<File> directories, List<String[]> files, List<Map<String, CharSequence>> contents) {
+        List<File[]> pathedFiles = new ArrayList<>(files.size());
+        Map<File, CharSequence> pathedContents = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            File[] submissionFiles = new File[files.get(i).length];
+            for (int j = 0; j < submissionFiles.length; j++) {
+                submissionFiles[j] = new File(directories.get(i), files.get(i)[j]);
+                CharSequence content = contents.get(i).get(files.get(i)[j]);
+                if (content != null) {
+                    pathedContents.put(submissionFiles[j], content);
+                }
+            }
+            pathedFiles.add(submissionFiles);
         }
         JavacAdapter javac = new JavacAdapter();
-        errors += javac.parseFiles(dir, pathedFiles, this);
-        this.parseEnd();
-        return tokenList;
+        JavacAdapter.ParsedSubmissions parsedSubmissions = javac.parse(pathedFiles, pathedContents, errorConsumer);
+        List<ParseResult> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            tokenList = new TokenList();
+            errors = parsedSubmissions.getErrors(i);
+            javac.scan(directories.get(i), parsedSubmissions, i, this);
+            this.parseEnd();
+            results.add(createResult(tokenList));
+        }
+        return results;
     }
 
     public void add(int type, String filename, long line, long col, long length) {
@@ -368,13 +368,13 @@ public class JplagPython3Listener implements Python3Listener, Python3TokenConsta
 
     @Override
     public void enterTestlist_comp(Python3Parser.Testlist_compContext ctx) {
-        if (ctx.getText().contains(",")) {
-            jplagParser.add(ARRAY, ctx.getStart());
-        }
+        // whether the list contains a comma is only known at its end, as the tokens are emitted while parsing
+        jplagParser.reserve(ARRAY, ctx.getStart());
     }
 
     @Override
     public void exitTestlist_comp(Python3Parser.Testlist_compContext ctx) {
+        jplagParser.resolve(jplagParser.getText(ctx.getStart(), ctx.getStop()).contains(","));
     }
 
     @Override
@@ -425,7 +425,7 @@ public class JplagPython3Listener implements Python3Listener, Python3TokenConsta
 
     @Override
     public void enterTrailer(Python3Parser.TrailerContext ctx) {
-        if (ctx.getText().charAt(0)=='(') {
+        if (ctx.getStart().getText().charAt(0)=='(') {
             jplagParser.add(APPLY, ctx.getStart());
         } else {
             jplagParser.add(ARRAY, ctx.getStart());
@@ -3,13 +3,16 @@ package de.jplag.python3;
 import java.io.File;
 
 import de.jplag.ErrorConsumer;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
 public class Language implements de.jplag.Language {
+    private final ErrorConsumer program;
 
     private Parser parser;
 
     public Language(ErrorConsumer program) {
+        this.program = program;
         this.parser = new Parser();
         this.parser.setProgram(program);
     }
@@ -45,6 +48,17 @@ public class Language implements de.jplag.Language {
         return this.parser.parse(dir, files);
     }
 
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createParser().parseFiles(dir, files);
+    }
+    @Override
+    public Parser createParser() {
+        Parser parser = new Parser();
+        parser.setProgram(program);
+        return parser;
+    }
+
     @Override
     public boolean hasErrors() {
         return this.parser.hasErrors();
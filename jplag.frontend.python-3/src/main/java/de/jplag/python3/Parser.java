@@ -5,33 +5,45 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.Token;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 import de.jplag.AbstractParser;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 import de.jplag.python3.grammar.Python3Lexer;
 import de.jplag.python3.grammar.Python3Parser;
-import de.jplag.python3.grammar.Python3Parser.File_inputContext;
 
-public class Parser extends AbstractParser implements Python3TokenConstants {
+public class Parser extends AbstractParser implements LanguageParser, Python3TokenConstants {
 
     private TokenList struct = new TokenList();
-    private String currentFile;
+    private final TokenBuffer buffer = new TokenBuffer();
+    private CommonTokenStream tokens;
+    private Python3Parser parser; // reused for all files, the lexer is not as it keeps the indentation state
+
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createResult(parse(dir, files));
+    }
 
     public TokenList parse(File dir, String files[]) {
         struct = new TokenList();
         errors = 0;
         for (int i = 0; i < files.length; i++) {
             getErrorConsumer().print(null, "Parsing file " + files[i]);
+            startFile();
             if (!parseFile(dir, files[i])) {
                 errors++;
             }
-            System.gc();//Emeric
+            finishFile(files[i]);
             struct.addToken(new Python3Token(FILE_END, files[i], -1, -1, -1));
         }
         this.parseEnd();
@@ -44,26 +56,18 @@ public class Parser extends AbstractParser implements Python3TokenConstants {
         CharStream input;
         try {
             fis = new BufferedInputStream(new FileInputStream(new File(dir, file)));
-            currentFile = file;
             input = CharStreams.fromStream(fis);
 
             // create a lexer that feeds off of input CharStream
             Python3Lexer lexer = new Python3Lexer(input);
 
             // create a buffer of tokens pulled from the lexer
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-
-            // create a parser that feeds off the tokens buffer
-            Python3Parser parser = new Python3Parser(tokens);
-            File_inputContext in = parser.file_input();
-
-            ParseTreeWalker ptw = new ParseTreeWalker();
-            for (int i = 0; i < in.getChildCount(); i++) {
-                ParseTree pt = in.getChild(i);
-                ptw.walk(new JplagPython3Listener(this), pt);
-            }
+            tokens = new CommonTokenStream(lexer);
 
+            parseTokens();
+            buffer.flushTo(struct, file);
         } catch (IOException e) {
+            buffer.clear();
             getErrorConsumer().addError("Parsing Error in '" + file + "':\n" + e.getMessage());
             return false;
         }
@@ -71,12 +75,67 @@ public class Parser extends AbstractParser implements Python3TokenConstants {
         return true;
     }
 
+    /**
+     * Parses the tokens with the faster SLL prediction first, which succeeds for almost all files. Only if it fails, the
+     * tokens are parsed again with full LL prediction, which also reports syntax errors. The prediction caches of the
+     * generated parser are static, thus they stay warm across files, parser instances and threads.
+     * <p>
+     * No parse tree is built, the listener emits the JPlag tokens into the token buffer while parsing.
+     * </p>
+     */
+    private void parseTokens() {
+        if (parser == null) {
+            parser = new Python3Parser(tokens);
+            parser.setBuildParseTree(false);
+            parser.addParseListener(new JplagPython3Listener(this));
+        } else {
+            parser.setTokenStream(tokens);
+        }
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        try {
+            parser.file_input();
+        } catch (ParseCancellationException exception) {
+            buffer.clear(); // drops the tokens emitted before the failure
+            parser.reset(); // rewinds the token stream
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.file_input();
+        }
+    }
+
+    /**
+     * @return the text of the tokens from start to stop, both inclusive.
+     */
+    String getText(Token start, Token stop) {
+        return tokens.getText(start, stop);
+    }
+
     public void add(int type, Token tok) {
-        struct.addToken(new Python3Token(type, (currentFile == null ? "null" : currentFile), tok.getLine(), tok.getCharPositionInLine() + 1,
-                tok.getText().length()));
+        buffer.add(type, tok.getLine(), tok.getCharPositionInLine() + 1, tok.getText().length());
+    }
+
+    /**
+     * Adds a token whose existence is only decided by the matching call of {@link #resolve(boolean)}.
+     */
+    void reserve(int type, Token tok) {
+        buffer.reserve(type, tok.getLine(), tok.getCharPositionInLine() + 1, tok.getText().length());
+    }
+
+    /**
+     * Keeps or removes the innermost token added by {@link #reserve(int, Token)}.
+     */
+    void resolve(boolean keep) {
+        buffer.resolve(keep);
     }
 
     public void addEnd(int type, Token tok) {
-        struct.addToken(new Python3Token(type, (currentFile == null ? "null" : currentFile), tok.getLine(), struct.getToken(struct.size()-1).getColumn() + 1,0));
+        int lastColumn = buffer.getLastColumn();
+        if (lastColumn == -1) {
+            lastColumn = struct.getToken(struct.size() - 1).getColumn();
+        }
+        buffer.add(type, tok.getLine(), lastColumn + 1, 0);
     }
 }
@@ -0,0 +1,98 @@
+package de.jplag.python3;
+
+import java.util.Arrays;
+
+import de.jplag.TokenList;
+
+/**
+ * Compact buffer for the tokens of a file, which stores their fields in arrays instead of token objects until the file
+ * was parsed successfully. Some tokens are only known at the end of their rule, thus tokens can be reserved at the
+ * start of a rule and resolved at its end.
+ */
+class TokenBuffer {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int REMOVED = -1;
+
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] columns = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private int[] reservations = new int[16];
+    private int numberOfReservations;
+
+    /**
+     * Adds a token.
+     */
+    void add(int type, int line, int column, int length) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        types[size] = type;
+        lines[size] = line;
+        columns[size] = column;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Adds a token that is kept or removed by the matching call of {@link #resolve(boolean)}. Reservations can be nested.
+     */
+    void reserve(int type, int line, int column, int length) {
+        if (numberOfReservations == reservations.length) {
+            reservations = Arrays.copyOf(reservations, numberOfReservations * 2);
+        }
+        reservations[numberOfReservations++] = size;
+        add(type, line, column, length);
+    }
+
+    /**
+     * Resolves the innermost reserved token.
+     * @param keep determines whether the token is kept or removed.
+     */
+    void resolve(boolean keep) {
+        int index = reservations[--numberOfReservations];
+        if (!keep) {
+            types[index] = REMOVED;
+        }
+    }
+
+    /**
+     * @return the column of the last token, or -1 if the buffer is empty.
+     */
+    int getLastColumn() {
+        for (int i = size - 1; i >= 0; i--) {
+            if (types[i] != REMOVED) {
+                return columns[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds all tokens to a token list.
+     * @param tokenList is the token list.
+     * @param file is the file of the tokens.
+     */
+    void flushTo(TokenList tokenList, String file) {
+        for (int i = 0; i < size; i++) {
+            if (types[i] != REMOVED) {
+                tokenList.addToken(new Python3Token(types[i], file, lines[i], columns[i], lengths[i]));
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Removes all tokens.
+     */
+    void clear() {
+        size = 0;
+        numberOfReservations = 0;
+    }
+}
@@ -1,27 +1,47 @@
 package de.jplag.scheme;
 
 import java.io.File;
+import java.io.InputStream;
 
 import de.jplag.AbstractParser;
+import de.jplag.FileBuffer;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.TokenList;
 
-public class Parser extends AbstractParser implements SchemeTokenConstants {
+public class Parser extends AbstractParser implements LanguageParser, SchemeTokenConstants {
+	/**
+	 * The generated parser allocates large buffers, thus each thread reuses its parser and file buffer for all files.
+	 */
+	private static final ThreadLocal<SchemeParser> parsers = ThreadLocal
+			.withInitial(() -> new SchemeParser(InputStream.nullInputStream(), "UTF-8"));
+	private static final ThreadLocal<FileBuffer> buffers = ThreadLocal.withInitial(FileBuffer::new);
+
 	private String actFile;
 
 	private TokenList struct;
 
+	@Override
+	public ParseResult parseFiles(File dir, String[] files) {
+		return createResult(parse(dir, files));
+	}
+
 	public TokenList parse(File dir, String files[]) {
 		struct = new TokenList();
 		errors = 0;
-		SchemeParser parser = null;// no worry it will be reinitialized
-		// in method parseFile(...)
+		SchemeParser parser = parsers.get();
+		FileBuffer buffer = buffers.get();
 		for (int i = 0; i < files.length; i++) {
 			actFile = files[i];
 		    getErrorConsumer().print(null, "Parsing file " + files[i]);
-			if (!SchemeParser.parseFile(dir, files[i], parser, this))
+			startFile();
+			if (!SchemeParser.parseFile(dir, files[i], parser, buffer, this))
 				errors++;
+			finishFile(files[i]);
 			struct.addToken(new SchemeToken(FILE_END, actFile, 1));
 		}
+		parser.ReInit(InputStream.nullInputStream(), "UTF-8"); // drops the reference to the content of the last file
+		buffer.release();
 		this.parseEnd();
 		return struct;
 	}
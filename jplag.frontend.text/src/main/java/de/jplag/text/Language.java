@@ -1,9 +1,13 @@
 
 package de.jplag.text;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
 
 import de.jplag.ErrorConsumer;
+import de.jplag.ParseResult;
 import de.jplag.Token;
 import de.jplag.TokenList;
 
@@ -11,7 +15,11 @@ public class Language implements de.jplag.Language {
 
     private ErrorConsumer program;
 
-    private Parser parser = new Parser();
+    private final Vocabulary vocabulary = new Vocabulary();
+
+    private Parser parser = new Parser(vocabulary);
+
+    private boolean lexerOnly = false;
 
     public Language(ErrorConsumer program) {
         this.program = program;
@@ -49,6 +57,22 @@ public class Language implements de.jplag.Language {
         return this.parser.parse(dir, files);
     }
 
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createParser().parseFiles(dir, files);
+    }
+
+    /**
+     * Creates a new parser instance, which allows parsing files concurrently. All parsers share the vocabulary.
+     */
+    @Override
+    public Parser createParser() {
+        Parser parser = new Parser(vocabulary);
+        parser.setProgram(program);
+        parser.setLexerOnly(lexerOnly);
+        return parser;
+    }
+
     @Override
     public boolean hasErrors() {
         return this.parser.hasErrors();
@@ -64,6 +88,37 @@ public class Language implements de.jplag.Language {
         return false;
     }
 
+    @Override
+    public boolean hasState() {
+        return true; // token types depend on the order in which words were first seen
+    }
+
+    @Override
+    public void resetState() {
+        vocabulary.clear();
+    }
+
+    @Override
+    public void readState(DataInputStream input) throws IOException {
+        vocabulary.read(input);
+    }
+
+    @Override
+    public void writeState(DataOutputStream output) throws IOException {
+        vocabulary.write(output);
+    }
+
+    @Override
+    public boolean supportsLexerOnlyMode() {
+        return true;
+    }
+
+    @Override
+    public void setLexerOnly(boolean lexerOnly) {
+        this.lexerOnly = lexerOnly;
+        parser.setLexerOnly(lexerOnly);
+    }
+
     @Override
     public boolean usesIndex() {
         return false;
@@ -71,7 +126,7 @@ public class Language implements de.jplag.Language {
 
     @Override
     public int numberOfTokens() {
-        return parser.serial;
+        return vocabulary.size();
     }
 
     @Override
@@ -2,31 +2,48 @@ package de.jplag.text;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.util.Hashtable;
 
 import antlr.Token;
 import de.jplag.AbstractParser;
 import de.jplag.InputState;
+import de.jplag.LanguageParser;
+import de.jplag.ParseResult;
 import de.jplag.ParserToken;
 import de.jplag.TokenConstants;
 import de.jplag.TokenList;
 
-public class Parser extends AbstractParser implements TokenConstants {
+public class Parser extends AbstractParser implements LanguageParser, TokenConstants {
 
-    protected Hashtable<String, Integer> table = new Hashtable<>();
-    protected int serial = 1; // 0 is FILE_END token
+    private final Vocabulary vocabulary;
 
     private TokenList struct;
 
     private String currentFile;
 
+    private boolean lexerOnly = false;
+
+    /**
+     * Creates a parser.
+     * @param vocabulary is the vocabulary that assigns the token types, which may be shared with other parsers.
+     */
+    public Parser(Vocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    @Override
+    public ParseResult parseFiles(File dir, String[] files) {
+        return createResult(parse(dir, files));
+    }
+
     public TokenList parse(File dir, String files[]) {
         struct = new TokenList();
         errors = 0;
         for (String file : files) {
             getErrorConsumer().print("", "Parsing file " + file);
+            startFile();
             if (!parseFile(dir, file))
                 errors++;
+            finishFile(file);
             struct.addToken(new TextToken(FILE_END, file, this));
         }
 
@@ -47,13 +64,22 @@ public class Parser extends AbstractParser implements TokenConstants {
             lexer.setFilename(file);
             lexer.setTokenObjectClass("de.jplag.ParserToken");
 
-            // Create a parser that reads from the scanner
-            TextParser parser = new TextParser(lexer);
-            parser.setFilename(file);
-            parser.parser = this;// Added by Emeric 26.01.05 BAD
+            if (lexerOnly) {
+                // the parser only passes on the words, thus they can be taken from the lexer directly
+                for (Token token = lexer.nextToken(); token.getType() != Token.EOF_TYPE; token = lexer.nextToken()) {
+                    if (token.getType() == TextParserTokenTypes.WORD) {
+                        add(token);
+                    }
+                }
+            } else {
+                // Create a parser that reads from the scanner
+                TextParser parser = new TextParser(lexer);
+                parser.setFilename(file);
+                parser.parser = this;// Added by Emeric 26.01.05 BAD
 
-            // start parsing at the compilationUnit rule
-            parser.file();
+                // start parsing at the compilationUnit rule
+                parser.file();
+            }
 
             // close file
             inputStream.close();
@@ -65,9 +91,20 @@ public class Parser extends AbstractParser implements TokenConstants {
         return true;
     }
 
+    /**
+     * Selects whether the words are taken from the lexer directly instead of the parser.
+     */
+    public void setLexerOnly(boolean lexerOnly) {
+        this.lexerOnly = lexerOnly;
+    }
+
     public void add(Token tok) {
         ParserToken ptok = (ParserToken) tok;
-        struct.addToken(new TextToken(tok.getText(), currentFile, ptok.getLine(), ptok.getColumn(), ptok.getLength(), this));
+        String text = tok.getText().toLowerCase();
+        int serial = vocabulary.getSerial(text);
+        if (serial == Integer.MAX_VALUE)
+            outOfSerials();
+        struct.addToken(new TextToken(serial, text, currentFile, ptok.getLine(), ptok.getColumn(), ptok.getLength(), this));
     }
 
     private boolean runOut = false;
@@ -5,22 +5,6 @@ import de.jplag.Token;
 public class TextToken extends Token {
     private static final long serialVersionUID = 4301179216570538972L;
 
-    private static int getSerial(String text, Parser parser) {
-        text = text.toLowerCase();
-        Integer serial = parser.table.get(text);
-        if (serial == null) {
-            serial = Integer.valueOf(parser.serial);
-            if (parser.serial == Integer.MAX_VALUE)
-                parser.outOfSerials();
-            else
-                parser.serial++;
-            parser.table.put(text, serial);
-        }
-        return serial.intValue();
-    }
-
-    // ///////////////////// END OF STATIC MEMBERS
-
     private int line, column, length;
     private String text;
 
@@ -28,10 +12,9 @@ public class TextToken extends Token {
         super(type, file, -1, -1, -1);
     }
 
-    public TextToken(String text, String file, int line, int column, int length, Parser parser) {
-        super(-1, file, line, column, length);
-        this.type = getSerial(text, parser);
-        this.text = text.toLowerCase();
+    public TextToken(int type, String text, String file, int line, int column, int length, Parser parser) {
+        super(type, file, line, column, length);
+        this.text = text;
     }
 
     @Override
@@ -0,0 +1,71 @@
+package de.jplag.text;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vocabulary that assigns each distinct word a serial number, which is the type of its tokens. It is shared by all
+ * parsers of a language, thus files can be parsed concurrently and the token types are consistent across them.
+ */
+public class Vocabulary {
+    private static final int FIRST_SERIAL = 1; // 0 is FILE_END token
+
+    private final Map<String, Integer> serials = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSerial = new AtomicInteger(FIRST_SERIAL);
+
+    /**
+     * Returns the serial number of a word, which is assigned when the word is first seen. Once all serial numbers are
+     * used, all new words share the last one.
+     * @param word is the word in lower case.
+     */
+    public int getSerial(String word) {
+        return serials.computeIfAbsent(word, it -> nextSerial.getAndUpdate(serial -> serial == Integer.MAX_VALUE ? serial : serial + 1));
+    }
+
+    /**
+     * @return the number of serial numbers in use, including the one of the FILE_END token.
+     */
+    public int size() {
+        return nextSerial.get();
+    }
+
+    /**
+     * Removes all words, the serial numbers are assigned anew. It must not be called while files are parsed.
+     */
+    public synchronized void clear() {
+        serials.clear();
+        nextSerial.set(FIRST_SERIAL);
+    }
+
+    /**
+     * Replaces the words of the vocabulary with the stored ones.
+     * @throws IOException if the vocabulary cannot be read.
+     */
+    public synchronized void read(DataInputStream input) throws IOException {
+        int numberOfWords = input.readInt();
+        Map<String, Integer> storedSerials = new ConcurrentHashMap<>();
+        for (int i = 0; i < numberOfWords; i++) {
+            storedSerials.put(input.readUTF(), FIRST_SERIAL + i);
+        }
+        serials.clear();
+        serials.putAll(storedSerials);
+        nextSerial.set(FIRST_SERIAL + numberOfWords);
+    }
+
+    /**
+     * Writes the words in the order of their serial numbers. It must not be called while files are parsed.
+     * @throws IOException if the vocabulary cannot be written.
+     */
+    public synchronized void write(DataOutputStream output) throws IOException {
+        String[] words = new String[nextSerial.get() - FIRST_SERIAL];
+        serials.forEach((word, serial) -> words[serial - FIRST_SERIAL] = word);
+        output.writeInt(words.length);
+        for (String word : words) {
+            output.writeUTF(word);
+        }
+    }
+}
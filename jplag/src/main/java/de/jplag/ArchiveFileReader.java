@@ -0,0 +1,278 @@
+package de.jplag;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the files of zip and tar archives into memory, so submissions can be compared without extracting them. Nested
+ * archives are streamed from the entries of the enclosing archive, their files appear under the path of the nested
+ * archive as if it was a directory.
+ */
+public final class ArchiveFileReader {
+
+    private static final String[] ZIP_SUFFIXES = {".zip"};
+    private static final String[] TAR_SUFFIXES = {".tar"};
+    private static final String[] COMPRESSED_TAR_SUFFIXES = {".tar.gz", ".tgz"};
+
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final char TAR_FILE = '0';
+    private static final char TAR_OLD_FILE = 0;
+    private static final char TAR_LONG_NAME = 'L'; // GNU extension, the name of the next entry is the content
+    private static final char TAR_EXTENDED_HEADER = 'x'; // POSIX extension, may contain the path of the next entry
+
+    private ArchiveFileReader() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * @return true if the file name has the suffix of a supported archive format.
+     */
+    public static boolean isArchive(String fileName) {
+        return archiveSuffix(fileName) != null;
+    }
+
+    /**
+     * @return the file name without the suffix of its archive format, e.g. the name of the submission it contains.
+     */
+    public static String stripArchiveSuffix(String fileName) {
+        String suffix = archiveSuffix(fileName);
+        return suffix == null ? fileName : fileName.substring(0, fileName.length() - suffix.length());
+    }
+
+    /**
+     * Reads the files of an archive, including the files of nested archives.
+     * @param archive is the zip or tar file.
+     * @param filter decides by the path of a file whether it is read, nested archives are always read.
+     * @return the contents of the files by their path within the archive, in the order of their paths.
+     * @throws IOException if the archive cannot be read or is malformed.
+     */
+    public static Map<String, byte[]> read(File archive, Predicate<String> filter) throws IOException {
+        Map<String, byte[]> contents = new TreeMap<>();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(archive.toPath()))) {
+            read(archive.getName(), input, "", filter, contents);
+        } catch (IllegalArgumentException exception) { // e.g. malformed entry names of zip files
+            throw new IOException("Malformed archive " + archive.getName() + ": " + exception.getMessage(), exception);
+        }
+        return contents;
+    }
+
+    private static void read(String archiveName, InputStream input, String prefix, Predicate<String> filter, Map<String, byte[]> contents)
+            throws IOException {
+        String suffix = archiveSuffix(archiveName);
+        if (Arrays.asList(ZIP_SUFFIXES).contains(suffix)) {
+            readZip(new ZipInputStream(input), prefix, filter, contents);
+        } else if (Arrays.asList(COMPRESSED_TAR_SUFFIXES).contains(suffix)) {
+            readTar(new BufferedInputStream(new GZIPInputStream(input)), prefix, filter, contents);
+        } else {
+            readTar(input, prefix, filter, contents);
+        }
+    }
+
+    private static void readZip(ZipInputStream zip, String prefix, Predicate<String> filter, Map<String, byte[]> contents) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory()) {
+                readEntry(entry.getName(), zip, prefix, filter, contents);
+            }
+        }
+    }
+
+    /**
+     * Reads a tar stream of the ustar format, including the long names of the GNU and POSIX extensions.
+     */
+    private static void readTar(InputStream tar, String prefix, Predicate<String> filter, Map<String, byte[]> contents) throws IOException {
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+        String longName = null;
+        while (tar.readNBytes(header, 0, TAR_BLOCK_SIZE) == TAR_BLOCK_SIZE && header[0] != 0) {
+            String name = tarString(header, 0, 100);
+            if (tarString(header, 257, 5).equals("ustar") && header[345] != 0) {
+                name = tarString(header, 345, 155) + "/" + name;
+            }
+            if (tarNumber(header, 148, 8) != tarChecksum(header)) {
+                throw new IOException("Malformed tar header of entry " + name);
+            }
+            long size = tarNumber(header, 124, 12);
+            char type = (char) header[156];
+            EntryInputStream entry = new EntryInputStream(tar, size);
+            if (type == TAR_LONG_NAME) {
+                byte[] nameBytes = entry.readAllBytes(); // shorter than the size if the archive is truncated
+                longName = tarString(nameBytes, 0, nameBytes.length);
+            } else if (type == TAR_EXTENDED_HEADER) {
+                longName = extendedHeaderPath(new String(entry.readAllBytes(), StandardCharsets.UTF_8));
+            } else {
+                if (type == TAR_FILE || type == TAR_OLD_FILE) { // directories, links and special files are skipped
+                    readEntry(longName == null ? name : longName, entry, prefix, filter, contents);
+                }
+                longName = null;
+            }
+            entry.skipRemaining();
+            tar.skipNBytes((TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+        }
+    }
+
+    private static void readEntry(String entryName, InputStream entry, String prefix, Predicate<String> filter, Map<String, byte[]> contents)
+            throws IOException {
+        String path = normalize(entryName);
+        if (path == null) {
+            return; // entries outside of the archive are ignored
+        }
+        if (isArchive(path)) {
+            read(path, new EntryInputStream(entry, Long.MAX_VALUE), prefix + path + "/", filter, contents);
+        } else if (filter.test(prefix + path)) {
+            contents.put(prefix + path, entry.readAllBytes());
+        }
+    }
+
+    /**
+     * @return the path with forward slashes and without redundant elements, or null if it points outside of the archive.
+     */
+    private static String normalize(String entryName) {
+        Path path = Path.of("", entryName.replace('\\', '/').split("/")).normalize();
+        if (path.toString().isEmpty() || path.startsWith("..")) {
+            return null;
+        }
+        return path.toString().replace(File.separatorChar, '/');
+    }
+
+    private static String extendedHeaderPath(String header) {
+        // records have the form "<length> <key>=<value>\n"
+        for (String record : header.split("\n")) {
+            int start = record.indexOf(" path=");
+            if (start >= 0) {
+                return record.substring(start + " path=".length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the value of a numeric header field, which is either octal or base-256 for large values (GNU extension).
+     */
+    private static long tarNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7F;
+            for (int index = offset + 1; index < offset + length; index++) {
+                if (value > Long.MAX_VALUE >>> 8) {
+                    throw new IOException("Unsupported tar header value");
+                }
+                value = (value << 8) | (header[index] & 0xFF);
+            }
+            return value;
+        }
+        String octal = tarString(header, offset, length).trim();
+        if (octal.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(octal, 8);
+        } catch (NumberFormatException exception) {
+            throw new IOException("Malformed tar header value: " + octal, exception);
+        }
+    }
+
+    /**
+     * @return the sum of the unsigned header bytes, where the checksum field itself counts as spaces.
+     */
+    private static long tarChecksum(byte[] header) {
+        long checksum = 0;
+        for (int index = 0; index < TAR_BLOCK_SIZE; index++) {
+            checksum += index >= 148 && index < 156 ? ' ' : header[index] & 0xFF;
+        }
+        return checksum;
+    }
+
+    private static String tarString(byte[] block, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && block[end] != 0) {
+            end++;
+        }
+        return new String(block, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String archiveSuffix(String fileName) {
+        String lowerCaseName = fileName.toLowerCase();
+        for (String[] suffixes : new String[][] {ZIP_SUFFIXES, COMPRESSED_TAR_SUFFIXES, TAR_SUFFIXES}) {
+            for (String suffix : suffixes) {
+                if (lowerCaseName.endsWith(suffix)) {
+                    return suffix;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stream of a single entry of an archive, which neither reads beyond the entry nor closes the archive.
+     */
+    private static class EntryInputStream extends FilterInputStream {
+        private long remaining;
+
+        EntryInputStream(InputStream archive, long size) {
+            super(archive);
+            remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int result = super.read();
+            if (result >= 0) {
+                remaining--;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int result = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (result > 0) {
+                remaining -= result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(Math.min(count, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // the archive is closed by its reader
+        }
+
+        void skipRemaining() throws IOException {
+            skipNBytes(remaining);
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package de.jplag;
 
+import static de.jplag.CommandLineArgument.ARCHIVE;
+import static de.jplag.CommandLineArgument.ARCHIVE_CACHE;
 import static de.jplag.CommandLineArgument.BASE_CODE;
+import static de.jplag.CommandLineArgument.CHECKPOINT;
 import static de.jplag.CommandLineArgument.COMPARISON_MODE;
+import static de.jplag.CommandLineArgument.CORPUS;
 import static de.jplag.CommandLineArgument.DEBUG;
 import static de.jplag.CommandLineArgument.EXCLUDE_FILE;
 import static de.jplag.CommandLineArgument.LANGUAGE;
+import static de.jplag.CommandLineArgument.LEXER_ONLY;
 import static de.jplag.CommandLineArgument.MIN_TOKEN_MATCH;
+import static de.jplag.CommandLineArgument.PARSER_BATCH_SIZE;
+import static de.jplag.CommandLineArgument.PARSER_THREADS;
 import static de.jplag.CommandLineArgument.RESULT_FOLDER;
+import static de.jplag.CommandLineArgument.RESUME;
 import static de.jplag.CommandLineArgument.ROOT_DIRECTORY;
 import static de.jplag.CommandLineArgument.SIMILARITY_THRESHOLD;
 import static de.jplag.CommandLineArgument.SHOWN_COMPARISONS;
+import static de.jplag.CommandLineArgument.STEP_BUDGET;
 import static de.jplag.CommandLineArgument.SUBDIRECTORY;
 import static de.jplag.CommandLineArgument.SUFFIXES;
+import static de.jplag.CommandLineArgument.TIME_BUDGET;
+import static de.jplag.CommandLineArgument.TOKEN_CACHE;
+import static de.jplag.CommandLineArgument.TOKEN_CACHE_SIZE;
 import static de.jplag.CommandLineArgument.VERBOSITY;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Random;
 
 import de.jplag.exceptions.ExitException;
@@ -22,6 +35,7 @@ import de.jplag.options.JPlagOptions;
 import de.jplag.options.LanguageOption;
 import de.jplag.options.Verbosity;
 import de.jplag.reporting.Report;
+import de.jplag.server.JPlagServer;
 import de.jplag.strategy.ComparisonMode;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
@@ -45,10 +59,15 @@ public class CLI {
     private final ArgumentParser parser;
 
     /**
-     * Main class for using JPlag via the CLI.
+     * Main class for using JPlag via the CLI. If the first argument is <code>serve</code>, a {@link JPlagServer} is
+     * started instead.
      * @param args are the CLI arguments that will be passed to JPlag.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && JPlagServer.COMMAND.equals(args[0])) {
+            JPlagServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         try {
             CLI cli = new CLI();
             Namespace arguments = cli.parseArguments(args);
@@ -90,6 +109,16 @@ public class CLI {
         return null;
     }
 
+    /**
+     * Parses an array of argument strings without exiting if they are invalid.
+     * @param arguments is the array to parse.
+     * @return the parsed arguments in a {@link Namespace} format.
+     * @throws ArgumentParserException if the arguments are invalid.
+     */
+    public Namespace parseArgumentsStrictly(String[] arguments) throws ArgumentParserException {
+        return parser.parseArgs(arguments);
+    }
+
     /**
      * Builds a options instance from parsed arguments.
      * @param namespace encapsulates the parsed arguments in a {@link Namespace} format.
@@ -114,6 +143,36 @@ public class CLI {
         options.setMaximumNumberOfComparisons(SHOWN_COMPARISONS.getFrom(namespace));
         ComparisonMode.fromName(COMPARISON_MODE.getFrom(namespace)).ifPresentOrElse(it -> options.setComparisonMode(it),
                 () -> System.out.println("Unknown comparison mode, using default mode!"));
+        Long stepBudget = STEP_BUDGET.getFrom(namespace);
+        if (stepBudget != null) {
+            options.setComparisonStepBudget(stepBudget);
+        }
+        Long timeBudget = TIME_BUDGET.getFrom(namespace);
+        if (timeBudget != null) {
+            options.setComparisonTimeBudget(timeBudget);
+        }
+        options.setCheckpointDirectoryName(CHECKPOINT.getFrom(namespace));
+        options.setResume(RESUME.getFrom(namespace));
+        options.setCorpusDirectoryName(CORPUS.getFrom(namespace));
+        String archiveString = ARCHIVE.getFrom(namespace);
+        if (archiveString != null) {
+            options.setArchiveDirectoryNames(archiveString.replaceAll("\\s+", "").split(","));
+        }
+        options.setArchiveCacheDirectoryName(ARCHIVE_CACHE.getFrom(namespace));
+        Integer parserThreads = PARSER_THREADS.getFrom(namespace);
+        if (parserThreads != null) {
+            options.setNumberOfParserThreads(parserThreads);
+        }
+        Integer parserBatchSize = PARSER_BATCH_SIZE.getFrom(namespace);
+        if (parserBatchSize != null) {
+            options.setParserBatchSize(parserBatchSize);
+        }
+        options.setTokenCacheDirectoryName(TOKEN_CACHE.getFrom(namespace));
+        Long tokenCacheSize = TOKEN_CACHE_SIZE.getFrom(namespace);
+        if (tokenCacheSize != null) {
+            options.setTokenCacheSizeLimit(tokenCacheSize * 1024 * 1024);
+        }
+        options.setLexerOnly(LEXER_ONLY.getFrom(namespace));
         return options;
     }
 
@@ -0,0 +1,24 @@
+package de.jplag;
+
+/**
+ * Allows to cancel a running JPlag from another thread. Parsing, comparing and report writing check the token
+ * cooperatively and stop as soon as possible, which leaves a partial result that is flagged as cancelled. A token cannot
+ * be reset, thus a new token is required for every run.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    /**
+     * Requests the cancellation of the runs using this token.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the cancellation was requested.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -32,7 +32,19 @@ public enum CommandLineArgument {
     SIMILARITY_THRESHOLD("-m", Float.class, DEFAULT_SIMILARITY_THRESHOLD),
     SHOWN_COMPARISONS("-n", Integer.class, DEFAULT_SHOWN_COMPARISONS),
     RESULT_FOLDER("-r", String.class, "result"),
-    COMPARISON_MODE("-c", String.class, DEFAULT_COMPARISON_MODE.getName(), ComparisonMode.allNames());
+    COMPARISON_MODE("-c", String.class, DEFAULT_COMPARISON_MODE.getName(), ComparisonMode.allNames()),
+    STEP_BUDGET("--step-budget", Long.class),
+    TIME_BUDGET("--time-budget", Long.class),
+    CHECKPOINT("--checkpoint", String.class),
+    RESUME("--resume", Boolean.class),
+    CORPUS("--corpus", String.class),
+    ARCHIVE("--archive", String.class),
+    ARCHIVE_CACHE("--archive-cache", String.class),
+    PARSER_THREADS("--parser-threads", Integer.class),
+    PARSER_BATCH_SIZE("--parser-batch-size", Integer.class),
+    TOKEN_CACHE("--token-cache", String.class),
+    TOKEN_CACHE_SIZE("--token-cache-size", Long.class),
+    LEXER_ONLY("--lexer-only", Boolean.class);
 
     private final String flag;
     private final String description;
@@ -68,10 +80,11 @@ public enum CommandLineArgument {
     }
 
     /**
-     * @return the flag name of the command line argument without leading dashes.
+     * @return the flag name of the command line argument without leading dashes, with inner dashes replaced by
+     * underscores like in the keys of the parsed arguments.
      */
     public String flagWithoutDash() {
-        return flag.replace("-", "");
+        return flag.replaceFirst("^-+", "").replace("-", "_");
     }
 
     /**
@@ -3,30 +3,32 @@ package de.jplag;
 import static de.jplag.options.Verbosity.LONG;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.Verbosity;
 
 /**
- * Error collector class that collects errors but also allows printing the collected errors.
+ * Error collector class that collects errors but also allows printing the collected errors. It is thread-safe, the name
+ * of the currently processed submission is tracked per thread.
  * @author Timur Saglam
  */
 public class ErrorCollector implements ErrorConsumer { // TODO TS should be eventually replaced with a true logger/logging manager
 
     private final List<String> collectedErrors; // List of errors that occurred during the execution of the errorConsumer.
     private final JPlagOptions options;
-    private String currentSubmissionName;
+    private final ThreadLocal<String> currentSubmissionName;
 
     public ErrorCollector(JPlagOptions options) {
         this.options = options;
-        collectedErrors = new ArrayList<>();
-        currentSubmissionName = "<Unknown submission>";
+        collectedErrors = Collections.synchronizedList(new ArrayList<>());
+        currentSubmissionName = ThreadLocal.withInitial(() -> "<Unknown submission>");
     }
 
     @Override
     public void addError(String errorMessage) {
-        collectedErrors.add("[" + currentSubmissionName + "] " + errorMessage);
+        collectedErrors.add("[" + currentSubmissionName.get() + "] " + errorMessage);
         print(null, "\t" + errorMessage);
     }
 
@@ -50,20 +52,22 @@ public class ErrorCollector implements ErrorConsumer { // TODO TS should be even
     public void printCollectedErrors() {
         StringBuilder errorReport = new StringBuilder();
         System.out.println("The following errors occured: ");
-        for (String message : collectedErrors) {
-            errorReport.append(message);
-            errorReport.append('\n');
+        synchronized (collectedErrors) {
+            for (String message : collectedErrors) {
+                errorReport.append(message);
+                errorReport.append('\n');
+            }
         }
 
         System.out.println(errorReport.toString());
     }
 
     /**
-     * Updates the name of the currently processed submission.
+     * Updates the name of the submission that is currently processed by the calling thread.
      * @param currentSubmissionName is the name.
      */
     public void setCurrentSubmissionName(String currentSubmissionName) {
-        this.currentSubmissionName = currentSubmissionName;
+        this.currentSubmissionName.set(currentSubmissionName);
     }
 
     /**
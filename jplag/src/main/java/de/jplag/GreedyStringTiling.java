@@ -2,6 +2,7 @@ package de.jplag;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import de.jplag.options.JPlagOptions;
 
@@ -15,6 +16,16 @@ import de.jplag.options.JPlagOptions;
  */
 public class GreedyStringTiling implements TokenConstants {
 
+    /**
+     * Number of hash candidates per token that are checked by the approximate tiling.
+     */
+    private static final int APPROXIMATION_CANDIDATES = 8;
+
+    /**
+     * The wall time is only checked every 2^12 steps, as querying the clock is more expensive than a step.
+     */
+    private static final int TIME_CHECK_MASK = (1 << 12) - 1;
+
     private final JPlagOptions options;
 
     public GreedyStringTiling(JPlagOptions options) {
@@ -144,18 +155,28 @@ public class GreedyStringTiling implements TokenConstants {
         }
 
         List<Match> matches = new ArrayList<>();
+        long steps = 0;
+        long stepBudget = options.getComparisonStepBudget();
+        long timeBudget = options.getComparisonTimeBudget();
+        long deadline = timeBudget == -1 ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        boolean exhausted = false;
 
         // start the black magic:
         int maxMatch;
         do {
             maxMatch = minimumTokenMatch;
             matches.clear();
-            for (int x = 0; x < first.size() - maxMatch; x++) {
+            search: for (int x = 0; x < first.size() - maxMatch; x++) {
                 List<Integer> hashedTokens = second.tokenHashes.get(first.getToken(x).hash);
                 if (first.getToken(x).marked || first.getToken(x).hash == -1) {
                     continue;
                 }
                 inner: for (Integer y : hashedTokens) {
+                    steps++;
+                    if (steps == stepBudget || (steps & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                        exhausted = true; // keep the matches found so far, they do not overlap
+                        break search;
+                    }
                     if (second.getToken(y).marked || maxMatch >= second.size() - y) { // >= because of pivots!
                         continue;
                     }
@@ -187,21 +208,65 @@ public class GreedyStringTiling implements TokenConstants {
                 int y = matches.get(i).getStartOfSecond();  // Beginning of/in sequence B
                 comparison.addMatch(x, y, matches.get(i).getLength());
                 // in order that "Match" will be newly build (because reusing)
-                for (int j = matches.get(i).getLength(); j > 0; j--) {
-                    first.getToken(x).marked = second.getToken(y).marked = true; // mark all Tokens!
-                    if (isBaseCodeComparison) {
-                        first.getToken(x).basecode = second.getToken(y).basecode = true;
-                    }
-                    x++;
-                    y++;
-                }
+                markMatch(first, second, x, y, matches.get(i).getLength(), isBaseCodeComparison);
             }
 
-        } while (maxMatch != minimumTokenMatch);
+        } while (maxMatch != minimumTokenMatch && !exhausted);
 
+        if (exhausted) {
+            addApproximateMatches(first, second, comparison, isBaseCodeComparison);
+            comparison.markAsIncomplete();
+        }
         return comparison;
     }
 
+    /**
+     * Tiles the remaining unmarked tokens in a single greedy pass, which is used once the budget of a comparison is
+     * exhausted. Instead of searching for the maximal match in each iteration, every position takes the first match of
+     * at least the minimum length among a few hash candidates. This finds most of the remaining matches, but they are not
+     * guaranteed to be maximal.
+     */
+    private void addApproximateMatches(TokenList first, TokenList second, JPlagComparison comparison, boolean isBaseCodeComparison) {
+        int minimumTokenMatch = options.getMinimumTokenMatch();
+        for (int x = 0; x < first.size() - minimumTokenMatch; x++) {
+            if (first.getToken(x).marked || first.getToken(x).hash == -1) {
+                continue;
+            }
+            List<Integer> hashedTokens = second.tokenHashes.get(first.getToken(x).hash);
+            for (int candidate = 0; candidate < Math.min(hashedTokens.size(), APPROXIMATION_CANDIDATES); candidate++) {
+                int y = hashedTokens.get(candidate);
+                if (second.getToken(y).marked || minimumTokenMatch >= second.size() - y) {
+                    continue;
+                }
+                int length = 0;
+                while (first.getToken(x + length).type == second.getToken(y + length).type && !first.getToken(x + length).marked
+                        && !second.getToken(y + length).marked) {
+                    length++;
+                }
+                if (length >= minimumTokenMatch) {
+                    comparison.addMatch(x, y, length);
+                    markMatch(first, second, x, y, length, isBaseCodeComparison);
+                    x += length - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the tokens of a match in both token lists, so that they cannot be part of another match.
+     */
+    private void markMatch(TokenList first, TokenList second, int x, int y, int length, boolean isBaseCodeComparison) {
+        for (int j = length; j > 0; j--) {
+            first.getToken(x).marked = second.getToken(y).marked = true; // mark all Tokens!
+            if (isBaseCodeComparison) {
+                first.getToken(x).basecode = second.getToken(y).basecode = true;
+            }
+            x++;
+            y++;
+        }
+    }
+
     private void addMatchIfNotOverlapping(List<Match> matches, int startA, int startB, int length) {
         for (int i = matches.size() - 1; i >= 0; i--) { // starting at the end is better(?)
             if (matches.get(i).overlap(startA, startB, length)) {
@@ -1,15 +1,25 @@
 package de.jplag;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
 
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.SubmissionException;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.LanguageOption;
+import de.jplag.storage.Checkpoint;
 import de.jplag.strategy.ComparisonStrategy;
 import de.jplag.strategy.NormalComparisonStrategy;
 import de.jplag.strategy.ParallelComparisonStrategy;
+import de.jplag.strategy.PipelinedComparisonStrategy;
+import de.jplag.strategy.ShardedComparisonStrategy;
 
 /**
  * This class coordinates the whole errorConsumer flow.
@@ -30,69 +40,164 @@ public class JPlag {
      * @throws ExitException if the initialization fails.
      */
     public JPlag(JPlagOptions options) throws ExitException {
+        this(options, errorConsumer -> loadLanguage(options.getLanguageOption(), errorConsumer));
+    }
+
+    /**
+     * Creates and initializes a JPlag instance with a language instance that is provided externally, which allows to reuse
+     * language instances across multiple runs.
+     * @param options determines the parameterization.
+     * @param languageProvider provides the language instance for the configured language, given the error consumer of this
+     * instance to which the language should report its errors.
+     * @throws ExitException if the initialization fails.
+     */
+    public JPlag(JPlagOptions options, Function<ErrorConsumer, Language> languageProvider) throws ExitException {
         this.options = options;
         errorCollector = new ErrorCollector(options);
         coreAlgorithm = new GreedyStringTiling(options);
-        initializeLanguage();
+        initializeLanguage(languageProvider);
         initializeComparisonStrategy();
     }
 
+    /**
+     * Instantiates the frontend of a language via reflection.
+     * @param languageOption is the language.
+     * @param errorConsumer receives the errors of the frontend.
+     * @return the new language instance.
+     */
+    public static Language loadLanguage(LanguageOption languageOption, ErrorConsumer errorConsumer) {
+        try {
+            Constructor<?> constructor = Class.forName(languageOption.getClassPath()).getConstructor(ErrorConsumer.class);
+            Object[] constructorParams = {errorConsumer};
+            return (Language) constructor.newInstance(constructorParams);
+        } catch (NoSuchMethodException | SecurityException | ClassNotFoundException | InstantiationException | IllegalAccessException
+                | IllegalArgumentException | InvocationTargetException e) {
+            e.printStackTrace();
+            throw new IllegalStateException("Language instantiation failed:" + e.getMessage());
+        }
+    }
+
     /**
      * Main procedure, executes the comparison of source code submissions.
      * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold.
      * @throws ExitException if the JPlag exits preemptively.
      */
     public JPlagResult run() throws ExitException {
+        language.resetState(); // the language instance may be reused from an earlier run
+
         // Parse and validate submissions.
+        // In the pipelined mode, the strategy compares the submissions while they are parsed.
+        ParseListener parseListener = comparisonStrategy instanceof ParseListener ? (ParseListener) comparisonStrategy : null;
         SubmissionSetBuilder builder = new SubmissionSetBuilder(language, options, errorCollector);
-        SubmissionSet submissionSet = builder.buildSubmissionSet();
+        SubmissionSet submissionSet = builder.buildSubmissionSet(parseListener);
+        boolean cancelled = options.getCancellationToken().isCancelled();
+        if (cancelled && parseListener == null) { // a pipelined strategy returns the comparisons made while parsing instead
+            return createCancelledResult(submissionSet);
+        }
 
-        if (submissionSet.hasBaseCode()) {
+        if (submissionSet.hasBaseCode() && parseListener == null) {
             coreAlgorithm.createHashes(submissionSet.getBaseCode().getTokenList(), options.getMinimumTokenMatch(), true);
         }
 
         int submissionCount = submissionSet.numberOfSubmissions();
-        if (submissionCount < 2) {
+        if (submissionCount < 2 && !cancelled) {
             throw new SubmissionException("Not enough valid submissions! (found " + submissionCount + " valid submissions)");
         }
 
         // Compare valid submissions.
         JPlagResult result = comparisonStrategy.compareSubmissions(submissionSet);
+        submissionSet.getCheckpoint().ifPresent(Checkpoint::flush);
+        if (submissionSet.getCorpus().isPresent() && !result.isCancelled()) {
+            saveCorpus(submissionSet);
+        }
         errorCollector.print("\nTotal time for comparing submissions: " + TimeUtil.formatDuration(result.getDuration()), null);
+        if (!result.getIncompleteComparisons().isEmpty()) {
+            errorCollector.print(result.getIncompleteComparisons().size() + " comparisons exceeded their budget and are incomplete", null);
+        }
+        if (result.isCancelled()) {
+            errorCollector.print("Run was cancelled, the result is partial!", null);
+        }
+        return result;
+    }
+
+    /**
+     * Runs JPlag in a new thread, see {@link #run()}. Cancelling the returned future also cancels the run, but discards the
+     * partial result. To obtain the partial result, use {@link #cancel()} and wait for the future instead.
+     * @return the future result of the run.
+     */
+    public Future<JPlagResult> runAsync() {
+        FutureTask<JPlagResult> task = new FutureTask<>(this::run) {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                JPlag.this.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Thread thread = new Thread(task, "JPlag");
+        thread.start();
+        return task;
+    }
+
+    /**
+     * Cancels the run cooperatively. The run stops as soon as possible and returns a partial result that is flagged as
+     * cancelled, see {@link JPlagResult#isCancelled()}.
+     */
+    public void cancel() {
+        options.getCancellationToken().cancel();
+    }
+
+    private void saveCorpus(SubmissionSet submissionSet) throws ExitException {
+        Optional<Submission> baseCode = submissionSet.hasBaseCode() ? Optional.of(submissionSet.getBaseCode()) : Optional.empty();
+        try {
+            submissionSet.getCorpus().get().save(submissionSet.getSubmissions(), baseCode);
+        } catch (IOException exception) {
+            throw new SubmissionException("Cannot write the corpus: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * @return an empty result for a run that was cancelled before the comparison started.
+     */
+    private JPlagResult createCancelledResult(SubmissionSet submissionSet) {
+        JPlagResult result = new JPlagResult(new ArrayList<>(), List.of(), new int[10], 0, submissionSet.numberOfSubmissions(), options);
+        result.markAsCancelled();
+        errorCollector.print("Run was cancelled before comparing the submissions!", null);
         return result;
     }
 
     private void initializeComparisonStrategy() {
         switch (options.getComparisonMode()) {
         case NORMAL:
-            comparisonStrategy = new NormalComparisonStrategy(options, coreAlgorithm);
+            comparisonStrategy = new NormalComparisonStrategy(options, coreAlgorithm, errorCollector);
             break;
         case PARALLEL:
-            comparisonStrategy = new ParallelComparisonStrategy(options, coreAlgorithm);
+            comparisonStrategy = new ParallelComparisonStrategy(options, coreAlgorithm, errorCollector);
+            break;
+        case SHARDED:
+            comparisonStrategy = new ShardedComparisonStrategy(options, coreAlgorithm, errorCollector);
+            break;
+        case PIPELINED:
+            if (options.hasCheckpoint() || options.hasCorpus()) {
+                // the pairs that are already compared are only known once all submissions are parsed
+                errorCollector.print("The pipelined comparison mode does not support checkpoints and corpora, the parallel mode is used", null);
+                comparisonStrategy = new ParallelComparisonStrategy(options, coreAlgorithm, errorCollector);
+            } else {
+                comparisonStrategy = new PipelinedComparisonStrategy(options, coreAlgorithm, errorCollector);
+            }
             break;
         default:
             throw new UnsupportedOperationException("Comparison mode not properly supported: " + options.getComparisonMode());
         }
     }
 
-    private void initializeLanguage() {
-        LanguageOption languageOption = this.options.getLanguageOption();
-
-        try {
-            Constructor<?> constructor = Class.forName(languageOption.getClassPath()).getConstructor(ErrorConsumer.class);
-            Object[] constructorParams = {errorCollector};
-
-            Language language = (Language) constructor.newInstance(constructorParams);
-
-            this.language = language;
-            this.options.setLanguage(language);
-        } catch (NoSuchMethodException | SecurityException | ClassNotFoundException | InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException e) {
-            e.printStackTrace();
-            throw new IllegalStateException("Language instantiation failed:" + e.getMessage());
-        }
-
+    private void initializeLanguage(Function<ErrorConsumer, Language> languageProvider) {
+        this.language = languageProvider.apply(errorCollector);
+        this.options.setLanguage(language);
         this.options.setLanguageDefaults(this.language);
+        this.language.setLexerOnly(options.isLexerOnly()); // language instances may be reused across runs
+        if (options.isLexerOnly() && !language.supportsLexerOnlyMode()) {
+            errorCollector.print(language.getName() + " does not support the lexer-only mode, the files are fully parsed", null);
+        }
 
         System.out.println("Initialized language " + this.language.getName());
     }
@@ -20,6 +20,7 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
     private final Submission secondSubmission;
 
     private final List<Match> matches;
+    private boolean incomplete;
 
     public JPlagComparison(Submission firstSubmission, Submission secondSubmission) {
         this.firstSubmission = firstSubmission;
@@ -27,6 +28,21 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
         matches = new ArrayList<>();
     }
 
+    /**
+     * @return true if the comparison exceeded its budget and its matches were completed approximately, see
+     * {@link de.jplag.options.JPlagOptions#getComparisonStepBudget()}. The similarity may then be underestimated.
+     */
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * Flags the comparison as exceeding its budget.
+     */
+    public void markAsIncomplete() {
+        incomplete = true;
+    }
+
     /**
      * Add a match to the comparison (token indices and number of tokens), if it does not overlap with the existing matches.
      * @see Match#Match(int, int, int)
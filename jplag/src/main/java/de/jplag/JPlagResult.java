@@ -1,5 +1,6 @@
 package de.jplag;
 
+import java.util.Arrays;
 import java.util.List;
 
 import de.jplag.options.JPlagOptions;
@@ -14,6 +15,22 @@ public class JPlagResult {
      */
     private List<JPlagComparison> comparisons;
 
+    /**
+     * Number of all comparisons whose similarity was above the specified threshold, including the ones that were not
+     * retained in the comparison list.
+     */
+    private int numberOfComparisons;
+
+    /**
+     * List of comparisons that exceeded their budget and were completed approximately, independent of their similarity.
+     */
+    private List<JPlagComparison> incompleteComparisons = List.of();
+
+    /**
+     * True if the run was cancelled before all submission pairs were compared.
+     */
+    private boolean cancelled;
+
     /**
      * Duration of the JPlag run in milliseconds.
      */
@@ -53,9 +70,30 @@ public class JPlagResult {
         this.numberOfSubmissions = numberOfSubmissions;
         this.options = options;
         similarityDistribution = calculateSimilarityDistribution(comparisons);
+        numberOfComparisons = comparisons.size();
         comparisons.sort((first, second) -> Float.compare(second.similarity(), first.similarity())); // Sort by percentage (descending).
     }
 
+    /**
+     * Creates results from comparisons that were already reduced while comparing.
+     * @param comparisons are the retained comparisons, sorted by percentage (descending).
+     * @param incompleteComparisons are the comparisons that exceeded their budget.
+     * @param similarityDistribution is the distribution of all comparisons, including the ones that were not retained.
+     * @param durationInMillis is the duration of the comparison.
+     * @param numberOfSubmissions is the number of compared submissions.
+     * @param options are the options of the run.
+     */
+    public JPlagResult(List<JPlagComparison> comparisons, List<JPlagComparison> incompleteComparisons, int[] similarityDistribution,
+            long durationInMillis, int numberOfSubmissions, JPlagOptions options) {
+        this.comparisons = comparisons;
+        this.incompleteComparisons = incompleteComparisons;
+        this.similarityDistribution = similarityDistribution;
+        this.durationInMillis = durationInMillis;
+        this.numberOfSubmissions = numberOfSubmissions;
+        this.options = options;
+        numberOfComparisons = Arrays.stream(similarityDistribution).sum();
+    }
+
     /**
      * Drops elements from the comparison list to free memory. Note, that this affects the similarity distribution and is
      * only meant to be used if you don't need the information about comparisons with lower match percentage anymore.
@@ -91,6 +129,36 @@ public class JPlagResult {
         return durationInMillis;
     }
 
+    /**
+     * @return the number of all comparisons above the similarity threshold. This may exceed the size of the comparison
+     * list, as only the best comparisons are retained.
+     */
+    public int getNumberOfComparisons() {
+        return numberOfComparisons;
+    }
+
+    /**
+     * @return the comparisons that exceeded their budget and whose matches were completed approximately. This includes
+     * comparisons below the similarity threshold.
+     */
+    public List<JPlagComparison> getIncompleteComparisons() {
+        return incompleteComparisons;
+    }
+
+    /**
+     * @return true if the run was cancelled, the result then only covers the submission pairs compared until then.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Flags the result as partial because the run was cancelled.
+     */
+    public void markAsCancelled() {
+        cancelled = true;
+    }
+
     public int getNumberOfSubmissions() {
         return numberOfSubmissions;
     }
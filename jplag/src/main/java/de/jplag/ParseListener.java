@@ -0,0 +1,31 @@
+package de.jplag;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Receives the submissions of a {@link SubmissionSet} as soon as they are parsed, which allows comparing them while the
+ * remaining submissions are still being parsed.
+ */
+public interface ParseListener {
+
+    /**
+     * Called before the submissions are parsed. The basecode, if there is one, is already parsed at that point.
+     * @param submissions are all submissions that will be parsed, including the ones that turn out to be invalid.
+     * @param baseCode is the valid basecode submission, if there is one.
+     */
+    void parsingStarted(List<Submission> submissions, Optional<Submission> baseCode);
+
+    /**
+     * Called for every valid submission once it is parsed or its token stream is restored. It may be called concurrently
+     * by the parser threads and may block them to slow down parsing.
+     * @param submission is the parsed submission.
+     */
+    void submissionParsed(Submission submission);
+
+    /**
+     * Called once parsing is finished, also if it failed.
+     * @param successful is false if parsing was aborted by an error.
+     */
+    void parsingFinished(boolean successful);
+}
@@ -0,0 +1,64 @@
+package de.jplag;
+
+/**
+ * Language-independent token that is restored from a stored token list, see {@link TokenListCodec}.
+ */
+public class StoredToken extends Token {
+    private static final long serialVersionUID = 4629518003627349012L; // generated
+
+    private int line, column, length;
+    private final int index;
+
+    /**
+     * Creates a restored token.
+     * @param type is the token type.
+     * @param file is the name of the file the token belongs to.
+     * @param line is the line of the token.
+     * @param column is the column of the token, or -1 if unknown.
+     * @param length is the length of the token, or -1 if unknown.
+     * @param index is the character index of the token, or -1 if not used by the language.
+     */
+    public StoredToken(int type, String file, int line, int column, int length, int index) {
+        super(type, file, line, column, length);
+        this.index = index;
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    protected void setLine(int line) {
+        this.line = line;
+    }
+
+    @Override
+    protected void setColumn(int column) {
+        this.column = column;
+    }
+
+    @Override
+    protected void setLength(int length) {
+        this.length = length;
+    }
+
+    void setBasecode(boolean basecode) {
+        this.basecode = basecode;
+    }
+}
@@ -7,14 +7,27 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetDecoder;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import de.jplag.exceptions.ReportGenerationException;
 import de.jplag.options.JPlagOptions;
+import de.jplag.storage.TokenCache;
 
 /**
  * Represents a single submission. A submission can contain multiple files.
@@ -55,6 +68,27 @@ public class Submission implements Comparable<Submission> {
      */
     private JPlagComparison baseCodeComparison;
 
+    /**
+     * Whether the submission belongs to an archive of prior submissions, which are not compared with each other.
+     */
+    private boolean archived;
+
+    /**
+     * Contents of the files by their path relative to the submission root, if they were read into memory. They are parsed
+     * and shown in the report without reading the files again.
+     */
+    private Map<String, String> sourceContents;
+
+    /**
+     * Attributes of the files that were read when the submission was scanned, or null if they are queried from the files.
+     */
+    private Map<File, BasicFileAttributes> fileAttributes;
+
+    /**
+     * Whether the files of the submission were read from an archive file and only exist in memory.
+     */
+    private final boolean inMemory;
+
     private final Language language;
     private final ErrorCollector errorCollector;
 
@@ -72,6 +106,25 @@ public class Submission implements Comparable<Submission> {
         this.files = files;
         this.language = language;
         this.errorCollector = errorCollector;
+        inMemory = false;
+    }
+
+    /**
+     * Creates a submission whose files only exist in memory, e.g. because they were read from an archive file.
+     * @param name Identification of the submission.
+     * @param submissionRoot Path of the submission within the archive file, the paths of its files are relative to it.
+     * @param sourceContents are the contents of the files by their path relative to the submission root.
+     * @param language is the language of the submission.
+     * @param errorCollector is the interface for error reporting.
+     */
+    public Submission(String name, File submissionRoot, Map<String, String> sourceContents, Language language, ErrorCollector errorCollector) {
+        this.name = name;
+        this.submissionRoot = submissionRoot;
+        this.sourceContents = new TreeMap<>(sourceContents);
+        this.files = this.sourceContents.keySet().stream().map(it -> new File(submissionRoot, it)).collect(Collectors.toList());
+        this.language = language;
+        this.errorCollector = errorCollector;
+        inMemory = true;
     }
 
     /**
@@ -81,6 +134,56 @@ public class Submission implements Comparable<Submission> {
         return files;
     }
 
+    /**
+     * Sets the attributes of the files that were read when the submission was scanned, so they need not be queried again.
+     * @param fileAttributes are the attributes by file.
+     */
+    public void setFileAttributes(Map<File, BasicFileAttributes> fileAttributes) {
+        this.fileAttributes = fileAttributes;
+    }
+
+    /**
+     * @return the size of a file of the submission in bytes.
+     */
+    public long getFileSize(File file) {
+        if (inMemory) {
+            return sourceContents.get(submissionRoot.toPath().relativize(file.toPath()).toString()).length();
+        }
+        if (fileAttributes != null && fileAttributes.containsKey(file)) {
+            return fileAttributes.get(file).size();
+        }
+        return file.length();
+    }
+
+    /**
+     * @return the time a file of the submission was last modified in milliseconds since the epoch, or 0 if it only exists
+     * in memory.
+     */
+    public long getLastModified(File file) {
+        if (inMemory) {
+            return 0;
+        }
+        if (fileAttributes != null && fileAttributes.containsKey(file)) {
+            return fileAttributes.get(file).lastModifiedTime().toMillis();
+        }
+        return file.lastModified();
+    }
+
+    /**
+     * @return true if the files of the submission only exist in memory, see {@link #getSourceContents()}.
+     */
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * @return the contents of the files by their path relative to the submission root, or null if they were not read
+     * into memory.
+     */
+    public Map<String, String> getSourceContents() {
+        return sourceContents == null ? null : Collections.unmodifiableMap(sourceContents);
+    }
+
     /**
      * @return Identification of the submission (often a directory or file name).
      */
@@ -147,21 +250,146 @@ public class Submission implements Comparable<Submission> {
     }
 
     /**
-     * Parse files of the submission.
+     * Parse files of the submission. The language is stateless, thus submissions can be parsed concurrently.
      * @return Whether parsing was successful.
      */
     public boolean parse(boolean debugParser) {
+        return parse(debugParser, null);
+    }
+
+    /**
+     * Parse files of the submission, restoring the token streams of unchanged files from a token cache.
+     * @param tokenCache is the token cache, or null if all files are parsed.
+     * @return Whether parsing was successful.
+     */
+    public boolean parse(boolean debugParser, TokenCache tokenCache) {
+        parseInBatch(Collections.singletonList(this), debugParser, tokenCache);
+        return !hasErrors;
+    }
+
+    /**
+     * Parse files of several submissions of the same language at once, which allows the language to share setup costs
+     * between them. Whether parsing a submission was successful is reflected by {@link #hasErrors()}.
+     * @param submissions are the submissions to parse.
+     * @param tokenCache is the token cache, or null if all files are parsed.
+     */
+    public static void parseInBatch(List<Submission> submissions, boolean debugParser, TokenCache tokenCache) {
+        List<Submission> parsableSubmissions = submissions.stream().filter(Submission::hasFilesToParse).collect(Collectors.toList());
+        if (parsableSubmissions.isEmpty()) {
+            return;
+        }
+        Language language = parsableSubmissions.get(0).language;
+        List<File> directories = new ArrayList<>();
+        List<String[]> relativeFilePaths = new ArrayList<>();
+        List<Map<String, CharSequence>> contents = new ArrayList<>();
+        List<File> temporaryDirectories = new ArrayList<>();
+        try {
+            for (Submission submission : parsableSubmissions) {
+                String[] submissionFilePaths = submission.getRelativeFilePaths(submission.submissionRoot, submission.files);
+                if (tokenCache != null && submission.sourceContents == null) {
+                    submission.loadSourceContents(submissionFilePaths); // the cache reads the files anyway
+                }
+                File directory = submission.submissionRoot;
+                if (submission.inMemory && !language.supportsInMemorySources()) {
+                    directory = submission.writeTemporaryFiles(); // the language only reads from the file system
+                    temporaryDirectories.add(directory);
+                }
+                directories.add(directory);
+                relativeFilePaths.add(submissionFilePaths);
+                contents.add(submission.sourceContents == null ? Map.of() : Collections.unmodifiableMap(submission.sourceContents));
+            }
+
+            List<ParseResult> results;
+            if (tokenCache == null) {
+                results = language.parseFilesInBatch(directories, relativeFilePaths, contents);
+            } else {
+                results = tokenCache.parseFilesInBatch(language, directories, relativeFilePaths, contents);
+            }
+            for (int i = 0; i < parsableSubmissions.size(); i++) {
+                parsableSubmissions.get(i).processParseResult(results.get(i), debugParser);
+            }
+        } finally {
+            temporaryDirectories.forEach(Submission::deleteTemporaryFiles);
+        }
+    }
+
+    /**
+     * Writes the files of a submission that only exists in memory to a temporary directory, for languages that cannot
+     * parse from memory.
+     * @return the temporary directory, the files have the same paths relative to it as to the submission root.
+     */
+    private File writeTemporaryFiles() {
+        try {
+            Path directory = Files.createTempDirectory("jplag-submission");
+            for (Map.Entry<String, String> file : sourceContents.entrySet()) {
+                Path path = directory.resolve(file.getKey());
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, file.getValue(), JPlagOptions.CHARSET);
+            }
+            return directory.toFile();
+        } catch (IOException exception) {
+            errorCollector.print("Could not write the files of submission \"" + name + "\" for parsing: " + exception.getMessage(), null);
+            return submissionRoot; // the language reports the missing files
+        }
+    }
+
+    private static void deleteTemporaryFiles(File directory) {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException exception) {
+            // left to the operating system
+        }
+    }
+
+    /**
+     * Opens a file of the submission, from memory if its content was already read.
+     */
+    private Reader openSource(String file) throws FileNotFoundException {
+        if (sourceContents != null && sourceContents.containsKey(file)) {
+            return new StringReader(sourceContents.get(file));
+        }
+        return new InputStreamReader(new FileInputStream(new File(submissionRoot, file)), JPlagOptions.CHARSET);
+    }
+
+    /**
+     * Reads the contents of the files into memory. Files that cannot be read or decoded are left out, the language
+     * reports them when it reads them itself.
+     */
+    private void loadSourceContents(String[] relativeFilePaths) {
+        sourceContents = new HashMap<>();
+        for (String relativeFilePath : relativeFilePaths) {
+            try {
+                byte[] content = Files.readAllBytes(new File(submissionRoot, relativeFilePath).toPath());
+                CharsetDecoder decoder = JPlagOptions.CHARSET.newDecoder(); // reports malformed input like the languages do
+                sourceContents.put(relativeFilePath, decoder.decode(ByteBuffer.wrap(content)).toString());
+            } catch (IOException exception) {
+                // left to the language
+            }
+        }
+    }
+
+    /**
+     * Invalidates the submission if it has no files.
+     * @return Whether there are files to parse.
+     */
+    private boolean hasFilesToParse() {
         if (files == null || files.size() == 0) {
             errorCollector.print("ERROR: nothing to parse for submission \"" + name, null);
             tokenList = null;
             hasErrors = true; // invalidate submission
             return false;
         }
+        return true;
+    }
 
-        String[] relativeFilePaths = getRelativeFilePaths(submissionRoot, files);
-
-        tokenList = language.parse(submissionRoot, relativeFilePaths);
-        if (!language.hasErrors()) {
+    /**
+     * Takes the tokens of a parse result, or invalidates the submission if parsing failed or it is too short.
+     * @return Whether parsing was successful.
+     */
+    private boolean processParseResult(ParseResult result, boolean debugParser) {
+        printSlowestFile(result);
+        if (!result.hasErrors()) {
+            tokenList = result.getTokenList();
             if (tokenList.size() < 3) {
                 errorCollector.print("Submission \"" + name + "\" is too short!", null);
                 tokenList = null;
@@ -179,6 +407,11 @@ public class Submission implements Comparable<Submission> {
         return false;
     }
 
+    private void printSlowestFile(ParseResult result) {
+        result.getFileParseTimes().entrySet().stream().max(Map.Entry.comparingByValue()).ifPresent(
+                slowest -> errorCollector.print(null, "Slowest file: " + slowest.getKey() + " (" + slowest.getValue() / 1_000_000 + " msec)"));
+    }
+
     /**
      * Used by the "Report" class. All source files are returned as an array of an array of strings.
      */
@@ -191,9 +424,7 @@ public class Submission implements Comparable<Submission> {
             text.clear();
 
             try {
-                FileInputStream fileInputStream = new FileInputStream(new File(submissionRoot, files[i]));
-                InputStreamReader inputStreamReader = new InputStreamReader(fileInputStream, JPlagOptions.CHARSET);
-                BufferedReader in = new BufferedReader(inputStreamReader);
+                BufferedReader in = new BufferedReader(openSource(files[i]));
 
                 while ((help = in.readLine()) != null) {
                     help = help.replaceAll("&", "&amp;");
@@ -204,8 +435,6 @@ public class Submission implements Comparable<Submission> {
                 }
 
                 in.close();
-                inputStreamReader.close();
-                fileInputStream.close();
             } catch (FileNotFoundException e) {
                 System.out.println("File not found: " + ((new File(submissionRoot, files[i])).toString()));
             } catch (IOException e) {
@@ -226,6 +455,10 @@ public class Submission implements Comparable<Submission> {
         char[][] result = new char[files.length][];
 
         for (int i = 0; i < files.length; i++) {
+            if (sourceContents != null && sourceContents.containsKey(files[i])) {
+                result[i] = sourceContents.get(files[i]).toCharArray();
+                continue;
+            }
             // If the token path is absolute, ignore the provided directory
             File file = new File(files[i]);
             if (!file.isAbsolute()) {
@@ -275,6 +508,17 @@ public class Submission implements Comparable<Submission> {
         hasErrors = true;
     }
 
+    /**
+     * @return true if the submission belongs to an archive of prior submissions.
+     */
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void markAsArchived() {
+        archived = true;
+    }
+
     @Override
     public int compareTo(Submission other) {
         return name.compareTo(other.name);
@@ -290,11 +534,20 @@ public class Submission implements Comparable<Submission> {
      */
     private void copySubmission() {
         File rootDirectory = submissionRoot.getParentFile();
+        while (inMemory && rootDirectory != null && !rootDirectory.isDirectory()) {
+            rootDirectory = rootDirectory.getParentFile(); // the folder is placed next to the archive file
+        }
         assert rootDirectory != null;
         File submissionDirectory = createSubdirectory(rootDirectory, ERROR_FOLDER, language.getShortName(), name);
         for (File file : files) {
             try {
-                Files.copy(file.toPath(), new File(submissionDirectory, file.getName()).toPath());
+                Path target = new File(submissionDirectory, file.getName()).toPath();
+                if (inMemory) {
+                    String relativePath = submissionRoot.toPath().relativize(file.toPath()).toString();
+                    Files.writeString(target, sourceContents.get(relativePath), JPlagOptions.CHARSET);
+                } else {
+                    Files.copy(file.toPath(), target);
+                }
             } catch (IOException exception) {
                 errorCollector.print("Error copying file: " + exception.toString() + "\n", null);
             }
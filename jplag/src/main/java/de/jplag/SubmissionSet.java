@@ -2,15 +2,27 @@ package de.jplag;
 
 import static java.util.stream.Collectors.toList;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import de.jplag.exceptions.BasecodeException;
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.SubmissionException;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressTracker;
+import de.jplag.storage.Checkpoint;
+import de.jplag.storage.Corpus;
+import de.jplag.storage.TokenCache;
 
 /**
  * Collection of all submissions and their basecode if it exists. Parses all submissions upon creation.
@@ -30,8 +42,12 @@ public class SubmissionSet {
 
     private final ErrorCollector errorCollector;
     private final JPlagOptions options;
-    private int errors = 0;
-    private String currentSubmissionName;
+    private final Optional<Checkpoint> checkpoint;
+    private final Optional<Corpus> corpus;
+    private final Optional<TokenCache> tokenCache;
+    private final Optional<ParseListener> parseListener;
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger tooShort = new AtomicInteger();
 
     /**
      * @param submissions Submissions to check for plagiarism.
@@ -39,13 +55,47 @@ public class SubmissionSet {
      */
     public SubmissionSet(List<Submission> submissions, Optional<Submission> baseCode, ErrorCollector errorCollector, JPlagOptions options)
             throws ExitException {
+        this(submissions, baseCode, errorCollector, options, null, null);
+    }
+
+    /**
+     * @param submissions Submissions to check for plagiarism.
+     * @param baseCode Base code submission if it exists.
+     * @param checkpoint Checkpoint of the run, or null if no checkpoints are written.
+     * @param corpus Corpus of an incremental run, or null if the run is not incremental.
+     * <p>Submissions whose token streams were already restored from the checkpoint or corpus are not parsed again.</p>
+     */
+    public SubmissionSet(List<Submission> submissions, Optional<Submission> baseCode, ErrorCollector errorCollector, JPlagOptions options,
+            Checkpoint checkpoint, Corpus corpus) throws ExitException {
+        this(submissions, baseCode, errorCollector, options, checkpoint, corpus, null);
+    }
+
+    /**
+     * @param submissions Submissions to check for plagiarism.
+     * @param baseCode Base code submission if it exists.
+     * @param checkpoint Checkpoint of the run, or null if no checkpoints are written.
+     * @param corpus Corpus of an incremental run, or null if the run is not incremental.
+     * @param parseListener Receives the submissions as soon as they are parsed, or null. The basecode is parsed first if
+     * there is a listener.
+     */
+    public SubmissionSet(List<Submission> submissions, Optional<Submission> baseCode, ErrorCollector errorCollector, JPlagOptions options,
+            Checkpoint checkpoint, Corpus corpus, ParseListener parseListener) throws ExitException {
         this.allSubmissions = submissions;
         this.baseCodeSubmission = baseCode;
         this.errorCollector = errorCollector;
         this.options = options;
-        parseAllSubmissions();
+        this.checkpoint = Optional.ofNullable(checkpoint);
+        this.corpus = Optional.ofNullable(corpus);
+        this.parseListener = Optional.ofNullable(parseListener);
+        this.tokenCache = createTokenCache();
+        try {
+            parseAllSubmissions();
+        } finally {
+            tokenCache.ifPresent(TokenCache::close);
+        }
         this.submissions = filterValidSubmissions();
         invalidSubmissions = filterInvalidSubmissions();
+        storeTokenLists();
     }
 
     /**
@@ -92,6 +142,30 @@ public class SubmissionSet {
         return invalidSubmissions;
     }
 
+    /**
+     * @return The checkpoint of the run if checkpoints are written.
+     */
+    public Optional<Checkpoint> getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @return The corpus of the run if it is incremental.
+     */
+    public Optional<Corpus> getCorpus() {
+        return corpus;
+    }
+
+    private void storeTokenLists() throws ExitException {
+        if (checkpoint.isPresent() && !options.getCancellationToken().isCancelled()) {
+            try {
+                checkpoint.get().storeTokenLists(submissions, baseCodeSubmission);
+            } catch (IOException exception) {
+                throw new SubmissionException("Cannot write the token streams to the checkpoint: " + exception.getMessage());
+            }
+        }
+    }
+
     private List<Submission> filterValidSubmissions() {
         return allSubmissions.stream().filter(submission -> !submission.hasErrors()).collect(Collectors.toCollection(ArrayList::new));
     }
@@ -101,31 +175,57 @@ public class SubmissionSet {
     }
 
     private void parseAllSubmissions() throws ExitException {
+        ProgressTracker progressTracker = new ProgressTracker(options, ProgressPhase.PARSE, allSubmissions.size() + (hasBaseCode() ? 1 : 0));
+        boolean successful = false;
         try {
-            parseSubmissions(allSubmissions);
-            if (baseCodeSubmission.isPresent()) {
-                parseBaseCodeSubmission(baseCodeSubmission.get()); // cannot use ifPresent because of throws declaration
+            if (parseListener.isPresent()) {
+                parseBaseCode(progressTracker); // the listener compares the submissions with the basecode as soon as they are parsed
+                parseListener.get().parsingStarted(allSubmissions, baseCodeSubmission);
+                parseSubmissions(allSubmissions, progressTracker);
+            } else {
+                parseSubmissions(allSubmissions, progressTracker);
+                parseBaseCode(progressTracker);
+            }
+            successful = true;
+        } finally {
+            options.getLanguage().releaseParserResources();
+            if (parseListener.isPresent()) {
+                parseListener.get().parsingFinished(successful);
             }
-        } catch (OutOfMemoryError exception) {
-            throw new SubmissionException("Out of memory during parsing of submission \"" + currentSubmissionName + "\"");
         }
+        progressTracker.finish();
+        tokenCache.ifPresent(it -> {
+            errorCollector.print(null, "Token cache: " + it.getNumberOfHits() + " files restored, " + it.getNumberOfMisses() + " files parsed");
+            it.evict();
+        });
         if (errorCollector.hasErrors()) {
             errorCollector.printCollectedErrors();
         }
     }
 
+    private void parseBaseCode(ProgressTracker progressTracker) throws ExitException {
+        if (baseCodeSubmission.isPresent() && !options.getCancellationToken().isCancelled()) {
+            try {
+                parseBaseCodeSubmission(baseCodeSubmission.get(), progressTracker); // cannot use ifPresent because of throws declaration
+            } catch (OutOfMemoryError exception) {
+                throw new SubmissionException("Out of memory during parsing of submission \"" + baseCodeSubmission.get().getName() + "\"");
+            }
+        }
+    }
+
     /**
      * Parse the given base code submission.
      */
-    private void parseBaseCodeSubmission(Submission baseCode) throws BasecodeException {
+    private void parseBaseCodeSubmission(Submission baseCode, ProgressTracker progressTracker) throws BasecodeException {
         long startTime = System.currentTimeMillis();
         errorCollector.print("----- Parsing basecode submission: " + baseCode.getName(), null);
-        if (!baseCode.parse(options.isDebugParser())) {
+        if (!isRestored(baseCode) && !baseCode.parse(options.isDebugParser(), tokenCache.orElse(null))) {
             errorCollector.printCollectedErrors();
             throw new BasecodeException("Could not successfully parse basecode submission!");
         } else if (baseCode.getNumberOfTokens() < options.getMinimumTokenMatch()) {
             throw new BasecodeException("Basecode submission contains fewer tokens than minimum match length allows!");
         }
+        progressTracker.advance(numberOfBytes(baseCode), baseCode.getNumberOfTokens());
         errorCollector.print("Basecode submission parsed!", null);
         long duration = System.currentTimeMillis() - startTime;
         errorCollector.print(null, "Time for parsing Basecode: " + TimeUtil.formatDuration(duration));
@@ -133,9 +233,10 @@ public class SubmissionSet {
     }
 
     /**
-     * Parse all given submissions.
+     * Parse all given submissions. If the language supports it, the submissions are parsed in parallel. Submissions are
+     * parsed in batches if the batch size is greater than one.
      */
-    private void parseSubmissions(List<Submission> submissions) {
+    private void parseSubmissions(List<Submission> submissions, ProgressTracker progressTracker) throws SubmissionException {
         if (submissions.isEmpty()) {
             errorCollector.print("No submissions to parse!", null);
             return;
@@ -143,39 +244,160 @@ public class SubmissionSet {
 
         long startTime = System.currentTimeMillis();
 
-        int tooShort = 0;
-        for (Submission submission : submissions) {
-            boolean ok;
+        List<List<Submission>> batches = partition(submissions, options.getParserBatchSize());
+        int numberOfThreads = Math.min(options.getNumberOfParserThreads(), batches.size());
+        if (numberOfThreads <= 1 || !options.getLanguage().supportsParallelParsing()) {
+            for (List<Submission> batch : batches) {
+                if (options.getCancellationToken().isCancelled()) {
+                    break;
+                }
+                try {
+                    parseBatch(batch, progressTracker);
+                } catch (OutOfMemoryError exception) {
+                    throw new SubmissionException("Out of memory during parsing of submission \"" + namesOf(batch) + "\"");
+                }
+            }
+        } else {
+            parseSubmissionsInParallel(batches, progressTracker, numberOfThreads);
+        }
+        if (options.getCancellationToken().isCancelled()) {
+            errorCollector.print("Parsing cancelled!", null);
+        }
 
-            errorCollector.print(null, "------ Parsing submission: " + submission.getName());
-            currentSubmissionName = submission.getName();
-            errorCollector.setCurrentSubmissionName(currentSubmissionName);
+        int validSubmissions = submissions.size() - errors.get() - tooShort.get();
+        errorCollector.print(validSubmissions + " submissions parsed successfully!", null);
+        errorCollector.print(errors + " parser error" + (errors.get() != 1 ? "s!" : "!") + "", null);
+        errorCollector.print(tooShort + " too short submission" + (tooShort.get() != 1 ? "s!" : "!") + "", null);
+        printDetails(submissions, startTime, tooShort.get());
+        errorCollector.print("", null); // new line
+    }
 
-            if (!(ok = submission.parse(options.isDebugParser()))) {
-                errors++;
+    /**
+     * Parses the batches with a thread pool. All threads share the language, as its parse contract is stateless.
+     */
+    private void parseSubmissionsInParallel(List<List<Submission>> batches, ProgressTracker progressTracker, int numberOfThreads)
+            throws SubmissionException {
+        ExecutorService threadPool = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(batches.size());
+            for (List<Submission> batch : batches) {
+                futures.add(threadPool.submit(() -> {
+                    if (!options.getCancellationToken().isCancelled()) {
+                        parseBatch(batch, progressTracker);
+                    }
+                }));
             }
-
-            if (submission.getTokenList() != null && submission.getNumberOfTokens() < options.getMinimumTokenMatch()) {
-                errorCollector.addError("Submission contains fewer tokens than minimum match length allows!");
-                submission.setTokenList(null);
-                tooShort++;
-                ok = false;
-                submission.markAsErroneous();
+            for (int i = 0; i < futures.size(); i++) {
+                awaitParsing(futures.get(i), batches.get(i));
             }
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
 
-            if (ok) {
-                errorCollector.print(null, "OK");
-            } else {
-                errorCollector.print(null, "ERROR -> Submission removed");
+    private void awaitParsing(Future<?> future, List<Submission> batch) throws SubmissionException {
+        try {
+            future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            options.getCancellationToken().cancel();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof OutOfMemoryError) {
+                throw new SubmissionException("Out of memory during parsing of submission \"" + namesOf(batch) + "\"");
+            } else if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
             }
+            throw new IllegalStateException("Parsing of submission \"" + namesOf(batch) + "\" failed", exception.getCause());
         }
+    }
 
-        int validSubmissions = submissions.size() - errors - tooShort;
-        errorCollector.print(validSubmissions + " submissions parsed successfully!", null);
-        errorCollector.print(errors + " parser error" + (errors != 1 ? "s!" : "!") + "", null);
-        errorCollector.print(tooShort + " too short submission" + (tooShort != 1 ? "s!" : "!") + "", null);
-        printDetails(submissions, startTime, tooShort);
-        errorCollector.print("", null); // new line
+    /**
+     * Parses a batch of submissions, except those whose token streams were restored, and invalidates the submissions that
+     * are too short.
+     */
+    private void parseBatch(List<Submission> batch, ProgressTracker progressTracker) {
+        List<Submission> unparsedSubmissions = batch.stream().filter(it -> !isRestored(it)).collect(toList());
+        for (Submission submission : unparsedSubmissions) {
+            errorCollector.print(null, "------ Parsing submission: " + submission.getName());
+        }
+        errorCollector.setCurrentSubmissionName(namesOf(unparsedSubmissions));
+        if (unparsedSubmissions.size() == 1) {
+            unparsedSubmissions.get(0).parse(options.isDebugParser(), tokenCache.orElse(null));
+        } else if (!unparsedSubmissions.isEmpty()) {
+            Submission.parseInBatch(unparsedSubmissions, options.isDebugParser(), tokenCache.orElse(null));
+        }
+
+        for (Submission submission : batch) {
+            finishParsing(submission, progressTracker);
+        }
+    }
+
+    /**
+     * Counts a parsed submission and invalidates it if it is too short.
+     */
+    private void finishParsing(Submission submission, ProgressTracker progressTracker) {
+        errorCollector.setCurrentSubmissionName(submission.getName());
+        boolean ok = !submission.hasErrors();
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+
+        if (submission.getTokenList() != null && submission.getNumberOfTokens() < options.getMinimumTokenMatch()) {
+            errorCollector.addError("Submission contains fewer tokens than minimum match length allows!");
+            submission.setTokenList(null);
+            tooShort.incrementAndGet();
+            ok = false;
+            submission.markAsErroneous();
+        }
+
+        progressTracker.advance(numberOfBytes(submission), submission.getNumberOfTokens());
+        if (ok) {
+            errorCollector.print(null, "OK");
+            parseListener.ifPresent(it -> it.submissionParsed(submission));
+        } else {
+            errorCollector.print(null, "ERROR -> Submission removed");
+        }
+    }
+
+    private List<List<Submission>> partition(List<Submission> submissions, int batchSize) {
+        List<List<Submission>> batches = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i += batchSize) {
+            batches.add(submissions.subList(i, Math.min(i + batchSize, submissions.size())));
+        }
+        return batches;
+    }
+
+    private String namesOf(List<Submission> submissions) {
+        return submissions.stream().map(Submission::getName).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @return the token cache, or nothing if it is disabled or the tokens of the language cannot be cached.
+     */
+    private Optional<TokenCache> createTokenCache() {
+        if (!options.hasTokenCache()) {
+            return Optional.empty();
+        }
+        if (options.getLanguage().hasState() && corpus.isPresent()) {
+            // the state of the language is restored from the corpus, which is independent of the state of the cache
+            errorCollector.print("The token cache is not used for " + options.getLanguage().getName() + " in incremental runs", null);
+            return Optional.empty();
+        }
+        return Optional.of(new TokenCache(new File(options.getTokenCacheDirectoryName()), options, errorCollector));
+    }
+
+    /**
+     * @return true if the token stream of the submission was restored from the checkpoint or corpus and need not be parsed.
+     */
+    private boolean isRestored(Submission submission) {
+        return submission.getTokenList() != null;
+    }
+
+    private long numberOfBytes(Submission submission) {
+        if (submission.getFiles() == null) {
+            return 0;
+        }
+        return submission.getFiles().stream().mapToLong(submission::getFileSize).sum();
     }
 
     private void printDetails(List<Submission> submissions, long startTime, int tooShort) {
@@ -6,21 +6,41 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import de.jplag.exceptions.BasecodeException;
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressTracker;
+import de.jplag.storage.ArchiveCache;
+import de.jplag.storage.Checkpoint;
+import de.jplag.storage.Corpus;
 
 /**
  * Builder class for the creation of a {@link SubmissionSet}.
@@ -31,7 +51,9 @@ public class SubmissionSetBuilder {
     private final Language language;
     private final JPlagOptions options;
     private final ErrorCollector errorCollector;
-    private final HashSet<String> excludedFileNames; // Set of file names to be excluded in comparison.
+    private final SuffixMatcher excludedFileNames; // Matches the file names to be excluded in comparison.
+    private final SuffixMatcher validSuffixes; // Matches the file names of the language, or null if all files are valid.
+    private final Map<File, NavigableMap<String, byte[]>> rootArchiveContents = new HashMap<>(); // Files of roots that are archives.
 
     /**
      * Creates a builder for submission sets.
@@ -43,7 +65,10 @@ public class SubmissionSetBuilder {
         this.language = language;
         this.options = options;
         this.errorCollector = errorCollector;
-        excludedFileNames = readExclusionFile();
+        excludedFileNames = new SuffixMatcher(readExclusionFile());
+        String[] suffixes = options.getFileSuffixes();
+        // This is the case if either the language frontends or the CLI did not set the valid suffixes array in options
+        validSuffixes = suffixes == null || suffixes.length == 0 ? null : new SuffixMatcher(Arrays.asList(suffixes));
     }
 
     /**
@@ -52,11 +77,38 @@ public class SubmissionSetBuilder {
      * @throws ExitException if the directory cannot be read.
      */
     public SubmissionSet buildSubmissionSet() throws ExitException {
-        // Read the root directory and collect valid looking submission entries from it.
+        return buildSubmissionSet(null);
+    }
+
+    /**
+     * Builds a submission set for all submissions of a specific directory.
+     * @param parseListener receives the submissions as soon as they are parsed, or null.
+     * @return the newly built submission set.
+     * @throws ExitException if the directory cannot be read.
+     */
+    public SubmissionSet buildSubmissionSet(ParseListener parseListener) throws ExitException {
+        // Read the root directory and the archive directories and collect valid looking submission entries from them.
         File rootDirectory = new File(options.getRootDirectoryName());
         verifyRootdirExistence(rootDirectory);
         String[] fileNames = readSubmissionRootNames(rootDirectory);
-        Map<String, Submission> foundSubmissions = processRootDirEntries(rootDirectory, fileNames);
+        Map<File, String[]> archiveFileNames = new LinkedHashMap<>();
+        for (String archiveDirectoryName : options.getArchiveDirectoryNames()) {
+            File archiveDirectory = new File(archiveDirectoryName);
+            verifyRootdirExistence(archiveDirectory);
+            archiveFileNames.put(archiveDirectory, readSubmissionRootNames(archiveDirectory));
+        }
+
+        int numberOfEntries = fileNames.length + archiveFileNames.values().stream().mapToInt(it -> it.length).sum();
+        ProgressTracker progressTracker = new ProgressTracker(options, ProgressPhase.SCAN, numberOfEntries);
+        Map<String, Submission> foundSubmissions = processRootDirEntries(rootDirectory, fileNames, "", progressTracker);
+        List<Submission> archivedSubmissions = new ArrayList<>();
+        for (Map.Entry<File, String[]> archive : archiveFileNames.entrySet()) {
+            String namePrefix = archive.getKey().getName() + "/"; // keeps archived names distinct from current ones
+            Collection<Submission> submissions = processRootDirEntries(archive.getKey(), archive.getValue(), namePrefix, progressTracker).values();
+            submissions.forEach(Submission::markAsArchived);
+            archivedSubmissions.addAll(submissions);
+        }
+        progressTracker.finish();
 
         // Extract the basecode submission if necessary.
         Optional<Submission> baseCodeSubmission = Optional.empty();
@@ -79,18 +131,81 @@ public class SubmissionSetBuilder {
 
         // Merge everything in a submission set.
         List<Submission> submissions = new ArrayList<>(foundSubmissions.values());
-        return new SubmissionSet(submissions, baseCodeSubmission, errorCollector, options);
+        submissions.addAll(archivedSubmissions);
+        ArchiveCache archiveCache = options.hasArchiveCache() ? restoreArchive(archivedSubmissions) : null;
+        Corpus corpus = options.hasCorpus() ? loadCorpus(submissions, baseCodeSubmission) : null;
+        Checkpoint checkpoint = options.hasCheckpoint() ? initializeCheckpoint(submissions, baseCodeSubmission) : null;
+        SubmissionSet submissionSet = new SubmissionSet(submissions, baseCodeSubmission, errorCollector, options, checkpoint, corpus, parseListener);
+        if (archiveCache != null) {
+            storeArchive(archiveCache, submissionSet);
+        }
+        return submissionSet;
+    }
+
+    /**
+     * Restores the token streams of the unchanged archived submissions from the archive cache.
+     */
+    private ArchiveCache restoreArchive(List<Submission> archivedSubmissions) throws ExitException {
+        ArchiveCache archiveCache = new ArchiveCache(new File(options.getArchiveCacheDirectoryName()), options, errorCollector);
+        try {
+            archiveCache.restore(archivedSubmissions);
+        } catch (IOException exception) {
+            throw new SubmissionException("Cannot read the archive cache: " + exception.getMessage());
+        }
+        return archiveCache;
+    }
+
+    /**
+     * Stores the token streams of the valid archived submissions in the archive cache.
+     */
+    private void storeArchive(ArchiveCache archiveCache, SubmissionSet submissionSet) {
+        List<Submission> archivedSubmissions = submissionSet.getSubmissions().stream().filter(Submission::isArchived).collect(Collectors.toList());
+        try {
+            archiveCache.store(archivedSubmissions);
+        } catch (IOException exception) {
+            errorCollector.print("Could not write the archive cache: " + exception.getMessage(), null);
+        }
     }
 
     /**
-     * Verify that the given root directory exists.
+     * Loads the corpus of an incremental run, which restores the token streams of the unchanged submissions.
+     */
+    private Corpus loadCorpus(List<Submission> submissions, Optional<Submission> baseCodeSubmission) throws ExitException {
+        Corpus corpus = new Corpus(new File(options.getCorpusDirectoryName()), options, errorCollector);
+        try {
+            corpus.load(submissions, baseCodeSubmission);
+        } catch (IOException exception) {
+            throw new SubmissionException("Cannot read the corpus: " + exception.getMessage());
+        }
+        return corpus;
+    }
+
+    /**
+     * Initializes the checkpoint of the run, which restores the token streams of the submissions when resuming.
+     */
+    private Checkpoint initializeCheckpoint(List<Submission> submissions, Optional<Submission> baseCodeSubmission) throws ExitException {
+        if (submissions.size() > Checkpoint.MAXIMUM_NUMBER_OF_SUBMISSIONS) {
+            throw new SubmissionException(String.format("Checkpoints support at most %d submissions, but there are %d!",
+                    Checkpoint.MAXIMUM_NUMBER_OF_SUBMISSIONS, submissions.size()));
+        }
+        Checkpoint checkpoint = new Checkpoint(new File(options.getCheckpointDirectoryName()), options.isResume(), options, errorCollector);
+        try {
+            checkpoint.initialize(submissions, baseCodeSubmission);
+        } catch (IOException exception) {
+            throw new SubmissionException("Cannot access the checkpoint directory: " + exception.getMessage());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Verify that the given root directory exists. It may also be an archive file that contains the submissions.
      */
     private void verifyRootdirExistence(File rootDir) throws ExitException {
         String rootDirectoryName = rootDir.getName();
         if (!rootDir.exists()) {
             throw new RootDirectoryException(String.format("Root directory \"%s\" does not exist!", rootDirectoryName));
         }
-        if (!rootDir.isDirectory()) {
+        if (!rootDir.isDirectory() && !ArchiveFileReader.isArchive(rootDirectoryName)) {
             throw new RootDirectoryException(String.format("Root directory \"%s\" is not a directory!", rootDirectoryName));
         }
     }
@@ -109,6 +224,9 @@ public class SubmissionSetBuilder {
      * Read entries in the given root directory.
      */
     private String[] readSubmissionRootNames(File rootDirectory) throws ExitException {
+        if (rootDirectory.isFile()) {
+            return readArchiveRootNames(rootDirectory);
+        }
         if (!rootDirectory.isDirectory()) {
             throw new AssertionError("Given root is not a directory.");
         }
@@ -129,23 +247,51 @@ public class SubmissionSetBuilder {
         return fileNames;
     }
 
+    /**
+     * Reads the files of a root that is an archive file into memory. Its top-level entries are the submissions, which are
+     * directories, nested archives or single files.
+     */
+    private String[] readArchiveRootNames(File rootArchive) throws ExitException {
+        NavigableMap<String, byte[]> contents;
+        try {
+            contents = new TreeMap<>(ArchiveFileReader.read(rootArchive, this::isValidArchiveEntry));
+        } catch (IOException exception) {
+            throw new RootDirectoryException("Cannot read the archive file \"" + rootArchive.getName() + "\": " + exception.getMessage());
+        }
+        rootArchiveContents.put(rootArchive, contents);
+        return contents.keySet().stream().map(path -> path.split("/", 2)[0]).distinct().toArray(String[]::new);
+    }
+
     /**
      * Process entries in the root directory to check whether they qualify as submissions.
      * @param rootDirectory Root directory being examined.
      * @param fileNames Entries found in the root directory.
+     * @param namePrefix Prefix of the names of the found submissions.
+     * @param progressTracker Tracks the progress of the scan.
      * @return Candidate submissions ordered by their name.
      */
-    private Map<String, Submission> processRootDirEntries(File rootDirectory, String[] fileNames) throws ExitException {
+    private Map<String, Submission> processRootDirEntries(File rootDirectory, String[] fileNames, String namePrefix, ProgressTracker progressTracker)
+            throws ExitException {
         Map<String, Submission> foundSubmissions = new LinkedHashMap<>(fileNames.length); // Capacity is an over-estimate.
+        Map<String, File> submissionFiles = new HashMap<>(); // Submissions whose files are scanned afterwards.
 
         for (String fileName : fileNames) {
             File submissionFile = new File(rootDirectory, fileName);
+            progressTracker.advance(0, 0);
 
             if (isFileExcluded(submissionFile)) {
                 System.out.println("Exclude submission: " + submissionFile.getName());
                 continue;
             }
 
+            if (rootArchiveContents.containsKey(rootDirectory) || ArchiveFileReader.isArchive(fileName)) {
+                Submission submission = createArchivedSubmission(rootDirectory, fileName, namePrefix);
+                if (submission != null) {
+                    foundSubmissions.put(ArchiveFileReader.stripArchiveSuffix(fileName), submission);
+                }
+                continue;
+            }
+
             if (submissionFile.isFile() && !hasValidSuffix(submissionFile)) {
                 System.out.println("Ignore submission with invalid suffix: " + submissionFile.getName());
                 continue;
@@ -165,69 +311,174 @@ public class SubmissionSetBuilder {
                 }
             }
 
-            Submission submission = new Submission(fileName, submissionFile, parseFilesRecursively(submissionFile), language, errorCollector);
-            foundSubmissions.put(fileName, submission);
+            foundSubmissions.put(fileName, null); // keeps the order of the submissions until they are created
+            submissionFiles.put(fileName, submissionFile);
+        }
+        rootArchiveContents.remove(rootDirectory); // releases the files of excluded submissions
+
+        Map<File, Map<File, BasicFileAttributes>> scannedFiles = scanFilesInParallel(submissionFiles.values());
+        for (Map.Entry<String, File> submissionFile : submissionFiles.entrySet()) {
+            Map<File, BasicFileAttributes> files = scannedFiles.get(submissionFile.getValue());
+            Submission submission = new Submission(namePrefix + submissionFile.getKey(), submissionFile.getValue(), files.keySet(), language,
+                    errorCollector);
+            submission.setFileAttributes(files);
+            foundSubmissions.put(submissionFile.getKey(), submission);
         }
         return foundSubmissions;
     }
 
+    /**
+     * Scans the files of several submissions concurrently, as the latency of the file system dominates the scan.
+     * @param submissionFiles are the roots of the submissions.
+     * @return the files of each submission root with their attributes, see {@link #scanFiles(File)}.
+     */
+    private Map<File, Map<File, BasicFileAttributes>> scanFilesInParallel(Collection<File> submissionFiles) throws SubmissionException {
+        Map<File, Map<File, BasicFileAttributes>> scannedFiles = new HashMap<>();
+        int numberOfThreads = Math.min(options.getNumberOfParserThreads(), submissionFiles.size());
+        if (numberOfThreads <= 1) {
+            for (File submissionFile : submissionFiles) {
+                scannedFiles.put(submissionFile, scanFiles(submissionFile));
+            }
+            return scannedFiles;
+        }
+        ExecutorService threadPool = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            Map<File, Future<Map<File, BasicFileAttributes>>> futures = new HashMap<>();
+            for (File submissionFile : submissionFiles) {
+                futures.put(submissionFile, threadPool.submit(() -> scanFiles(submissionFile)));
+            }
+            for (Map.Entry<File, Future<Map<File, BasicFileAttributes>>> future : futures.entrySet()) {
+                scannedFiles.put(future.getKey(), future.getValue().get());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SubmissionException("Interrupted while scanning the submissions");
+        } catch (ExecutionException exception) {
+            throw new SubmissionException("Cannot scan the submissions: " + exception.getCause());
+        } finally {
+            threadPool.shutdownNow();
+        }
+        return scannedFiles;
+    }
+
+    /**
+     * Creates a submission from the files of an archive file in the root directory, or from an entry of a root that is an
+     * archive file itself. The files are kept in memory instead of being extracted.
+     * @return the submission, or null if the archive file cannot be read.
+     */
+    private Submission createArchivedSubmission(File root, String fileName, String namePrefix) throws ExitException {
+        NavigableMap<String, byte[]> rootContents = rootArchiveContents.get(root);
+        File submissionRoot = new File(root, fileName);
+        Map<String, byte[]> contents;
+        if (rootContents != null && rootContents.containsKey(fileName)) {
+            submissionRoot = root; // single file, its path is relative to the root like the paths of the files of directories
+            contents = Map.of(fileName, rootContents.remove(fileName)); // the submission keeps the decoded files only
+        } else if (rootContents != null) {
+            contents = new TreeMap<>();
+            Map<String, byte[]> files = rootContents.subMap(fileName + "/", fileName + "0"); // '0' follows '/'
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                contents.put(file.getKey().substring(fileName.length() + 1), file.getValue());
+            }
+            files.clear();
+        } else {
+            try {
+                contents = ArchiveFileReader.read(submissionRoot, this::isValidArchiveEntry);
+            } catch (IOException exception) {
+                errorCollector.print("Ignore submission with unreadable archive file: " + fileName + " (" + exception.getMessage() + ")", null);
+                return null;
+            }
+        }
+
+        if (options.getSubdirectoryName() != null && submissionRoot != root) {
+            // Use subdirectory instead
+            String subdirectoryPrefix = options.getSubdirectoryName() + "/";
+            Map<String, byte[]> subdirectoryContents = new TreeMap<>();
+            for (Map.Entry<String, byte[]> file : contents.entrySet()) {
+                if (file.getKey().startsWith(subdirectoryPrefix)) {
+                    subdirectoryContents.put(file.getKey().substring(subdirectoryPrefix.length()), file.getValue());
+                }
+            }
+            if (subdirectoryContents.isEmpty()) {
+                throw new SubmissionException(
+                        String.format("Submission %s does not contain the given subdirectory '%s'", fileName, options.getSubdirectoryName()));
+            }
+            submissionRoot = new File(submissionRoot, options.getSubdirectoryName());
+            contents = subdirectoryContents;
+        }
+
+        Map<String, String> sourceContents = new HashMap<>();
+        for (Map.Entry<String, byte[]> file : contents.entrySet()) {
+            // the paths use the separator of the platform, like the relative paths of the files of a directory
+            sourceContents.put(file.getKey().replace('/', File.separatorChar), new String(file.getValue(), JPlagOptions.CHARSET));
+        }
+        return new Submission(namePrefix + ArchiveFileReader.stripArchiveSuffix(fileName), submissionRoot, sourceContents, language, errorCollector);
+    }
+
+    /**
+     * Checks whether a file of an archive file is part of its submission, by its path within the archive.
+     */
+    private boolean isValidArchiveEntry(String path) {
+        return Arrays.stream(path.split("/")).noneMatch(name -> isFileExcluded(new File(name))) && hasValidSuffix(new File(path));
+    }
+
     /**
      * Checks if a file has a valid suffix for the current language.
      * @param file is the file to check.
      * @return true if the file suffix matches the language.
      */
     private boolean hasValidSuffix(File file) {
-        String[] validSuffixes = options.getFileSuffixes();
-
-        // This is the case if either the language frontends or the CLI did not set the valid suffixes array in options
-        if (validSuffixes == null || validSuffixes.length == 0) {
-            return true;
-        }
-        return Arrays.stream(validSuffixes).anyMatch(suffix -> file.getName().endsWith(suffix));
+        return validSuffixes == null || validSuffixes.matches(file.getName());
     }
 
     /**
      * Checks if a file is excluded or not.
      */
     private boolean isFileExcluded(File file) {
-        return excludedFileNames.stream().anyMatch(excludedName -> file.getName().endsWith(excludedName));
+        return excludedFileNames.matches(file.getName());
     }
 
     /**
-     * Recursively scan the given directory for nested files. Excluded files and files with an invalid suffix are ignored.
+     * Recursively scan the given directory for nested files. Excluded files and files with an invalid suffix are ignored,
+     * as are files that cannot be read. The attributes of the files are read in the same pass, so their sizes and
+     * modification times need not be queried again.
      * <p>
-     * If the given file is not a directory, the input will be returned as a singleton list.
+     * If the given file is not a directory, the input will be returned as a singleton map.
      * @param file - File to start the scan from.
-     * @return a list of nested files.
+     * @return the nested files with their attributes, in the order they were found.
      */
-    private Collection<File> parseFilesRecursively(File file) {
-        if (isFileExcluded(file)) {
-            return Collections.emptyList();
-        }
-
-        if (file.isFile() && hasValidSuffix(file)) {
-            return Collections.singletonList(file);
-        }
-
-        String[] nestedFileNames = file.list();
-
-        if (nestedFileNames == null) {
-            return Collections.emptyList();
-        }
+    private Map<File, BasicFileAttributes> scanFiles(File file) {
+        Map<File, BasicFileAttributes> files = new LinkedHashMap<>();
+        try {
+            Files.walkFileTree(file.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    return isFileExcluded(directory.toFile()) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
 
-        Collection<File> files = new ArrayList<>();
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                    File nestedFile = path.toFile();
+                    if (attributes.isRegularFile() && !isFileExcluded(nestedFile) && hasValidSuffix(nestedFile)) {
+                        files.put(nestedFile, attributes);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
 
-        for (String fileName : nestedFileNames) {
-            files.addAll(parseFilesRecursively(new File(file, fileName)));
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException exception) {
+                    return FileVisitResult.CONTINUE; // unreadable files and directories, e.g. cyclic links, are skipped
+                }
+            });
+        } catch (IOException exception) {
+            // not thrown by the visitor, all files that could be read were found
         }
-
         return files;
     }
 
     /**
      * If an exclusion file is given, it is read in and all strings are saved in the set "excluded".
      */
-    private HashSet<String> readExclusionFile() {
+    private Set<String> readExclusionFile() {
         HashSet<String> excludedFileNames = new HashSet<>();
         if (options.getExclusionFileName() != null) {
             try {
@@ -0,0 +1,46 @@
+package de.jplag;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matches file names against a set of suffixes. The suffixes are stored reversed in a trie, thus matching a name only
+ * takes time proportional to the length of the matching part and not to the number of suffixes.
+ */
+final class SuffixMatcher {
+    private final Node root = new Node();
+
+    /**
+     * Creates a matcher.
+     * @param suffixes are the suffixes to match, an empty suffix matches every name.
+     */
+    SuffixMatcher(Collection<String> suffixes) {
+        for (String suffix : suffixes) {
+            Node node = root;
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                node = node.children.computeIfAbsent(suffix.charAt(i), it -> new Node());
+            }
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * @return true if the name ends with any of the suffixes.
+     */
+    boolean matches(String name) {
+        Node node = root;
+        for (int i = name.length() - 1; i >= 0 && !node.terminal; i--) {
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,123 @@
+package de.jplag;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes token lists in a compact binary form and restores them as lists of {@link StoredToken}. File names are stored
+ * once per list, numbers are stored as variable-length integers and lines as differences to the previous token.
+ */
+public final class TokenListCodec {
+
+    private static final int BASECODE_FLAG = 1;
+
+    private TokenListCodec() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Writes a token list.
+     * @param tokenList is the list to write.
+     * @param output is the destination.
+     * @throws IOException if the destination cannot be written.
+     */
+    public static void write(TokenList tokenList, DataOutput output) throws IOException {
+        Map<String, Integer> fileIndices = new HashMap<>();
+        List<String> fileNames = new ArrayList<>();
+        for (Token token : tokenList.allTokens()) {
+            if (!fileIndices.containsKey(token.file)) {
+                fileIndices.put(token.file, fileNames.size());
+                fileNames.add(token.file);
+            }
+        }
+        writeVarInt(output, fileNames.size());
+        for (String fileName : fileNames) {
+            output.writeUTF(fileName);
+        }
+
+        writeVarInt(output, tokenList.size());
+        int previousLine = 0;
+        for (Token token : tokenList.allTokens()) {
+            writeVarInt(output, token.type);
+            writeVarInt(output, fileIndices.get(token.file));
+            writeVarInt(output, zigZag(token.getLine() - previousLine));
+            writeVarInt(output, token.getColumn() + 1);
+            writeVarInt(output, token.getLength() + 1);
+            writeVarInt(output, token.getIndex() + 1);
+            output.writeByte(token.basecode ? BASECODE_FLAG : 0);
+            previousLine = token.getLine();
+        }
+    }
+
+    /**
+     * Reads a token list that was written with {@link #write(TokenList, DataOutput)}.
+     * @param input is the source.
+     * @return the restored token list.
+     * @throws IOException if the source cannot be read or is malformed.
+     */
+    public static TokenList read(DataInput input) throws IOException {
+        int numberOfFiles = readVarInt(input);
+        String[] fileNames = new String[numberOfFiles];
+        for (int i = 0; i < numberOfFiles; i++) {
+            fileNames[i] = input.readUTF();
+        }
+
+        int numberOfTokens = readVarInt(input);
+        TokenList tokenList = new TokenList();
+        int line = 0;
+        for (int i = 0; i < numberOfTokens; i++) {
+            int type = readVarInt(input);
+            int fileIndex = readVarInt(input);
+            if (fileIndex >= numberOfFiles) {
+                throw new IOException("Malformed token list: unknown file index " + fileIndex);
+            }
+            line += unZigZag(readVarInt(input));
+            int column = readVarInt(input) - 1;
+            int length = readVarInt(input) - 1;
+            int index = readVarInt(input) - 1;
+            StoredToken token = new StoredToken(type, fileNames[fileIndex], line, column, length, index);
+            token.setBasecode((input.readByte() & BASECODE_FLAG) != 0);
+            tokenList.addToken(token);
+        }
+        return tokenList;
+    }
+
+    /**
+     * Writes a non-negative integer with one to five bytes, seven bits per byte.
+     */
+    public static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads an integer that was written with {@link #writeVarInt(DataOutput, int)}.
+     */
+    public static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte part = input.readByte();
+            value |= (part & 0x7F) << shift;
+            if ((part & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer!");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
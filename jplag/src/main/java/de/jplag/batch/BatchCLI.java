@@ -0,0 +1,56 @@
+package de.jplag.batch;
+
+import java.io.File;
+import java.util.List;
+
+import de.jplag.Messages;
+import de.jplag.TimeUtil;
+import de.jplag.exceptions.ExitException;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * Command line interface for running a batch of jobs in a single JVM.
+ * @see BatchCLI#main(String[])
+ */
+public class BatchCLI {
+    private static final String PROGRAM_NAME = "jplag-batch";
+    private static final String MANIFEST = "manifest";
+    private static final String JOBS = "jobs";
+
+    /**
+     * Main class for running a batch via the CLI. Exits with a non-zero status if any job failed.
+     * @param args are the CLI arguments, the manifest and optionally the number of concurrent jobs.
+     */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor(PROGRAM_NAME).build().defaultHelp(true);
+        parser.description(Messages.getString("BatchCLI.Description"));
+        parser.addArgument(MANIFEST).type(String.class).help(Messages.getString("BatchCLI.Manifest"));
+        parser.addArgument("-j", "--" + JOBS).type(Integer.class).setDefault(1).help(Messages.getString("BatchCLI.Jobs"));
+        try {
+            Namespace namespace = parser.parseArgs(args);
+            List<BatchJob> jobs = BatchRunner.readManifest(new File(namespace.getString(MANIFEST)));
+            long timeBeforeStartInMillis = System.currentTimeMillis();
+            int failedJobs = new BatchRunner(namespace.getInt(JOBS)).run(jobs);
+            printSummary(jobs, failedJobs, System.currentTimeMillis() - timeBeforeStartInMillis);
+            System.exit(failedJobs == 0 ? 0 : 1);
+        } catch (ArgumentParserException exception) {
+            parser.handleError(exception);
+            System.exit(1);
+        } catch (ExitException exception) {
+            System.out.println("Error: " + exception.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printSummary(List<BatchJob> jobs, int failedJobs, long durationInMillis) {
+        System.out.println("\nBatch summary:");
+        for (BatchJob job : jobs) {
+            String status = job.isSuccessful() ? "OK" : "FAILED (" + job.getErrorMessage() + ")";
+            System.out.println("  " + job.getName() + ": " + status + " in " + TimeUtil.formatDuration(job.getDuration()));
+        }
+        System.out.println("Ran " + jobs.size() + " jobs (" + failedJobs + " failed) in " + TimeUtil.formatDuration(durationInMillis));
+    }
+}
@@ -0,0 +1,116 @@
+package de.jplag.batch;
+
+import static de.jplag.CommandLineArgument.RESULT_FOLDER;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.jplag.CLI;
+import de.jplag.exceptions.BatchException;
+import de.jplag.options.JPlagOptions;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * A single job of a batch, which is one JPlag run including its report. It is defined by a line of the manifest that
+ * contains the same arguments as the CLI, e.g. <code>assignment1 -l java -r results/assignment1</code>.
+ */
+public class BatchJob {
+    private final String name;
+    private final JPlagOptions options;
+    private final File resultDirectory;
+
+    private volatile String errorMessage = "Job did not run";
+    private volatile long durationInMillis;
+
+    /**
+     * Creates a job.
+     * @param name identifies the job in the output of the batch.
+     * @param options are the options of the run.
+     * @param resultDirectory is the directory of the report.
+     */
+    public BatchJob(String name, JPlagOptions options, File resultDirectory) {
+        this.name = name;
+        this.options = options;
+        this.resultDirectory = resultDirectory;
+    }
+
+    /**
+     * Creates a job from a line of the manifest.
+     * @param name identifies the job in the output of the batch.
+     * @param line contains the CLI arguments of the job, arguments with spaces can be enclosed in double quotes.
+     * @param cli is used to parse the arguments.
+     * @return the job.
+     * @throws BatchException if the arguments are invalid.
+     */
+    public static BatchJob fromManifestLine(String name, String line, CLI cli) throws BatchException {
+        Namespace namespace;
+        try {
+            namespace = cli.parseArgumentsStrictly(splitArguments(line));
+        } catch (ArgumentParserException exception) {
+            throw new BatchException("Invalid arguments of job " + name + ": " + exception.getMessage());
+        }
+        return new BatchJob(name, cli.buildOptionsFromArguments(namespace), new File(RESULT_FOLDER.<String>getFrom(namespace)));
+    }
+
+    private static String[] splitArguments(String line) {
+        List<String> arguments = new ArrayList<>();
+        StringBuilder argument = new StringBuilder();
+        boolean quoted = false;
+        for (char character : line.toCharArray()) {
+            if (character == '"') {
+                quoted = !quoted;
+            } else if (Character.isWhitespace(character) && !quoted) {
+                if (argument.length() > 0) {
+                    arguments.add(argument.toString());
+                    argument.setLength(0);
+                }
+            } else {
+                argument.append(character);
+            }
+        }
+        if (argument.length() > 0) {
+            arguments.add(argument.toString());
+        }
+        return arguments.toArray(new String[0]);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public JPlagOptions getOptions() {
+        return options;
+    }
+
+    public File getResultDirectory() {
+        return resultDirectory;
+    }
+
+    /**
+     * @return true if the job ran and its report was written.
+     */
+    public boolean isSuccessful() {
+        return errorMessage == null;
+    }
+
+    /**
+     * @return the reason why the job failed, or null if it was successful.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * @return the duration of the job including the report.
+     */
+    public long getDuration() {
+        return durationInMillis;
+    }
+
+    void finish(long durationInMillis, String errorMessage) {
+        this.durationInMillis = durationInMillis;
+        this.errorMessage = errorMessage;
+    }
+}
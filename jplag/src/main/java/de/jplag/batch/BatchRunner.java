@@ -0,0 +1,130 @@
+package de.jplag.batch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.jplag.CLI;
+import de.jplag.ErrorCollector;
+import de.jplag.JPlag;
+import de.jplag.JPlagResult;
+import de.jplag.exceptions.BatchException;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.reporting.Report;
+
+/**
+ * Runs many jobs in the same JVM, either one after another or concurrently. The jobs share the language instances, see
+ * {@link LanguagePool}, and the thread pool of the parallel comparison mode. A failing job does not affect the others.
+ */
+public class BatchRunner {
+    private static final String COMMENT_PREFIX = "#";
+
+    private final int numberOfConcurrentJobs;
+    private final LanguagePool languagePool;
+
+    /**
+     * Creates a runner.
+     * @param numberOfConcurrentJobs is the maximum number of jobs that run at the same time.
+     */
+    public BatchRunner(int numberOfConcurrentJobs) {
+        this.numberOfConcurrentJobs = Math.max(1, numberOfConcurrentJobs);
+        languagePool = new LanguagePool();
+    }
+
+    /**
+     * Reads the jobs of a manifest, which contains the CLI arguments of one job per line. Empty lines and lines starting
+     * with <code>#</code> are ignored.
+     * @param manifest is the manifest file.
+     * @return the jobs in the order of the manifest.
+     * @throws BatchException if the manifest cannot be read or contains invalid arguments.
+     */
+    public static List<BatchJob> readManifest(File manifest) throws BatchException {
+        CLI cli = new CLI();
+        List<BatchJob> jobs = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(manifest, JPlagOptions.CHARSET))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith(COMMENT_PREFIX)) {
+                    jobs.add(BatchJob.fromManifestLine(manifest.getName() + ":" + lineNumber, line, cli));
+                }
+            }
+        } catch (IOException exception) {
+            throw new BatchException("Cannot read the manifest " + manifest + ": " + exception.getMessage());
+        }
+        return jobs;
+    }
+
+    /**
+     * Runs the jobs and writes their reports.
+     * @param jobs are the jobs, which are started in their order.
+     * @return the number of failed jobs.
+     */
+    public int run(List<BatchJob> jobs) {
+        ExecutorService jobThreadPool = Executors.newFixedThreadPool(numberOfConcurrentJobs);
+        ExecutorService comparisonThreadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (BatchJob job : jobs) {
+                futures.add(jobThreadPool.submit(() -> {
+                    runJob(job, comparisonThreadPool); // the result is not retained, the report is written
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            jobs.forEach(it -> it.getOptions().getCancellationToken().cancel());
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Batch job crashed: " + exception.getCause().getMessage(), exception.getCause());
+        } finally {
+            jobThreadPool.shutdownNow();
+            comparisonThreadPool.shutdownNow();
+        }
+        return (int) jobs.stream().filter(it -> !it.isSuccessful()).count();
+    }
+
+    /**
+     * Runs a single job on the current thread and writes its report. The outcome is recorded in the job.
+     * @param job is the job to run.
+     * @param comparisonThreadPool is the thread pool of the parallel comparison mode, it is not shut down.
+     * @return the result of the job, or null if it failed.
+     */
+    public JPlagResult runJob(BatchJob job, ExecutorService comparisonThreadPool) {
+        long timeBeforeStartInMillis = System.currentTimeMillis();
+        JPlagOptions options = job.getOptions();
+        options.setComparisonThreadPool(comparisonThreadPool);
+        JPlagResult result = null;
+        String errorMessage = null;
+        ErrorCollector errorCollector = new ErrorCollector(options);
+        try {
+            errorCollector.print(null, "Starting job " + job.getName());
+            JPlag program = new JPlag(options, errorConsumer -> languagePool.acquire(options.getLanguageOption(), errorConsumer));
+            result = program.run();
+            new Report(job.getResultDirectory(), options).writeResult(result);
+        } catch (ExitException exception) {
+            errorMessage = exception.getMessage();
+        } catch (RuntimeException exception) { // isolates the other jobs from unexpected failures
+            exception.printStackTrace();
+            errorMessage = exception.toString();
+        }
+        job.finish(System.currentTimeMillis() - timeBeforeStartInMillis, errorMessage);
+        if (job.isSuccessful()) {
+            errorCollector.print(null, "Finished job " + job.getName());
+        } else {
+            errorCollector.print("Finished job " + job.getName() + " with error: " + errorMessage, null);
+        }
+        return job.isSuccessful() ? result : null;
+    }
+}
@@ -0,0 +1,30 @@
+package de.jplag.batch;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import de.jplag.ErrorConsumer;
+import de.jplag.JPlag;
+import de.jplag.Language;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Language instances that are shared by the jobs of a batch, which saves their initialization and keeps their code warm.
+ * The frontends are not thread-safe, thus each thread has its own instances that are reused by all jobs running on it.
+ */
+class LanguagePool {
+    private final ThreadLocal<SwitchableErrorConsumer> errorConsumers = ThreadLocal.withInitial(SwitchableErrorConsumer::new);
+    private final ThreadLocal<Map<LanguageOption, Language>> languages = ThreadLocal.withInitial(() -> new EnumMap<>(LanguageOption.class));
+
+    /**
+     * Provides the language instance of the current thread.
+     * @param languageOption is the language.
+     * @param errorConsumer receives the errors of the language until it is acquired again on this thread.
+     * @return the language instance.
+     */
+    Language acquire(LanguageOption languageOption, ErrorConsumer errorConsumer) {
+        SwitchableErrorConsumer sharedErrorConsumer = errorConsumers.get();
+        sharedErrorConsumer.switchTo(errorConsumer);
+        return languages.get().computeIfAbsent(languageOption, it -> JPlag.loadLanguage(it, sharedErrorConsumer));
+    }
+}
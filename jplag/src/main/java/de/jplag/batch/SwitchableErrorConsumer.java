@@ -0,0 +1,27 @@
+package de.jplag.batch;
+
+import de.jplag.ErrorConsumer;
+
+/**
+ * Forwards the errors of a shared language instance to the error consumer of the job that currently uses it.
+ */
+class SwitchableErrorConsumer implements ErrorConsumer {
+    private ErrorConsumer target;
+
+    /**
+     * @param target receives all following errors.
+     */
+    void switchTo(ErrorConsumer target) {
+        this.target = target;
+    }
+
+    @Override
+    public void addError(String errorMessage) {
+        target.addError(errorMessage);
+    }
+
+    @Override
+    public void print(String message, String longMessage) {
+        target.print(message, longMessage);
+    }
+}
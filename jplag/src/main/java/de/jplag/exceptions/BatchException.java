@@ -0,0 +1,14 @@
+package de.jplag.exceptions;
+
+/**
+ * Exceptions for problems with the manifest of a batch that lead to an preemptive exit.
+ */
+public class BatchException extends ExitException {
+
+    private static final long serialVersionUID = -2467019388270342181L; // generated
+
+    public BatchException(String message) {
+        super(message);
+    }
+
+}
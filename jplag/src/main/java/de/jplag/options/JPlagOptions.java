@@ -5,8 +5,12 @@ import static de.jplag.strategy.ComparisonMode.NORMAL;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+import de.jplag.CancellationToken;
 import de.jplag.Language;
+import de.jplag.progress.JPlagProgressListener;
 import de.jplag.strategy.ComparisonMode;
 
 public class JPlagOptions {
@@ -14,6 +18,7 @@ public class JPlagOptions {
     public static final ComparisonMode DEFAULT_COMPARISON_MODE = NORMAL;
     public static final float DEFAULT_SIMILARITY_THRESHOLD = 0;
     public static final int DEFAULT_SHOWN_COMPARISONS = 30;
+    public static final long DEFAULT_TOKEN_CACHE_SIZE_LIMIT = 256L * 1024 * 1024;
 
     public static final Charset CHARSET = StandardCharsets.UTF_8;
 
@@ -47,7 +52,8 @@ public class JPlagOptions {
 
     /**
      * The maximum number of comparisons that will be shown in the generated report. If set to -1 all comparisons will be
-     * shown.
+     * shown. Only this many comparisons are retained in the result object, the similarity distribution however covers all
+     * comparisons.
      */
     private int maximumNumberOfComparisons = DEFAULT_SHOWN_COMPARISONS;
 
@@ -95,6 +101,90 @@ public class JPlagOptions {
      */
     private Verbosity verbosity;
 
+    /**
+     * Number of threads that scan and parse the submissions.
+     */
+    private int numberOfParserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of submissions that are parsed together, which allows languages to share their setup costs between them.
+     */
+    private int parserBatchSize = 1;
+
+    /**
+     * Number of worker processes used by the sharded comparison mode.
+     */
+    private int numberOfWorkers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of steps (inner-loop iterations of the greedy string tiling) per comparison, or -1 if unlimited. Once
+     * exhausted, the remaining matches of the comparison are approximated and it is flagged as incomplete.
+     */
+    private long comparisonStepBudget = -1;
+
+    /**
+     * Maximum wall time in milliseconds per comparison, or -1 if unlimited. Handled like the step budget.
+     */
+    private long comparisonTimeBudget = -1;
+
+    /**
+     * Directory of the corpus of an incremental run, or null if the run is not incremental.
+     */
+    private String corpusDirectoryName;
+
+    /**
+     * Directories of archived submissions, which are compared with the submissions of the root directory but not with
+     * each other, or null if there are none.
+     */
+    private String[] archiveDirectoryNames;
+
+    /**
+     * Directory in which the token streams of the archived submissions are cached, or null if they are always parsed.
+     */
+    private String archiveCacheDirectoryName;
+
+    /**
+     * Directory in which the token streams of single files are cached by their content, or null if files are always
+     * parsed.
+     */
+    private String tokenCacheDirectoryName;
+
+    /**
+     * Size limit of the token cache in bytes, the least recently used entries are evicted beyond it.
+     */
+    private long tokenCacheSizeLimit = DEFAULT_TOKEN_CACHE_SIZE_LIMIT;
+
+    /**
+     * If true, the tokens are derived from the lexer alone instead of a full parse, if the language supports it.
+     */
+    private boolean lexerOnly = false;
+
+    /**
+     * Thread pool used by the parallel comparison mode, or null if each run creates its own. A shared thread pool is not
+     * shut down by the runs.
+     */
+    private ExecutorService comparisonThreadPool;
+
+    /**
+     * Listener that receives the progress of the run, or null if there is none.
+     */
+    private JPlagProgressListener progressListener;
+
+    /**
+     * Token that is checked to cancel the run cooperatively.
+     */
+    private CancellationToken cancellationToken = new CancellationToken();
+
+    /**
+     * Directory in which the progress of the run is checkpointed, or null if no checkpoints are written.
+     */
+    private String checkpointDirectoryName;
+
+    /**
+     * If true, the progress stored in the checkpoint directory is reused if it matches the options and inputs.
+     */
+    private boolean resume = false;
+
     /**
      * Constructor with required attributes.
      */
@@ -186,6 +276,90 @@ public class JPlagOptions {
         return similarityMetric;
     }
 
+    public int getNumberOfParserThreads() {
+        return numberOfParserThreads;
+    }
+
+    public int getParserBatchSize() {
+        return parserBatchSize;
+    }
+
+    public int getNumberOfWorkers() {
+        return numberOfWorkers;
+    }
+
+    public long getComparisonStepBudget() {
+        return comparisonStepBudget;
+    }
+
+    public long getComparisonTimeBudget() {
+        return comparisonTimeBudget;
+    }
+
+    public String getCorpusDirectoryName() {
+        return corpusDirectoryName;
+    }
+
+    public boolean hasCorpus() {
+        return corpusDirectoryName != null;
+    }
+
+    public String[] getArchiveDirectoryNames() {
+        return archiveDirectoryNames == null ? new String[0] : archiveDirectoryNames;
+    }
+
+    public boolean hasArchive() {
+        return archiveDirectoryNames != null && archiveDirectoryNames.length > 0;
+    }
+
+    public String getArchiveCacheDirectoryName() {
+        return archiveCacheDirectoryName;
+    }
+
+    public boolean hasArchiveCache() {
+        return archiveCacheDirectoryName != null;
+    }
+
+    public String getTokenCacheDirectoryName() {
+        return tokenCacheDirectoryName;
+    }
+
+    public boolean hasTokenCache() {
+        return tokenCacheDirectoryName != null;
+    }
+
+    public long getTokenCacheSizeLimit() {
+        return tokenCacheSizeLimit;
+    }
+
+    public boolean isLexerOnly() {
+        return lexerOnly;
+    }
+
+    public Optional<ExecutorService> getComparisonThreadPool() {
+        return Optional.ofNullable(comparisonThreadPool);
+    }
+
+    public Optional<JPlagProgressListener> getProgressListener() {
+        return Optional.ofNullable(progressListener);
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public String getCheckpointDirectoryName() {
+        return checkpointDirectoryName;
+    }
+
+    public boolean hasCheckpoint() {
+        return checkpointDirectoryName != null;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
     public void setLanguage(Language language) {
         this.language = language;
     }
@@ -259,4 +433,68 @@ public class JPlagOptions {
     public void setSimilarityMetric(SimilarityMetric similarityMetric) {
         this.similarityMetric = similarityMetric;
     }
+
+    public void setNumberOfParserThreads(int numberOfParserThreads) {
+        this.numberOfParserThreads = Math.max(1, numberOfParserThreads);
+    }
+
+    public void setParserBatchSize(int parserBatchSize) {
+        this.parserBatchSize = Math.max(1, parserBatchSize);
+    }
+
+    public void setNumberOfWorkers(int numberOfWorkers) {
+        this.numberOfWorkers = Math.max(1, numberOfWorkers);
+    }
+
+    public void setComparisonStepBudget(long comparisonStepBudget) {
+        this.comparisonStepBudget = comparisonStepBudget < 1 ? -1 : comparisonStepBudget;
+    }
+
+    public void setComparisonTimeBudget(long comparisonTimeBudget) {
+        this.comparisonTimeBudget = comparisonTimeBudget < 1 ? -1 : comparisonTimeBudget;
+    }
+
+    public void setCorpusDirectoryName(String corpusDirectoryName) {
+        this.corpusDirectoryName = corpusDirectoryName;
+    }
+
+    public void setArchiveDirectoryNames(String... archiveDirectoryNames) {
+        this.archiveDirectoryNames = archiveDirectoryNames;
+    }
+
+    public void setArchiveCacheDirectoryName(String archiveCacheDirectoryName) {
+        this.archiveCacheDirectoryName = archiveCacheDirectoryName;
+    }
+
+    public void setTokenCacheDirectoryName(String tokenCacheDirectoryName) {
+        this.tokenCacheDirectoryName = tokenCacheDirectoryName;
+    }
+
+    public void setTokenCacheSizeLimit(long tokenCacheSizeLimit) {
+        this.tokenCacheSizeLimit = Math.max(0, tokenCacheSizeLimit);
+    }
+
+    public void setLexerOnly(boolean lexerOnly) {
+        this.lexerOnly = lexerOnly;
+    }
+
+    public void setComparisonThreadPool(ExecutorService comparisonThreadPool) {
+        this.comparisonThreadPool = comparisonThreadPool;
+    }
+
+    public void setProgressListener(JPlagProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    public void setCheckpointDirectoryName(String checkpointDirectoryName) {
+        this.checkpointDirectoryName = checkpointDirectoryName;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
 }
@@ -0,0 +1,34 @@
+package de.jplag.progress;
+
+/**
+ * Receives the progress of a JPlag run. A listener is registered via
+ * {@link de.jplag.options.JPlagOptions#setProgressListener(JPlagProgressListener)}. Its methods are called on the
+ * threads doing the actual work, which may differ between calls. Thus, they should be thread-safe and return quickly.
+ */
+public interface JPlagProgressListener {
+
+    /**
+     * Called when a phase starts.
+     * @param phase is the started phase.
+     * @param total is the number of items to process in that phase, or -1 if unknown.
+     */
+    default void phaseStarted(ProgressPhase phase, long total) {
+        // does nothing by default
+    }
+
+    /**
+     * Called at a rate-limited cadence while a phase is running, see {@link ProgressTracker#REPORT_INTERVAL_MILLIS}.
+     * @param progress is the current progress of the running phase.
+     */
+    default void progressChanged(ProgressSnapshot progress) {
+        // does nothing by default
+    }
+
+    /**
+     * Called when a phase is finished.
+     * @param progress is the final progress of the phase.
+     */
+    default void phaseFinished(ProgressSnapshot progress) {
+        // does nothing by default
+    }
+}
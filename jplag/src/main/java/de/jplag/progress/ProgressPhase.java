@@ -0,0 +1,26 @@
+package de.jplag.progress;
+
+/**
+ * The phases of a JPlag run in the order in which they are executed. In the pipelined comparison mode, the comparison
+ * phase starts while the submissions are parsed, and there is no separate basecode phase.
+ */
+public enum ProgressPhase {
+    SCAN("Scanning submissions"),
+    PARSE("Parsing submissions"),
+    BASE_CODE("Comparing submissions with the base code"),
+    COMPARE("Comparing submissions"),
+    REPORT("Writing report");
+
+    private final String description;
+
+    private ProgressPhase(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @return the textual description of the phase.
+     */
+    public String getDescription() {
+        return description;
+    }
+}
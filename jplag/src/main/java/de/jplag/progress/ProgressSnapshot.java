@@ -0,0 +1,110 @@
+package de.jplag.progress;
+
+/**
+ * Immutable snapshot of the progress of a phase, including throughput and time estimates.
+ */
+public class ProgressSnapshot {
+    private final ProgressPhase phase;
+    private final long completed;
+    private final long total;
+    private final long bytes;
+    private final long tokens;
+    private final long elapsedMillis;
+
+    /**
+     * Creates a snapshot.
+     * @param phase is the phase.
+     * @param completed is the number of processed items, e.g. submissions or submission pairs.
+     * @param total is the number of items to process, or -1 if unknown.
+     * @param bytes is the number of processed bytes.
+     * @param tokens is the number of processed tokens.
+     * @param elapsedMillis is the time since the start of the phase.
+     */
+    public ProgressSnapshot(ProgressPhase phase, long completed, long total, long bytes, long tokens, long elapsedMillis) {
+        this.phase = phase;
+        this.completed = completed;
+        this.total = total;
+        this.bytes = bytes;
+        this.tokens = tokens;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public ProgressPhase getPhase() {
+        return phase;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return the number of items to process, or -1 if unknown.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the completed fraction of the phase in percent, or -1 if the total is unknown.
+     */
+    public float getPercentage() {
+        if (total < 0) {
+            return -1;
+        }
+        return total == 0 ? 100 : 100f * completed / total;
+    }
+
+    /**
+     * @return the average number of processed items per second.
+     */
+    public double getItemsPerSecond() {
+        return perSecond(completed);
+    }
+
+    /**
+     * @return the average number of processed bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return perSecond(bytes);
+    }
+
+    /**
+     * @return the average number of processed tokens per second.
+     */
+    public double getTokensPerSecond() {
+        return perSecond(tokens);
+    }
+
+    /**
+     * Estimates the remaining time of the phase, assuming that the remaining items are processed with the average
+     * throughput so far.
+     * @return the estimated remaining time in milliseconds, or -1 if it cannot be estimated yet.
+     */
+    public long getEstimatedRemainingMillis() {
+        if (total < 0 || completed == 0) {
+            return -1;
+        }
+        return Math.max(0, (total - completed) * elapsedMillis / completed);
+    }
+
+    private double perSecond(long amount) {
+        return elapsedMillis == 0 ? 0 : amount * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d/%d (%.1f/s, ETA %d ms)", phase, completed, total, getItemsPerSecond(), getEstimatedRemainingMillis());
+    }
+}
@@ -0,0 +1,82 @@
+package de.jplag.progress;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Tracks the progress of a single phase and forwards it to the registered {@link JPlagProgressListener}, if there is
+ * one. Progress updates are rate-limited, so the tracker may be advanced for every processed item from multiple threads.
+ */
+public class ProgressTracker {
+    /**
+     * Minimum time between two progress updates of a phase.
+     */
+    public static final long REPORT_INTERVAL_MILLIS = 500;
+
+    private final JPlagProgressListener listener;
+    private final ProgressPhase phase;
+    private final long total;
+    private final long startTime;
+    private final LongAdder completed;
+    private final LongAdder bytes;
+    private final LongAdder tokens;
+    private final AtomicLong nextReportTime;
+
+    /**
+     * Starts tracking a phase.
+     * @param options contain the registered listener.
+     * @param phase is the started phase.
+     * @param total is the number of items to process in that phase, or -1 if unknown.
+     */
+    public ProgressTracker(JPlagOptions options, ProgressPhase phase, long total) {
+        this.listener = options.getProgressListener().orElse(null);
+        this.phase = phase;
+        this.total = total;
+        startTime = System.currentTimeMillis();
+        completed = new LongAdder();
+        bytes = new LongAdder();
+        tokens = new LongAdder();
+        nextReportTime = new AtomicLong(startTime + REPORT_INTERVAL_MILLIS);
+        if (listener != null) {
+            listener.phaseStarted(phase, total);
+        }
+    }
+
+    /**
+     * Advances the progress by one item.
+     * @param processedBytes is the number of bytes processed for the item.
+     * @param processedTokens is the number of tokens processed for the item.
+     */
+    public void advance(long processedBytes, long processedTokens) {
+        if (listener == null) {
+            return;
+        }
+        completed.increment();
+        bytes.add(processedBytes);
+        tokens.add(processedTokens);
+        long reportTime = nextReportTime.get();
+        long currentTime = System.currentTimeMillis();
+        if (currentTime >= reportTime && nextReportTime.compareAndSet(reportTime, currentTime + REPORT_INTERVAL_MILLIS)) {
+            listener.progressChanged(snapshot());
+        }
+    }
+
+    /**
+     * Finishes the phase.
+     */
+    public void finish() {
+        if (listener != null) {
+            nextReportTime.set(Long.MAX_VALUE); // no updates after the phase is finished
+            listener.phaseFinished(snapshot());
+        }
+    }
+
+    /**
+     * @return the current progress of the phase.
+     */
+    public ProgressSnapshot snapshot() {
+        return new ProgressSnapshot(phase, completed.sum(), total, bytes.sum(), tokens.sum(), System.currentTimeMillis() - startTime);
+    }
+}
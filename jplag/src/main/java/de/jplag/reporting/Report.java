@@ -25,6 +25,8 @@ import de.jplag.TokenList;
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.ReportGenerationException;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressTracker;
 
 /**
  * This class writes all the HTML pages.
@@ -56,9 +58,12 @@ public class Report { // Mostly legacy code with some minor improvements.
     public void writeResult(JPlagResult result) throws ReportGenerationException {
         this.result = result;
         System.out.println("\nWriting report...");
+        List<JPlagComparison> comparisons = result.getComparisons(options.getMaximumNumberOfComparisons());
+        ProgressTracker progressTracker = new ProgressTracker(options, ProgressPhase.REPORT, comparisons.size());
         writeIndex();
         copyStaticFiles();
-        writeMatches(result.getComparisons(options.getMaximumNumberOfComparisons()));
+        writeMatches(comparisons, progressTracker);
+        progressTracker.finish();
         System.out.println("Report exported to " + reportDir.getAbsolutePath());
     }
 
@@ -449,7 +454,7 @@ public class Report { // Mostly legacy code with some minor improvements.
 
         if (options.getMaximumNumberOfComparisons() > 0) {
             htmlFile.println("<TR BGCOLOR=#aaaaff VALIGN=top><TD>" + msg.getString("Report.Matches_displayed") + ":</TD>" + "<TD>");
-            htmlFile.println(options.getMaximumNumberOfComparisons() + " of " + result.getComparisons().size() + " ("
+            htmlFile.println(options.getMaximumNumberOfComparisons() + " of " + result.getNumberOfComparisons() + " ("
                     + msg.getString("Report.Treshold") + ": " + result.getOptions().getSimilarityThreshold() + "%)<br>");
 
             htmlFile.println("</TD></TR>");
@@ -637,14 +642,18 @@ public class Report { // Mostly legacy code with some minor improvements.
         htmlFile.close();
     }
 
-    private void writeMatches(List<JPlagComparison> comparisons) {
+    private void writeMatches(List<JPlagComparison> comparisons, ProgressTracker progressTracker) {
         comparisons.parallelStream().forEach(comparison -> {
+            if (options.getCancellationToken().isCancelled()) {
+                return; // skips the remaining matches
+            }
             try {
                 writeMatch(comparison, getComparisonIndex(comparison));
             } catch (ExitException exception) {
                 exception.printStackTrace();
             }
             reportMatchWritingProgress(comparisons);
+            progressTracker.advance(0, comparison.getFirstSubmission().getNumberOfTokens() + comparison.getSecondSubmission().getNumberOfTokens());
         });
     }
 
@@ -0,0 +1,334 @@
+package de.jplag.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.jplag.CLI;
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Messages;
+import de.jplag.batch.BatchJob;
+import de.jplag.batch.BatchRunner;
+import de.jplag.exceptions.BatchException;
+import de.jplag.strategy.ComparisonMode;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * Long-running local server that keeps the JVM and the language frontends warm between jobs. It listens on the loopback
+ * interface only and provides a small HTTP API:
+ * <ul>
+ * <li><code>POST /jobs?priority=p&amp;threads=t</code> submits a job, the body contains its CLI arguments.</li>
+ * <li><code>GET /jobs</code> lists all jobs, <code>GET /jobs/{id}</code> shows the state and progress of a job.</li>
+ * <li><code>GET /jobs/{id}/events</code> streams the progress of a job as one JSON object per line until it ends.</li>
+ * <li><code>GET /jobs/{id}/result</code> returns the comparisons of a finished job.</li>
+ * <li><code>DELETE /jobs/{id}</code> cancels a queued or running job and removes an ended job.</li>
+ * </ul>
+ * Jobs with a higher priority are started first. The threads parameter limits the comparison threads of a job in the
+ * parallel or pipelined comparison mode, without it such a job uses the thread pool shared by all jobs.
+ */
+public class JPlagServer {
+    public static final String COMMAND = "serve";
+    private static final String PROGRAM_NAME = "jplag " + COMMAND;
+    private static final String JOBS_PATH = "/jobs";
+    private static final long EVENT_TIMEOUT_MILLIS = 1000;
+    private static final Set<ComparisonMode> THREAD_POOL_MODES = EnumSet.of(ComparisonMode.PARALLEL, ComparisonMode.PIPELINED);
+
+    private final int numberOfWorkers;
+    private final BatchRunner runner;
+    private final CLI cli;
+    private final PriorityBlockingQueue<ServerJob> queue;
+    private final Map<Long, ServerJob> jobs;
+    private final AtomicLong nextId;
+
+    private HttpServer httpServer;
+    private ExecutorService workerThreadPool;
+    private ExecutorService comparisonThreadPool;
+
+    /**
+     * Creates a server.
+     * @param numberOfWorkers is the number of jobs that run concurrently.
+     */
+    public JPlagServer(int numberOfWorkers) {
+        this(numberOfWorkers, new BatchRunner(numberOfWorkers));
+    }
+
+    /**
+     * Creates a server that runs the jobs with a specific runner.
+     * @param numberOfWorkers is the number of jobs that run concurrently.
+     * @param runner runs the jobs, it should allow at least as many concurrent jobs.
+     */
+    public JPlagServer(int numberOfWorkers, BatchRunner runner) {
+        this.numberOfWorkers = Math.max(1, numberOfWorkers);
+        this.runner = runner;
+        cli = new CLI();
+        queue = new PriorityBlockingQueue<>(11, Comparator.comparingInt(ServerJob::getPriority).reversed().thenComparingLong(ServerJob::getId));
+        jobs = new ConcurrentHashMap<>();
+        nextId = new AtomicLong(1);
+    }
+
+    /**
+     * Main class for running the server via the CLI, see <code>jplag serve --help</code>.
+     * @param args are the CLI arguments of the server.
+     */
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor(PROGRAM_NAME).build().defaultHelp(true);
+        parser.description(Messages.getString("JPlagServer.Description"));
+        parser.addArgument("--port").type(Integer.class).setDefault(8420).help(Messages.getString("JPlagServer.Port"));
+        parser.addArgument("--workers").type(Integer.class).setDefault(1).help(Messages.getString("JPlagServer.Workers"));
+        try {
+            Namespace namespace = parser.parseArgs(args);
+            JPlagServer server = new JPlagServer(namespace.getInt("workers"));
+            server.start(namespace.getInt("port"));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            System.out.println("JPlag server listening on http://localhost:" + server.getPort() + JOBS_PATH);
+        } catch (ArgumentParserException exception) {
+            parser.handleError(exception);
+            System.exit(1);
+        } catch (IOException exception) {
+            System.out.println("Error: Cannot start the server: " + exception.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Starts listening for requests and running the submitted jobs.
+     * @param port is the local port, or 0 to choose a free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public void start(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext(JOBS_PATH, this::handle);
+        httpServer.setExecutor(Executors.newCachedThreadPool()); // event streams block their thread
+        comparisonThreadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        workerThreadPool = Executors.newFixedThreadPool(numberOfWorkers);
+        for (int i = 0; i < numberOfWorkers; i++) {
+            workerThreadPool.execute(this::work);
+        }
+        httpServer.start();
+    }
+
+    /**
+     * @return the port the server listens on.
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and cancels all jobs that did not end yet.
+     */
+    public void stop() {
+        jobs.values().forEach(ServerJob::cancel);
+        httpServer.stop(0);
+        workerThreadPool.shutdownNow();
+        comparisonThreadPool.shutdownNow();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ServerJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException exception) {
+                return;
+            }
+            if (job.start()) {
+                try {
+                    run(job);
+                } catch (Throwable throwable) { // e.g. an OutOfMemoryError, the worker must keep processing the queue
+                    throwable.printStackTrace();
+                    job.fail(throwable.toString());
+                }
+            }
+        }
+    }
+
+    private void run(ServerJob job) {
+        ExecutorService threadPool = comparisonThreadPool;
+        if (job.getNumberOfThreads() > 0) {
+            threadPool = Executors.newFixedThreadPool(job.getNumberOfThreads());
+        }
+        try {
+            job.finish(runner.runJob(job.getJob(), threadPool));
+        } finally {
+            if (threadPool != comparisonThreadPool) {
+                threadPool.shutdownNow();
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring(JOBS_PATH.length()).split("/");
+            String method = exchange.getRequestMethod();
+            if (path.length <= 1) {
+                if ("POST".equals(method)) {
+                    submit(exchange);
+                } else if ("GET".equals(method)) {
+                    respond(exchange, 200, "[" + String.join(",", jobs.values().stream().map(ServerJob::toJson).toArray(String[]::new)) + "]");
+                } else {
+                    respondWithError(exchange, 405, "Unsupported method " + method);
+                }
+                return;
+            }
+            ServerJob job = findJob(path[1]);
+            if (job == null) {
+                respondWithError(exchange, 404, "Unknown job " + path[1]);
+            } else if (path.length == 2 && "GET".equals(method)) {
+                respond(exchange, 200, job.toJson());
+            } else if (path.length == 2 && "DELETE".equals(method)) {
+                delete(exchange, job);
+            } else if (path.length == 3 && "events".equals(path[2]) && "GET".equals(method)) {
+                streamEvents(exchange, job);
+            } else if (path.length == 3 && "result".equals(path[2]) && "GET".equals(method)) {
+                respondWithResult(exchange, job);
+            } else {
+                respondWithError(exchange, 404, "Unknown resource " + exchange.getRequestURI().getPath());
+            }
+        } catch (RuntimeException exception) {
+            exception.printStackTrace();
+            respondWithError(exchange, 500, exception.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = parseQuery(exchange.getRequestURI());
+        String arguments;
+        try (InputStream body = exchange.getRequestBody()) {
+            arguments = new String(body.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        long id = nextId.getAndIncrement();
+        BatchJob batchJob;
+        int priority;
+        int numberOfThreads;
+        try {
+            priority = Integer.parseInt(parameters.getOrDefault("priority", "0"));
+            numberOfThreads = Math.max(0, Integer.parseInt(parameters.getOrDefault("threads", "0")));
+            synchronized (cli) {
+                batchJob = BatchJob.fromManifestLine("job-" + id, arguments, cli);
+            }
+        } catch (BatchException | NumberFormatException exception) {
+            respondWithError(exchange, 400, exception.getMessage());
+            return;
+        }
+        ComparisonMode comparisonMode = batchJob.getOptions().getComparisonMode();
+        if (numberOfThreads > 0 && !THREAD_POOL_MODES.contains(comparisonMode)) {
+            respondWithError(exchange, 400, "The threads parameter requires the parallel or pipelined comparison mode, not " + comparisonMode.getName());
+            return;
+        }
+        ServerJob job = new ServerJob(id, priority, numberOfThreads, batchJob);
+        jobs.put(id, job);
+        queue.add(job);
+        respond(exchange, 201, job.toJson());
+    }
+
+    private void delete(HttpExchange exchange, ServerJob job) throws IOException {
+        if (job.getState().isTerminal()) {
+            jobs.remove(job.getId());
+        } else {
+            job.cancel();
+            queue.remove(job);
+        }
+        respond(exchange, 200, job.toJson());
+    }
+
+    private void streamEvents(HttpExchange exchange, ServerJob job) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0); // chunked
+        try (OutputStream output = exchange.getResponseBody()) {
+            long version = -1;
+            while (true) {
+                long currentVersion = job.awaitChange(version, EVENT_TIMEOUT_MILLIS);
+                if (currentVersion != version) {
+                    output.write((job.toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+                    output.flush();
+                    version = currentVersion;
+                }
+                if (job.getState().isTerminal()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respondWithResult(HttpExchange exchange, ServerJob job) throws IOException {
+        JPlagResult result = job.getResult();
+        if (result == null) {
+            respondWithError(exchange, 409, "Job " + job.getId() + " has no result, it is " + job.getState());
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"id\":").append(job.getId());
+        builder.append(",\"resultDirectory\":").append(Json.quote(job.getJob().getResultDirectory().getPath()));
+        builder.append(",\"numberOfSubmissions\":").append(result.getNumberOfSubmissions());
+        builder.append(",\"numberOfComparisons\":").append(result.getNumberOfComparisons());
+        builder.append(",\"cancelled\":").append(result.isCancelled());
+        builder.append(",\"comparisons\":[");
+        for (int i = 0; i < result.getComparisons().size(); i++) {
+            JPlagComparison comparison = result.getComparisons().get(i);
+            builder.append(i == 0 ? "" : ",");
+            builder.append("{\"first\":").append(Json.quote(comparison.getFirstSubmission().getName()));
+            builder.append(",\"second\":").append(Json.quote(comparison.getSecondSubmission().getName()));
+            builder.append(",\"similarity\":").append(comparison.similarity());
+            builder.append(",\"incomplete\":").append(comparison.isIncomplete()).append('}');
+        }
+        respond(exchange, 200, builder.append("]}").toString());
+    }
+
+    private ServerJob findJob(String id) {
+        try {
+            return jobs.get(Long.parseLong(id));
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    private Map<String, String> parseQuery(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        if (uri.getQuery() != null) {
+            for (String parameter : uri.getQuery().split("&")) {
+                String[] keyAndValue = parameter.split("=", 2);
+                parameters.put(keyAndValue[0], keyAndValue.length > 1 ? keyAndValue[1] : "");
+            }
+        }
+        return parameters;
+    }
+
+    private void respondWithError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, "{\"error\":" + Json.quote(message) + "}");
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.jplag.server;
+
+/**
+ * Minimal helpers for writing the JSON responses of the {@link JPlagServer}.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * @return the string as a quoted and escaped JSON string, or <code>null</code> if it is null.
+     */
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (char character : value.toCharArray()) {
+            switch (character) {
+            case '"':
+                builder.append("\\\"");
+                break;
+            case '\\':
+                builder.append("\\\\");
+                break;
+            case '\n':
+                builder.append("\\n");
+                break;
+            case '\r':
+                builder.append("\\r");
+                break;
+            case '\t':
+                builder.append("\\t");
+                break;
+            default:
+                if (character < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) character));
+                } else {
+                    builder.append(character);
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -0,0 +1,199 @@
+package de.jplag.server;
+
+import de.jplag.JPlagResult;
+import de.jplag.batch.BatchJob;
+import de.jplag.progress.JPlagProgressListener;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressSnapshot;
+
+/**
+ * A job that was submitted to the {@link JPlagServer}. It tracks the state and the progress of the job, which clients can
+ * poll or wait for.
+ */
+class ServerJob implements JPlagProgressListener {
+
+    /**
+     * States of a job, a job ends in one of the last three.
+     */
+    enum State {
+        QUEUED,
+        RUNNING,
+        FINISHED,
+        FAILED,
+        CANCELLED;
+
+        boolean isTerminal() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final long id;
+    private final int priority;
+    private final int numberOfThreads;
+    private final BatchJob job;
+
+    private State state;
+    private ProgressSnapshot progress;
+    private JPlagResult result;
+    private long startTimeMillis;
+    private String failure; // the error of a job that crashed the runner
+    private long durationOfFailureMillis;
+    private long version; // incremented on every change, allows to wait for changes
+
+    /**
+     * Creates a queued job.
+     * @param id identifies the job, lower ids were submitted earlier.
+     * @param priority is the priority of the job, jobs with a higher priority are started first.
+     * @param numberOfThreads limits the comparison threads of the job, or 0 if it uses the shared thread pool.
+     * @param job contains the options of the job.
+     */
+    ServerJob(long id, int priority, int numberOfThreads, BatchJob job) {
+        this.id = id;
+        this.priority = priority;
+        this.numberOfThreads = numberOfThreads;
+        this.job = job;
+        state = State.QUEUED;
+        job.getOptions().setProgressListener(this);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    int getPriority() {
+        return priority;
+    }
+
+    int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    BatchJob getJob() {
+        return job;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    synchronized JPlagResult getResult() {
+        return result;
+    }
+
+    /**
+     * Marks the job as running, unless it was cancelled while it was queued.
+     * @return true if the job should run.
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        startTimeMillis = System.currentTimeMillis();
+        changeState(State.RUNNING);
+        return true;
+    }
+
+    /**
+     * Ends a running job.
+     * @param result is the result of the job, or null if it failed.
+     */
+    synchronized void finish(JPlagResult result) {
+        this.result = result;
+        if (result == null) {
+            changeState(State.FAILED);
+        } else {
+            changeState(result.isCancelled() ? State.CANCELLED : State.FINISHED);
+        }
+    }
+
+    /**
+     * Ends a running job that failed outside of the runner, which thus did not record the error.
+     * @param errorMessage describes the error.
+     */
+    synchronized void fail(String errorMessage) {
+        if (state != State.RUNNING) {
+            return;
+        }
+        failure = errorMessage;
+        durationOfFailureMillis = System.currentTimeMillis() - startTimeMillis;
+        result = null;
+        changeState(State.FAILED);
+    }
+
+    /**
+     * Cancels the job. A queued job is not started anymore, a running job stops cooperatively.
+     */
+    synchronized void cancel() {
+        job.getOptions().getCancellationToken().cancel();
+        if (state == State.QUEUED) {
+            changeState(State.CANCELLED);
+        }
+    }
+
+    /**
+     * Waits until the job changed or a timeout elapsed.
+     * @param knownVersion is the version that is already known to the caller.
+     * @param timeoutInMillis is the maximum time to wait.
+     * @return the current version.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    synchronized long awaitChange(long knownVersion, long timeoutInMillis) throws InterruptedException {
+        if (version == knownVersion && !state.isTerminal()) {
+            wait(timeoutInMillis);
+        }
+        return version;
+    }
+
+    @Override
+    public synchronized void phaseStarted(ProgressPhase phase, long total) {
+        progress = new ProgressSnapshot(phase, 0, total, 0, 0, 0);
+        changed();
+    }
+
+    @Override
+    public synchronized void progressChanged(ProgressSnapshot snapshot) {
+        progress = snapshot;
+        changed();
+    }
+
+    @Override
+    public synchronized void phaseFinished(ProgressSnapshot snapshot) {
+        progress = snapshot;
+        changed();
+    }
+
+    /**
+     * @return the state and progress of the job in JSON format.
+     */
+    synchronized String toJson() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"id\":").append(id);
+        builder.append(",\"name\":").append(Json.quote(job.getName()));
+        builder.append(",\"priority\":").append(priority);
+        builder.append(",\"state\":").append(Json.quote(state.name()));
+        if (progress != null) {
+            builder.append(",\"phase\":").append(Json.quote(progress.getPhase().name()));
+            builder.append(",\"completed\":").append(progress.getCompleted());
+            builder.append(",\"total\":").append(progress.getTotal());
+            builder.append(",\"percentage\":").append(progress.getPercentage());
+            builder.append(",\"remainingMillis\":").append(progress.getEstimatedRemainingMillis());
+        }
+        if (state == State.FAILED) {
+            builder.append(",\"error\":").append(Json.quote(failure == null ? job.getErrorMessage() : failure));
+        }
+        if (state.isTerminal()) {
+            builder.append(",\"durationMillis\":").append(failure == null ? job.getDuration() : durationOfFailureMillis);
+        }
+        return builder.append('}').toString();
+    }
+
+    private void changeState(State state) {
+        this.state = state;
+        changed();
+    }
+
+    private void changed() {
+        version++;
+        notifyAll();
+    }
+}
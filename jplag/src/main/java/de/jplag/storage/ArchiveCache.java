@@ -0,0 +1,120 @@
+package de.jplag.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import de.jplag.ErrorCollector;
+import de.jplag.Submission;
+import de.jplag.TokenList;
+import de.jplag.TokenListCodec;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Caches the token streams of archived submissions, which rarely change between runs. Each token stream is stored with
+ * the fingerprint of the files it was parsed from and is only restored if the files are unchanged.
+ */
+public class ArchiveCache {
+    private static final String CACHE_FILE = "archive-tokens.bin";
+    private static final int FORMAT_VERSION = 1;
+
+    private final File directory;
+    private final JPlagOptions options;
+    private final ErrorCollector errorCollector;
+    private final Set<Submission> restoredSubmissions;
+    private final Map<Submission, String> fingerprints;
+
+    /**
+     * Creates a cache.
+     * @param directory is the directory of the cache, it is created when the cache is stored.
+     * @param options are the options of the run.
+     * @param errorCollector is the interface for printing messages.
+     */
+    public ArchiveCache(File directory, JPlagOptions options, ErrorCollector errorCollector) {
+        this.directory = directory;
+        this.options = options;
+        this.errorCollector = errorCollector;
+        restoredSubmissions = Collections.newSetFromMap(new IdentityHashMap<>());
+        fingerprints = new IdentityHashMap<>();
+    }
+
+    /**
+     * Restores the token streams of all unchanged archived submissions.
+     * @param archivedSubmissions are the archived submissions.
+     * @throws IOException if the cache cannot be read.
+     */
+    public void restore(List<Submission> archivedSubmissions) throws IOException {
+        Map<String, Submission> submissionsByName = new HashMap<>();
+        for (Submission submission : archivedSubmissions) {
+            fingerprints.put(submission, new Fingerprint().add(submission).toHexString());
+            submissionsByName.put(submission.getName(), submission);
+        }
+        Path cacheFile = new File(directory, CACHE_FILE).toPath();
+        if (!Files.exists(cacheFile) || options.getLanguage().hasState()) {
+            return; // stored token types of stateful languages depend on the run they were parsed in
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (input.readInt() != FORMAT_VERSION || !input.readUTF().equals(languageKey())) {
+                return;
+            }
+            int numberOfSubmissions = TokenListCodec.readVarInt(input);
+            for (int i = 0; i < numberOfSubmissions; i++) {
+                Submission submission = submissionsByName.get(input.readUTF());
+                String fingerprint = input.readUTF();
+                TokenList tokenList = TokenListCodec.read(input);
+                if (submission != null && fingerprint.equals(fingerprints.get(submission))) {
+                    submission.setTokenList(tokenList);
+                    restoredSubmissions.add(submission);
+                }
+            }
+        }
+        errorCollector.print(null, "Restored " + restoredSubmissions.size() + " of " + archivedSubmissions.size() + " archived submissions from "
+                + directory);
+    }
+
+    /**
+     * Stores the token streams of the valid archived submissions, unless all of them were restored.
+     * @param archivedSubmissions are the valid archived submissions.
+     * @throws IOException if the cache cannot be written.
+     */
+    public void store(List<Submission> archivedSubmissions) throws IOException {
+        List<Submission> parsedSubmissions = archivedSubmissions.stream().filter(it -> it.getTokenList() != null).collect(Collectors.toList());
+        if (restoredSubmissions.containsAll(parsedSubmissions) && parsedSubmissions.size() == restoredSubmissions.size()) {
+            return;
+        }
+        Files.createDirectories(directory.toPath());
+        Path temporaryFile = new File(directory, CACHE_FILE + ".tmp").toPath();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(languageKey());
+            TokenListCodec.writeVarInt(output, parsedSubmissions.size());
+            for (Submission submission : parsedSubmissions) {
+                output.writeUTF(submission.getName());
+                output.writeUTF(fingerprints.get(submission));
+                TokenListCodec.write(submission.getTokenList(), output);
+            }
+        }
+        Files.move(temporaryFile, new File(directory, CACHE_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the key of the language and its mode, which determine the stored token streams.
+     */
+    private String languageKey() {
+        return options.getLanguageOption().name() + (options.isLexerOnly() ? "-lexer" : "");
+    }
+}
@@ -0,0 +1,318 @@
+package de.jplag.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import de.jplag.ErrorCollector;
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+import de.jplag.TokenList;
+import de.jplag.TokenListCodec;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Periodically persists the progress of a run to a directory, so that an interrupted run can be resumed. The directory
+ * contains a digest of the options and inputs, the token streams of all parsed submissions, the set of completed
+ * submission pairs and the matches of the completed pairs above the similarity threshold. Pairs are identified by
+ * their index in the pair matrix of the valid submissions.
+ */
+public class Checkpoint {
+    private static final String DIGEST_FILE = "digest";
+    private static final String TOKEN_FILE = "tokens.bin";
+    private static final String COMPLETED_FILE = "completed.bin";
+    private static final String RESULT_FILE = "results.bin";
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 30_000;
+
+    /**
+     * The completed pairs are stored in a bit set, thus the number of pairs of the valid submissions must fit in an int.
+     */
+    public static final int MAXIMUM_NUMBER_OF_SUBMISSIONS = 1 << 16;
+
+    private final File directory;
+    private final boolean resume;
+    private final JPlagOptions options;
+    private final ErrorCollector errorCollector;
+
+    private final Map<String, TokenList> restoredTokenLists;
+    private boolean restored;
+
+    private Map<Submission, Integer> submissionIndices;
+    private Map<String, Submission> submissionsByName;
+    private int numberOfSubmissions;
+    private BitSet completedPairs;
+    private List<JPlagComparison> restoredComparisons;
+    private ByteArrayOutputStream pendingResults;
+    private long lastCheckpointTime;
+
+    /**
+     * Creates a checkpoint for a run directory.
+     * @param directory is the run directory, it is created if it does not exist.
+     * @param resume specifies whether the progress stored in the directory should be reused if it matches the run.
+     * @param options are the options of the run.
+     * @param errorCollector is the interface for printing messages.
+     */
+    public Checkpoint(File directory, boolean resume, JPlagOptions options, ErrorCollector errorCollector) {
+        this.directory = directory;
+        this.resume = resume;
+        this.options = options;
+        this.errorCollector = errorCollector;
+        restoredTokenLists = new HashMap<>();
+        restoredComparisons = new ArrayList<>();
+    }
+
+    /**
+     * Prepares the checkpoint for the given submissions. When resuming a run with the same options and inputs, the stored
+     * token streams are restored into the submissions, otherwise the directory is reset.
+     * @param submissions are all submissions of the run.
+     * @param baseCode is the base code submission if it exists.
+     * @throws IOException if the directory cannot be accessed.
+     */
+    public void initialize(List<Submission> submissions, Optional<Submission> baseCode) throws IOException {
+        Files.createDirectories(directory.toPath());
+        String digest = calculateDigest(submissions, baseCode);
+        Path digestFile = path(DIGEST_FILE);
+        if (resume && Files.exists(digestFile) && Files.exists(path(TOKEN_FILE)) && Files.readString(digestFile).equals(digest)) {
+            readTokenLists();
+            for (Submission submission : submissions) {
+                restoreTokenList(submission);
+            }
+            baseCode.ifPresent(this::restoreTokenList);
+            restored = true;
+            errorCollector.print(null, "Resuming from checkpoint " + directory + " (" + restoredTokenLists.size() + " parsed submissions restored)");
+        } else {
+            for (String file : List.of(DIGEST_FILE, TOKEN_FILE, COMPLETED_FILE, RESULT_FILE)) {
+                Files.deleteIfExists(path(file));
+            }
+            Files.writeString(digestFile, digest);
+        }
+    }
+
+    /**
+     * @return true if the token streams of the submissions were restored instead of parsed.
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Stores the token streams of the parsed submissions, unless they were restored.
+     * @param submissions are the valid submissions.
+     * @param baseCode is the base code submission if it exists.
+     * @throws IOException if the token streams cannot be written.
+     */
+    public void storeTokenLists(List<Submission> submissions, Optional<Submission> baseCode) throws IOException {
+        if (restored) {
+            return;
+        }
+        List<Submission> parsedSubmissions = new ArrayList<>(submissions);
+        baseCode.ifPresent(parsedSubmissions::add);
+        Path temporaryFile = path(TOKEN_FILE + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            TokenListCodec.writeVarInt(output, parsedSubmissions.size());
+            for (Submission submission : parsedSubmissions) {
+                output.writeUTF(submission.getName());
+                TokenListCodec.write(submission.getTokenList(), output);
+            }
+        }
+        Files.move(temporaryFile, path(TOKEN_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Prepares the comparison phase. When resuming, the completed pairs and their stored comparisons are loaded.
+     * @param submissions are the valid submissions in the order in which they are paired.
+     * @throws IOException if the stored progress cannot be read.
+     */
+    public synchronized void startComparisons(List<Submission> submissions) throws IOException {
+        submissionIndices = new IdentityHashMap<>();
+        submissionsByName = new HashMap<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            submissionIndices.put(submissions.get(i), i);
+            submissionsByName.put(submissions.get(i).getName(), submissions.get(i));
+        }
+        numberOfSubmissions = submissions.size();
+        completedPairs = new BitSet();
+        restoredComparisons = new ArrayList<>();
+        pendingResults = new ByteArrayOutputStream();
+        lastCheckpointTime = System.currentTimeMillis();
+        if (restored && Files.exists(path(COMPLETED_FILE))) {
+            completedPairs = BitSet.valueOf(Files.readAllBytes(path(COMPLETED_FILE)));
+            readComparisons();
+            errorCollector.print(null, "Skipping " + completedPairs.cardinality() + " already compared submission pairs");
+        }
+    }
+
+    /**
+     * @return the stored comparisons of pairs that were completed before the run was resumed.
+     */
+    public synchronized List<JPlagComparison> getRestoredComparisons() {
+        return restoredComparisons;
+    }
+
+    /**
+     * @return true if the pair of submissions was already compared before the run was resumed.
+     */
+    public synchronized boolean isCompleted(Submission first, Submission second) {
+        return completedPairs.get(pairIndex(first, second));
+    }
+
+    /**
+     * Records that a pair of submissions was compared. The progress is persisted periodically.
+     * @param first is the first submission of the pair.
+     * @param second is the second submission of the pair.
+     * @param comparison is the comparison if it is above the similarity threshold or incomplete, or null otherwise.
+     */
+    public synchronized void record(Submission first, Submission second, JPlagComparison comparison) {
+        int pairIndex = pairIndex(first, second);
+        completedPairs.set(pairIndex);
+        if (comparison != null) {
+            try {
+                DataOutputStream output = new DataOutputStream(pendingResults);
+                TokenListCodec.writeVarInt(output, pairIndex);
+                ComparisonCodec.write(comparison, output);
+            } catch (IOException exception) {
+                throw new IllegalStateException("Could not buffer comparison: " + exception.getMessage(), exception);
+            }
+        }
+        if (System.currentTimeMillis() - lastCheckpointTime > CHECKPOINT_INTERVAL_MILLIS) {
+            flush();
+        }
+    }
+
+    /**
+     * Persists the current progress. The results are appended before the set of completed pairs is replaced, so that a
+     * crash in between only leaves stored results of pairs that are not marked as completed, which are ignored.
+     */
+    public synchronized void flush() {
+        if (completedPairs == null) {
+            return;
+        }
+        try {
+            try (FileOutputStream output = new FileOutputStream(path(RESULT_FILE).toFile(), true)) {
+                pendingResults.writeTo(output);
+                output.getFD().sync();
+            }
+            pendingResults.reset();
+            Path temporaryFile = path(COMPLETED_FILE + ".tmp");
+            Files.write(temporaryFile, completedPairs.toByteArray());
+            Files.move(temporaryFile, path(COMPLETED_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            errorCollector.print("Could not write checkpoint: " + exception.getMessage(), null);
+        }
+        lastCheckpointTime = System.currentTimeMillis();
+    }
+
+    private int pairIndex(Submission first, Submission second) {
+        int i = submissionIndices.get(first);
+        int j = submissionIndices.get(second);
+        if (i > j) {
+            int swap = i;
+            i = j;
+            j = swap;
+        }
+        long index = (long) i * numberOfSubmissions - (long) i * (i + 1) / 2 + (j - i - 1);
+        return Math.toIntExact(index); // see MAXIMUM_NUMBER_OF_SUBMISSIONS
+    }
+
+    private void restoreTokenList(Submission submission) {
+        TokenList tokenList = restoredTokenLists.get(submission.getName());
+        if (tokenList != null) {
+            submission.setTokenList(tokenList);
+        }
+    }
+
+    private void readTokenLists() throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(TOKEN_FILE))))) {
+            int numberOfTokenLists = TokenListCodec.readVarInt(input);
+            for (int i = 0; i < numberOfTokenLists; i++) {
+                String name = input.readUTF();
+                restoredTokenLists.put(name, TokenListCodec.read(input));
+            }
+        }
+    }
+
+    /**
+     * Reads the stored results. A partially written last record of an interrupted run is cut off, as new results are
+     * appended to the file.
+     */
+    private void readComparisons() throws IOException {
+        if (!Files.exists(path(RESULT_FILE))) {
+            return;
+        }
+        byte[] results = Files.readAllBytes(path(RESULT_FILE));
+        ByteArrayInputStream buffer = new ByteArrayInputStream(results);
+        DataInputStream input = new DataInputStream(buffer);
+        BitSet restoredPairs = new BitSet();
+        long validLength = 0;
+        try {
+            while (buffer.available() > 0) {
+                int pairIndex = TokenListCodec.readVarInt(input);
+                JPlagComparison comparison = ComparisonCodec.read(input, submissionsByName);
+                if (comparison == null) {
+                    throw new IOException("Checkpoint references unknown submissions");
+                }
+                if (completedPairs.get(pairIndex) && !restoredPairs.get(pairIndex)) {
+                    restoredPairs.set(pairIndex);
+                    restoredComparisons.add(comparison);
+                }
+                validLength = results.length - buffer.available();
+            }
+        } catch (EOFException exception) {
+            // partially written last record
+        }
+        if (validLength < results.length) {
+            try (FileChannel channel = FileChannel.open(path(RESULT_FILE), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    /**
+     * The digest covers all options that influence the stored token streams and comparisons as well as the names, sizes
+     * and modification times of all input files.
+     */
+    private String calculateDigest(List<Submission> submissions, Optional<Submission> baseCode) throws IOException {
+        Fingerprint fingerprint = new Fingerprint().add(options.getLanguageOption().name(), options.getMinimumTokenMatch(),
+                options.getSimilarityThreshold(), options.getSimilarityMetric().name(), options.getBaseCodeSubmissionName(),
+                options.getSubdirectoryName(), Arrays.toString(options.getFileSuffixes()), digestOfExclusionFile(), options.isLexerOnly(),
+                options.getComparisonStepBudget(), options.getComparisonTimeBudget());
+        submissions.forEach(fingerprint::add);
+        baseCode.ifPresent(fingerprint::add);
+        return fingerprint.toHexString();
+    }
+
+    private String digestOfExclusionFile() throws IOException {
+        if (options.getExclusionFileName() == null || !new File(options.getExclusionFileName()).exists()) {
+            return String.valueOf(options.getExclusionFileName());
+        }
+        try (InputStream input = Files.newInputStream(Path.of(options.getExclusionFileName()))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Path path(String fileName) {
+        return new File(directory, fileName).toPath();
+    }
+}
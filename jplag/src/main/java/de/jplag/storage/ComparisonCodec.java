@@ -0,0 +1,58 @@
+package de.jplag.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+import de.jplag.JPlagComparison;
+import de.jplag.Match;
+import de.jplag.Submission;
+import de.jplag.TokenListCodec;
+
+/**
+ * Writes comparisons in a compact binary form, referencing the submissions by their names.
+ */
+final class ComparisonCodec {
+
+    private ComparisonCodec() {
+        // private constructor to prevent instantiation
+    }
+
+    static void write(JPlagComparison comparison, DataOutput output) throws IOException {
+        output.writeUTF(comparison.getFirstSubmission().getName());
+        output.writeUTF(comparison.getSecondSubmission().getName());
+        output.writeBoolean(comparison.isIncomplete());
+        TokenListCodec.writeVarInt(output, comparison.getMatches().size());
+        for (Match match : comparison.getMatches()) {
+            TokenListCodec.writeVarInt(output, match.getStartOfFirst());
+            TokenListCodec.writeVarInt(output, match.getStartOfSecond());
+            TokenListCodec.writeVarInt(output, match.getLength());
+        }
+    }
+
+    /**
+     * Reads a comparison that was written with {@link #write(JPlagComparison, DataOutput)}.
+     * @param submissions maps the names to the submissions. If a submission is unknown, the comparison is read but null
+     * is returned.
+     */
+    static JPlagComparison read(DataInput input, Map<String, Submission> submissions) throws IOException {
+        Submission first = submissions.get(input.readUTF());
+        Submission second = submissions.get(input.readUTF());
+        boolean incomplete = input.readBoolean();
+        int numberOfMatches = TokenListCodec.readVarInt(input);
+        JPlagComparison comparison = first == null || second == null ? null : new JPlagComparison(first, second);
+        for (int i = 0; i < numberOfMatches; i++) {
+            int startOfFirst = TokenListCodec.readVarInt(input);
+            int startOfSecond = TokenListCodec.readVarInt(input);
+            int length = TokenListCodec.readVarInt(input);
+            if (comparison != null) {
+                comparison.addMatch(startOfFirst, startOfSecond, length);
+            }
+        }
+        if (comparison != null && incomplete) {
+            comparison.markAsIncomplete();
+        }
+        return comparison;
+    }
+}
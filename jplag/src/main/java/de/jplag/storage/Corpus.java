@@ -0,0 +1,194 @@
+package de.jplag.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import de.jplag.ErrorCollector;
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+import de.jplag.TokenList;
+import de.jplag.TokenListCodec;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Persisted corpus of an incremental run. It contains the token streams of all valid submissions of the previous runs
+ * and the comparisons between them that were above the similarity threshold. Unchanged submissions of the corpus are
+ * restored instead of parsed and pairs of them are not compared again, so only the new or changed submissions are
+ * compared with all others. If the token types of the language depend on its state, the state is stored as well.
+ */
+public class Corpus {
+    private static final String CORPUS_FILE = "corpus.bin";
+    private static final int FORMAT_VERSION = 2;
+
+    private final File directory;
+    private final JPlagOptions options;
+    private final ErrorCollector errorCollector;
+
+    private final Set<Submission> knownSubmissions;
+    private final List<JPlagComparison> knownComparisons;
+    private final List<JPlagComparison> newComparisons;
+    private Map<Submission, String> fingerprints;
+
+    /**
+     * Creates a corpus.
+     * @param directory is the directory of the corpus, it is created when the corpus is saved.
+     * @param options are the options of the run.
+     * @param errorCollector is the interface for printing messages.
+     */
+    public Corpus(File directory, JPlagOptions options, ErrorCollector errorCollector) {
+        this.directory = directory;
+        this.options = options;
+        this.errorCollector = errorCollector;
+        knownSubmissions = Collections.newSetFromMap(new IdentityHashMap<>());
+        knownComparisons = new ArrayList<>();
+        newComparisons = new ArrayList<>();
+    }
+
+    /**
+     * Loads the corpus if it exists and was built with the same options, and restores the token streams of all
+     * submissions that are unchanged since they were stored.
+     * @param submissions are all submissions of the run.
+     * @param baseCode is the base code submission if it exists.
+     * @throws IOException if the corpus cannot be read.
+     */
+    public void load(List<Submission> submissions, Optional<Submission> baseCode) throws IOException {
+        fingerprints = new IdentityHashMap<>();
+        for (Submission submission : submissions) {
+            fingerprints.put(submission, new Fingerprint().add(submission).toHexString());
+        }
+        Path corpusFile = new File(directory, CORPUS_FILE).toPath();
+        if (!Files.exists(corpusFile)) {
+            errorCollector.print(null, "Creating new corpus " + directory);
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(corpusFile)))) {
+            if (input.readInt() != FORMAT_VERSION || !input.readUTF().equals(calculateDigest(baseCode))) {
+                errorCollector.print("Corpus " + directory + " was built with different options and is rebuilt", null);
+                return;
+            }
+            options.getLanguage().readState(input); // the stored token types may depend on it
+            Map<String, Submission> submissionsByName = new HashMap<>();
+            for (Submission submission : submissions) {
+                submissionsByName.put(submission.getName(), submission);
+            }
+
+            Map<String, Submission> restoredSubmissions = new HashMap<>();
+            int numberOfSubmissions = TokenListCodec.readVarInt(input);
+            for (int i = 0; i < numberOfSubmissions; i++) {
+                String name = input.readUTF();
+                String fingerprint = input.readUTF();
+                TokenList tokenList = TokenListCodec.read(input);
+                Submission submission = submissionsByName.get(name);
+                if (submission != null && fingerprint.equals(fingerprints.get(submission))) {
+                    submission.setTokenList(tokenList);
+                    knownSubmissions.add(submission);
+                    restoredSubmissions.put(name, submission);
+                }
+            }
+
+            int numberOfComparisons = TokenListCodec.readVarInt(input);
+            for (int i = 0; i < numberOfComparisons; i++) {
+                JPlagComparison comparison = ComparisonCodec.read(input, restoredSubmissions);
+                if (comparison != null) { // null if one of the submissions was removed or changed
+                    knownComparisons.add(comparison);
+                }
+            }
+        }
+        errorCollector.print(null, "Loaded corpus " + directory + " (" + knownSubmissions.size() + " unchanged submissions)");
+    }
+
+    /**
+     * @return true if the submission is unchanged since it was stored in the corpus.
+     */
+    public boolean isKnown(Submission submission) {
+        return knownSubmissions.contains(submission);
+    }
+
+    /**
+     * @return true if both submissions are unchanged since they were stored, thus their comparison is known.
+     */
+    public boolean isKnown(Submission first, Submission second) {
+        return knownSubmissions.contains(first) && knownSubmissions.contains(second);
+    }
+
+    /**
+     * @param submissions are the valid submissions of the run.
+     * @return the stored comparisons between unchanged submissions that are still valid.
+     */
+    public List<JPlagComparison> getKnownComparisons(List<Submission> submissions) {
+        Set<Submission> validSubmissions = Collections.newSetFromMap(new IdentityHashMap<>());
+        validSubmissions.addAll(submissions);
+        List<JPlagComparison> comparisons = new ArrayList<>();
+        for (JPlagComparison comparison : knownComparisons) {
+            if (validSubmissions.contains(comparison.getFirstSubmission()) && validSubmissions.contains(comparison.getSecondSubmission())) {
+                comparisons.add(comparison);
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Records a new comparison that is stored when the corpus is saved.
+     * @param comparison is the comparison, which is above the similarity threshold or incomplete.
+     */
+    public synchronized void record(JPlagComparison comparison) {
+        newComparisons.add(comparison);
+    }
+
+    /**
+     * Saves the token streams of all valid submissions and the known and new comparisons between them.
+     * @param submissions are the valid submissions of the run.
+     * @param baseCode is the base code submission if it exists.
+     * @throws IOException if the corpus cannot be written.
+     */
+    public synchronized void save(List<Submission> submissions, Optional<Submission> baseCode) throws IOException {
+        Files.createDirectories(directory.toPath());
+        List<JPlagComparison> comparisons = getKnownComparisons(submissions);
+        comparisons.addAll(newComparisons);
+        Path temporaryFile = new File(directory, CORPUS_FILE + ".tmp").toPath();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(calculateDigest(baseCode));
+            options.getLanguage().writeState(output);
+            TokenListCodec.writeVarInt(output, submissions.size());
+            for (Submission submission : submissions) {
+                output.writeUTF(submission.getName());
+                output.writeUTF(fingerprints.get(submission));
+                TokenListCodec.write(submission.getTokenList(), output);
+            }
+            TokenListCodec.writeVarInt(output, comparisons.size());
+            for (JPlagComparison comparison : comparisons) {
+                ComparisonCodec.write(comparison, output);
+            }
+        }
+        Files.move(temporaryFile, new File(directory, CORPUS_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        errorCollector.print(null, "Saved corpus " + directory + " (" + submissions.size() + " submissions, " + comparisons.size() + " comparisons)");
+    }
+
+    /**
+     * The digest covers all options that influence the stored token streams and comparisons, including the base code.
+     */
+    private String calculateDigest(Optional<Submission> baseCode) {
+        Fingerprint fingerprint = new Fingerprint().add(options.getLanguageOption().name(), options.getMinimumTokenMatch(),
+                options.getSimilarityThreshold(), options.getSimilarityMetric().name(), options.getBaseCodeSubmissionName(), options.isLexerOnly(),
+                options.getComparisonStepBudget(), options.getComparisonTimeBudget());
+        baseCode.ifPresent(fingerprint::add);
+        return fingerprint.toHexString();
+    }
+}
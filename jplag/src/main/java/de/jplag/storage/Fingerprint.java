@@ -0,0 +1,74 @@
+package de.jplag.storage;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import de.jplag.Submission;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Builds a SHA-256 fingerprint of options and input files, which is used to detect whether stored data is still valid.
+ */
+final class Fingerprint {
+    private final MessageDigest digest;
+
+    Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Adds values via their string representation.
+     */
+    Fingerprint add(Object... values) {
+        for (Object value : values) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return this;
+    }
+
+    /**
+     * Adds raw content, e.g. of a file.
+     */
+    Fingerprint addContent(byte[] content) {
+        digest.update(content);
+        digest.update((byte) 0);
+        return this;
+    }
+
+    /**
+     * Adds the name of a submission and the paths, sizes and modification times of its files. The files of submissions
+     * that only exist in memory are added with their contents instead.
+     */
+    Fingerprint add(Submission submission) {
+        add(submission.getName());
+        if (submission.isInMemory()) {
+            for (Map.Entry<String, String> file : submission.getSourceContents().entrySet()) {
+                add(file.getKey()).addContent(file.getValue().getBytes(JPlagOptions.CHARSET));
+            }
+        } else if (submission.getFiles() != null) {
+            for (File file : submission.getFiles()) {
+                add(file.getPath(), submission.getFileSize(file), submission.getLastModified(file));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the fingerprint as hexadecimal string.
+     */
+    String toHexString() {
+        StringBuilder builder = new StringBuilder();
+        for (byte part : digest.digest()) {
+            builder.append(String.format("%02x", part));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,393 @@
+package de.jplag.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import de.jplag.ErrorCollector;
+import de.jplag.Language;
+import de.jplag.ParseResult;
+import de.jplag.StoredToken;
+import de.jplag.Token;
+import de.jplag.TokenList;
+import de.jplag.TokenListCodec;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Caches the token streams of single source files on disk, keyed by the content of the file and the language. Unlike
+ * the corpus and the archive cache, the cache is independent of submission names and paths, so it is shared between
+ * runs on different directories and between concurrent processes.
+ * <p>
+ * Each entry is written to a temporary file and atomically moved into place, thus readers never see partial entries.
+ * Entries are touched when they are read, and the least recently used entries are evicted once the cache exceeds its
+ * size limit.
+ * </p>
+ * <p>
+ * If the token types of the language depend on its state, the state is stored with the cache and restored for later
+ * runs. Only one run at a time can use the entries of such a language.
+ * </p>
+ */
+public class TokenCache {
+    private static final int FORMAT_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final String LOCK_FILE = ".lock";
+    private static final String STATE_SUFFIX = ".state";
+    private static final String STATE_LOCK_SUFFIX = ".state.lock";
+
+    private final Path directory;
+    private final long sizeLimit;
+    private final Language language;
+    private final ErrorCollector errorCollector;
+    private final String languageKey;
+    private Path stateFile;
+    private String stateId;
+    private FileChannel stateChannel;
+    private FileLock stateLock;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Creates a cache.
+     * @param directory is the directory of the cache, it is created when the first entry is stored.
+     * @param options are the options of the run, which determine the language and the size limit.
+     * @param errorCollector is the interface for printing messages.
+     */
+    public TokenCache(File directory, JPlagOptions options, ErrorCollector errorCollector) {
+        this.directory = directory.toPath();
+        this.errorCollector = errorCollector;
+        this.sizeLimit = options.getTokenCacheSizeLimit();
+        this.language = options.getLanguage();
+        // tokens only depend on the file content, the language, its frontend version and mode, not on the other options
+        String key = new Fingerprint().add(FORMAT_VERSION, options.getLanguageOption().name(), language.getName(),
+                language.getClass().getPackage().getImplementationVersion(), options.isLexerOnly()).toHexString();
+        if (language.hasState()) {
+            // entries are only valid with the state they were parsed with, thus its identifier is part of their keys
+            this.languageKey = lockState(key) ? new Fingerprint().add(key, stateId).toHexString() : null;
+        } else {
+            this.languageKey = key;
+        }
+    }
+
+    /**
+     * Parses the files of several submissions with the language, restoring the token streams of all files that are cached.
+     * Only the remaining files are passed to the language in a single batch, and their token streams are cached if they
+     * were parsed without errors.
+     * @param language is the language of the files.
+     * @param directories are the directories of the submissions.
+     * @param files are the files of each submission, relative to its directory.
+     * @param contents are the contents of the files of each submission that are already in memory, the other files are
+     * read from the file system.
+     * @return the parse result of each submission, in the given order.
+     */
+    public List<ParseResult> parseFilesInBatch(Language language, List<File> directories, List<String[]> files,
+            List<Map<String, CharSequence>> contents) {
+        if (languageKey == null) {
+            misses.addAndGet(files.stream().mapToInt(it -> it.length).sum());
+            return language.parseFilesInBatch(directories, files, contents);
+        }
+        List<Map<String, String>> keys = new ArrayList<>();
+        List<Map<String, TokenList>> tokenLists = new ArrayList<>();
+        List<Integer> incompleteSubmissions = new ArrayList<>();
+        List<File> incompleteDirectories = new ArrayList<>();
+        List<String[]> missingFiles = new ArrayList<>();
+        List<Map<String, CharSequence>> missingContents = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            keys.add(new HashMap<>());
+            tokenLists.add(new HashMap<>());
+            List<String> submissionMissingFiles = new ArrayList<>();
+            for (String file : files.get(i)) {
+                CharSequence content = contents.get(i).get(file);
+                String key = content == null ? calculateKey(new File(directories.get(i), file)) : calculateKey(content);
+                TokenList tokenList = key == null ? null : read(key, file);
+                if (tokenList == null) {
+                    submissionMissingFiles.add(file);
+                } else {
+                    tokenLists.get(i).put(file, tokenList);
+                }
+                keys.get(i).put(file, key);
+            }
+            hits.addAndGet(files.get(i).length - submissionMissingFiles.size());
+            misses.addAndGet(submissionMissingFiles.size());
+            if (!submissionMissingFiles.isEmpty()) {
+                incompleteSubmissions.add(i);
+                incompleteDirectories.add(directories.get(i));
+                missingFiles.add(submissionMissingFiles.toArray(new String[0]));
+                missingContents.add(contents.get(i));
+            }
+        }
+
+        List<ParseResult> results = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            boolean complete = !incompleteSubmissions.contains(i);
+            results.add(complete ? new ParseResult(concatenate(files.get(i), tokenLists.get(i)), 0, Map.of()) : null);
+        }
+        if (incompleteSubmissions.isEmpty()) {
+            return results;
+        }
+        List<ParseResult> parsedResults = language.parseFilesInBatch(incompleteDirectories, missingFiles, missingContents);
+        for (int j = 0; j < incompleteSubmissions.size(); j++) {
+            int i = incompleteSubmissions.get(j);
+            results.set(i, completeResult(parsedResults.get(j), files.get(i), missingFiles.get(j), keys.get(i), tokenLists.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits its size limit. If another process is currently
+     * evicting entries, nothing is done.
+     */
+    public void evict() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock = channel.tryLock()) {
+            if (lock == null) {
+                return;
+            }
+            List<Path> entries;
+            try (Stream<Path> paths = Files.walk(directory, 2)) {
+                entries = paths.filter(it -> it.getFileName().toString().endsWith(ENTRY_SUFFIX)).collect(Collectors.toList());
+            }
+            Map<Path, Long> sizes = new HashMap<>();
+            Map<Path, FileTime> accessTimes = new LinkedHashMap<>();
+            long totalSize = 0;
+            for (Path entry : entries) {
+                try {
+                    sizes.put(entry, Files.size(entry));
+                    accessTimes.put(entry, Files.getLastModifiedTime(entry));
+                    totalSize += sizes.get(entry);
+                } catch (NoSuchFileException exception) {
+                    // removed concurrently
+                }
+            }
+            List<Path> leastRecentlyUsed = new ArrayList<>(accessTimes.keySet());
+            leastRecentlyUsed.sort(Comparator.comparing(accessTimes::get));
+            for (Path entry : leastRecentlyUsed) {
+                if (totalSize <= sizeLimit) {
+                    break;
+                }
+                Files.deleteIfExists(entry);
+                totalSize -= sizes.get(entry);
+            }
+        } catch (IOException exception) {
+            errorCollector.print("Could not evict entries of the token cache: " + exception.getMessage(), null);
+        }
+    }
+
+    /**
+     * Stores the state of the language, if its token types depend on it, and releases it for other runs. It has to be
+     * called once all files were parsed.
+     */
+    public void close() {
+        if (stateLock == null) {
+            return;
+        }
+        try {
+            Path temporaryFile = Files.createTempFile(directory, languageKey, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeUTF(stateId);
+                language.writeState(output);
+            }
+            Files.move(temporaryFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            errorCollector.print("Could not store the language state of the token cache: " + exception.getMessage(), null);
+        } finally {
+            releaseState();
+        }
+    }
+
+    /**
+     * @return the number of files whose token streams were restored.
+     */
+    public int getNumberOfHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of files that had to be parsed.
+     */
+    public int getNumberOfMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Locks the state of the language for this run and restores it. The stored state is removed until it is stored again
+     * by {@link #close()}, so the entries of a run that did not finish are never used with another state. Each new state
+     * gets a random identifier.
+     * @return true if the state is locked, or false if it is used by another run.
+     */
+    private boolean lockState(String key) {
+        stateFile = directory.resolve(key + STATE_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            stateChannel = FileChannel.open(directory.resolve(key + STATE_LOCK_SUFFIX), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            stateLock = stateChannel.tryLock();
+        } catch (IOException | OverlappingFileLockException exception) {
+            stateLock = null; // the lock is held by another run in this process if it overlaps
+        }
+        if (stateLock == null) {
+            releaseState();
+            errorCollector.print("The token cache is used by another run, the tokens of " + language.getName() + " are not cached", null);
+            return false;
+        }
+        stateId = UUID.randomUUID().toString();
+        try {
+            if (Files.exists(stateFile)) {
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+                    String storedStateId = input.readUTF();
+                    language.readState(input);
+                    stateId = storedStateId;
+                } finally {
+                    Files.delete(stateFile);
+                }
+            }
+        } catch (IOException exception) {
+            errorCollector.print("Could not restore the language state of the token cache: " + exception.getMessage(), null);
+        }
+        return true;
+    }
+
+    private void releaseState() {
+        try {
+            if (stateLock != null) {
+                stateLock.release();
+            }
+            if (stateChannel != null) {
+                stateChannel.close();
+            }
+        } catch (IOException exception) {
+            // released when the process exits
+        }
+        stateLock = null;
+        stateChannel = null;
+    }
+
+    /**
+     * @return the key of the cache entry of the file, or null if the file cannot be read.
+     */
+    private String calculateKey(File file) {
+        try {
+            return new Fingerprint().add(languageKey).addContent(Files.readAllBytes(file.toPath())).toHexString();
+        } catch (IOException exception) {
+            return null; // the language reports the error
+        }
+    }
+
+    /**
+     * @return the key of the cache entry of a file with the given content.
+     */
+    private String calculateKey(CharSequence content) {
+        return new Fingerprint().add(languageKey).addContent(content.toString().getBytes(JPlagOptions.CHARSET)).toHexString();
+    }
+
+    private Path entryOf(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Reads a cache entry and renames its tokens to the given file, as the same content may be cached under another name.
+     * @return the token list, or null if there is no valid entry.
+     */
+    private TokenList read(String key, String file) {
+        Path entry = entryOf(key);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            TokenList storedTokenList = TokenListCodec.read(input);
+            TokenList tokenList = new TokenList();
+            for (Token token : storedTokenList.allTokens()) {
+                tokenList.addToken(new StoredToken(token.type, file, token.getLine(), token.getColumn(), token.getLength(), token.getIndex()));
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return tokenList;
+        } catch (IOException exception) {
+            return null; // missing, evicted concurrently or malformed
+        }
+    }
+
+    private void write(String key, TokenList tokenList) {
+        Path entry = entryOf(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temporaryFile = Files.createTempFile(entry.getParent(), key, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                TokenListCodec.write(tokenList, output);
+            }
+            Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            errorCollector.print("Could not write the token cache entry " + entry + ": " + exception.getMessage(), null);
+        }
+    }
+
+    /**
+     * Caches the token streams of the parsed files of a submission and combines them with the restored ones.
+     * @return the parse result of the submission.
+     */
+    private ParseResult completeResult(ParseResult result, String[] files, String[] parsedFiles, Map<String, String> keys,
+            Map<String, TokenList> tokenLists) {
+        if (result.hasErrors()) {
+            return result;
+        }
+        Map<String, TokenList> parsedTokenLists = splitByFile(result.getTokenList(), parsedFiles);
+        if (parsedTokenLists == null) {
+            // the language names the files differently, thus nothing is cached for it and all files were parsed
+            return result;
+        }
+        for (String file : parsedFiles) {
+            if (keys.get(file) != null) {
+                write(keys.get(file), parsedTokenLists.get(file));
+            }
+        }
+        tokenLists.putAll(parsedTokenLists);
+        return new ParseResult(concatenate(files, tokenLists), 0, result.getFileParseTimes());
+    }
+
+    /**
+     * @return the token lists per file, or null if a token belongs to an unknown file.
+     */
+    private Map<String, TokenList> splitByFile(TokenList tokenList, String[] files) {
+        Map<String, TokenList> tokenLists = new HashMap<>();
+        for (String file : files) {
+            tokenLists.put(file, new TokenList());
+        }
+        for (Token token : tokenList.allTokens()) {
+            TokenList fileTokenList = tokenLists.get(token.file);
+            if (fileTokenList == null) {
+                return null;
+            }
+            fileTokenList.addToken(token);
+        }
+        return tokenLists;
+    }
+
+    private TokenList concatenate(String[] files, Map<String, TokenList> tokenLists) {
+        TokenList tokenList = new TokenList();
+        for (String file : files) {
+            for (Token token : tokenLists.get(file).allTokens()) {
+                tokenList.addToken(token);
+            }
+        }
+        return tokenList;
+    }
+}
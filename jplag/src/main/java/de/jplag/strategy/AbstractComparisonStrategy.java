@@ -1,22 +1,35 @@
 package de.jplag.strategy;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
+import de.jplag.ErrorCollector;
 import de.jplag.GreedyStringTiling;
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
 import de.jplag.options.JPlagOptions;
+import de.jplag.options.Verbosity;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressTracker;
+import de.jplag.storage.Checkpoint;
 
 public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
-
     private GreedyStringTiling greedyStringTiling;
+    private ProgressTracker progressTracker;
+    private final LongAdder comparedPairs = new LongAdder(); // aggregated instead of printed per pair
 
     protected JPlagOptions options;
+    protected final ErrorCollector errorCollector;
 
-    public AbstractComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
+    public AbstractComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ErrorCollector errorCollector) {
         this.greedyStringTiling = greedyStringTiling;
         this.options = options;
+        this.errorCollector = errorCollector;
     }
 
     /**
@@ -26,23 +39,205 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
      */
     protected void compareSubmissionsToBaseCode(SubmissionSet submissionSet) {
         Submission baseCodeSubmission = submissionSet.getBaseCode();
+        ProgressTracker baseCodeProgress = new ProgressTracker(options, ProgressPhase.BASE_CODE, submissionSet.numberOfSubmissions());
         for (Submission currentSubmission : submissionSet.getSubmissions()) {
-            JPlagComparison baseCodeComparison = greedyStringTiling.compareWithBaseCode(currentSubmission, baseCodeSubmission);
-            currentSubmission.setBaseCodeComparison(baseCodeComparison);
-            baseCodeSubmission.resetBaseCode();
+            if (isCancelled()) {
+                break;
+            }
+            compareWithBaseCode(currentSubmission, baseCodeSubmission);
+            baseCodeProgress.advance(0, currentSubmission.getNumberOfTokens());
+        }
+        baseCodeProgress.finish();
+    }
+
+    /**
+     * Compares a submission to the basecode, which marks its tokens that match the basecode. The basecode must not be
+     * compared concurrently.
+     */
+    protected void compareWithBaseCode(Submission submission, Submission baseCodeSubmission) {
+        JPlagComparison baseCodeComparison = greedyStringTiling.compareWithBaseCode(submission, baseCodeSubmission);
+        submission.setBaseCodeComparison(baseCodeComparison);
+        baseCodeSubmission.resetBaseCode();
+    }
+
+    /**
+     * Prepares the basecode for the comparisons with the submissions, see {@link #compareWithBaseCode}.
+     */
+    protected void prepareBaseCode(Submission baseCodeSubmission) {
+        greedyStringTiling.createHashes(baseCodeSubmission.getTokenList(), options.getMinimumTokenMatch(), true);
+    }
+
+    /**
+     * Starts tracking the progress of the comparison phase.
+     * @param numberOfPairs is the number of submission pairs that will be compared.
+     */
+    protected void startProgress(long numberOfPairs) {
+        progressTracker = new ProgressTracker(options, ProgressPhase.COMPARE, numberOfPairs);
+        comparedPairs.reset();
+    }
+
+    /**
+     * Finishes tracking the progress of the comparison phase and prints a summary of the compared pairs.
+     */
+    protected void finishProgress() {
+        progressTracker.finish();
+        errorCollector.print(null, "Compared " + comparedPairs.sum() + " submission pairs");
+    }
+
+    /**
+     * @return a new sink that retains as many comparisons as the report will show.
+     */
+    protected ComparisonSink createComparisonSink() {
+        return new ComparisonSink(options.getMaximumNumberOfComparisons());
+    }
+
+    /**
+     * Creates a sink for the comparisons of a submission set. If the run is checkpointed, the comparison phase of the
+     * checkpoint is started. The comparisons restored from the checkpoint and the known comparisons of the corpus are
+     * added to the sink.
+     * @return a new sink that retains as many comparisons as the report will show.
+     */
+    protected ComparisonSink createComparisonSink(SubmissionSet submissionSet) {
+        ComparisonSink sink = createComparisonSink();
+        Optional<Checkpoint> checkpoint = submissionSet.getCheckpoint();
+        if (checkpoint.isPresent()) {
+            try {
+                checkpoint.get().startComparisons(submissionSet.getSubmissions());
+            } catch (IOException exception) {
+                throw new IllegalStateException("Cannot read the checkpoint: " + exception.getMessage(), exception);
+            }
+            checkpoint.get().getRestoredComparisons().forEach(it -> addRestoredComparison(it, sink));
+        }
+        submissionSet.getCorpus().ifPresent(it -> it.getKnownComparisons(submissionSet.getSubmissions()).forEach(comparison -> {
+            addRestoredComparison(comparison, sink);
+        }));
+        return sink;
+    }
+
+    private void addRestoredComparison(JPlagComparison comparison, ComparisonSink sink) {
+        if (isAboveThreshold(comparison)) {
+            sink.add(comparison);
+        }
+        if (comparison.isIncomplete()) {
+            sink.addIncomplete(comparison);
+        }
+    }
+
+    /**
+     * @return true if the pair of submissions was already compared in an earlier run that is resumed or in the corpus.
+     */
+    protected boolean isCompleted(SubmissionSet submissionSet, Submission first, Submission second) {
+        return submissionSet.getCheckpoint().map(it -> it.isCompleted(first, second)).orElse(false)
+                || submissionSet.getCorpus().map(it -> it.isKnown(first, second)).orElse(false);
+    }
+
+    /**
+     * @return true if the pair of submissions is not compared, because both are archived or the pair was already compared.
+     */
+    protected boolean isSkipped(SubmissionSet submissionSet, Submission first, Submission second) {
+        return first.isArchived() && second.isArchived() || isCompleted(submissionSet, first, second);
+    }
+
+    /**
+     * Adds a comparison to the sink if its similarity is high enough and lists it if it is incomplete. The compared pair
+     * is recorded in the checkpoint and the corpus, if there are any.
+     */
+    protected void addComparison(SubmissionSet submissionSet, JPlagComparison comparison, ComparisonSink sink) {
+        boolean retained = addComparison(comparison, sink);
+        submissionSet.getCheckpoint().ifPresent(it -> it.record(comparison.getFirstSubmission(), comparison.getSecondSubmission(),
+                retained ? comparison : null));
+        if (retained) {
+            submissionSet.getCorpus().ifPresent(it -> it.record(comparison));
         }
     }
 
     /**
-     * Compares two submissions and optionally returns the results if similarity is high enough.
+     * Adds a comparison to the sink if its similarity is high enough and lists it if it is incomplete, without recording
+     * it in a checkpoint or corpus.
+     * @return true if the comparison was retained by the sink.
      */
-    protected Optional<JPlagComparison> compareSubmissions(Submission first, Submission second, boolean withBaseCode) {
+    protected boolean addComparison(JPlagComparison comparison, ComparisonSink sink) {
+        comparedPairs.increment();
+        progressTracker.advance(0, comparison.getFirstSubmission().getNumberOfTokens() + comparison.getSecondSubmission().getNumberOfTokens());
+        boolean aboveThreshold = isAboveThreshold(comparison);
+        if (aboveThreshold) {
+            sink.add(comparison);
+        }
+        if (comparison.isIncomplete()) {
+            sink.addIncomplete(comparison);
+        }
+        return aboveThreshold || comparison.isIncomplete();
+    }
+
+    /**
+     * Creates the result of a comparison run from the comparisons collected in a sink.
+     */
+    protected JPlagResult createResult(ComparisonSink sink, long durationInMillis, int numberOfSubmissions) {
+        JPlagResult result = new JPlagResult(sink.getComparisons(), sink.getIncompleteComparisons(), sink.getSimilarityDistribution(),
+                durationInMillis, numberOfSubmissions, options);
+        if (isCancelled()) {
+            result.markAsCancelled();
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the run was cancelled, see {@link JPlagOptions#getCancellationToken()}.
+     */
+    protected boolean isCancelled() {
+        return options.getCancellationToken().isCancelled();
+    }
+
+    /**
+     * Compares two submissions and adds the results to the sink, see {@link #addComparison}.
+     */
+    protected void compareSubmissions(SubmissionSet submissionSet, Submission first, Submission second, ComparisonSink sink) {
+        addComparison(submissionSet, compare(first, second), sink);
+    }
+
+    /**
+     * Compares two submissions. Neither of them must be compared concurrently, as the comparison marks their tokens.
+     */
+    protected JPlagComparison compare(Submission first, Submission second) {
         JPlagComparison comparison = greedyStringTiling.compare(first, second);
-        System.out.println("Comparing " + first.getName() + "-" + second.getName() + ": " + comparison.similarity());
+        if (options.getVerbosity() == Verbosity.LONG) { // avoids building the message of every pair in the quiet mode
+            errorCollector.print(null, "Comparing " + first.getName() + "-" + second.getName() + ": " + comparison.similarity());
+        }
+        return comparison;
+    }
+
+    /**
+     * @return true if the similarity of the comparison is high enough to make it into the result.
+     */
+    protected boolean isAboveThreshold(JPlagComparison comparison) {
+        return options.getSimilarityMetric().isAboveThreshold(comparison, options.getSimilarityThreshold());
+    }
 
-        if (options.getSimilarityMetric().isAboveThreshold(comparison, options.getSimilarityThreshold())) {
-            return Optional.of(comparison);
+    /**
+     * @return a list of all submission tuples to be processed.
+     */
+    protected List<SubmissionTuple> buildComparisonTuples(List<Submission> submissions) {
+        List<SubmissionTuple> tuples = new ArrayList<>();
+        for (int i = 0; i < (submissions.size() - 1); i++) {
+            Submission first = submissions.get(i);
+            if (first.getTokenList() != null) {
+                for (int j = (i + 1); j < submissions.size(); j++) {
+                    Submission second = submissions.get(j);
+                    if (second.getTokenList() != null) {
+                        tuples.add(new SubmissionTuple(first, second));
+                    }
+                }
+            }
         }
-        return Optional.empty();
+        return tuples;
+    }
+
+    /**
+     * @return a list of all submission tuples of a submission set that still have to be processed.
+     */
+    protected List<SubmissionTuple> buildComparisonTuples(SubmissionSet submissionSet) {
+        List<SubmissionTuple> tuples = buildComparisonTuples(submissionSet.getSubmissions());
+        tuples.removeIf(tuple -> isSkipped(submissionSet, tuple.getLeft(), tuple.getRight()));
+        return tuples;
     }
 }
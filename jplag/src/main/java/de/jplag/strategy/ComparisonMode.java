@@ -11,7 +11,9 @@ import java.util.Optional;
  */
 public enum ComparisonMode {
     NORMAL("Normal comparison (sequential)"),
-    PARALLEL("Faster comparison (parallel)");
+    PARALLEL("Faster comparison (parallel)"),
+    SHARDED("Distributed comparison (multiple worker processes)"),
+    PIPELINED("Comparison while parsing (parallel)");
 
     private final String name;
     private final String description;
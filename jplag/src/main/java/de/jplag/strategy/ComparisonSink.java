@@ -0,0 +1,122 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+import de.jplag.JPlagComparison;
+
+/**
+ * Collects the comparisons computed by a {@link ComparisonStrategy} while it is running. Only the best comparisons are
+ * retained in a bounded heap, while the similarity distribution is accumulated for all comparisons that are added. Thus,
+ * the memory footprint is proportional to the capacity and not to the number of compared submission pairs. All methods
+ * are thread-safe.
+ */
+public class ComparisonSink {
+
+    /**
+     * Orders entries from the weakest to the strongest comparison. Ties are broken via the submission names to make the
+     * retained comparisons independent of the order in which they were added and of the order of the submissions within
+     * a comparison.
+     */
+    private static final Comparator<Entry> WEAKEST_FIRST = Comparator.comparingDouble((Entry it) -> it.similarity)
+            .thenComparing((Entry it) -> it.smallerName, Comparator.reverseOrder())
+            .thenComparing((Entry it) -> it.largerName, Comparator.reverseOrder());
+
+    private final int capacity;
+    private final PriorityQueue<Entry> retainedComparisons;
+    private final int[] similarityDistribution;
+    private final List<JPlagComparison> incompleteComparisons;
+    private int numberOfComparisons;
+
+    /**
+     * Creates a sink.
+     * @param capacity is the maximum number of comparisons that are retained. If set to -1, all comparisons are retained.
+     */
+    public ComparisonSink(int capacity) {
+        this.capacity = capacity;
+        retainedComparisons = new PriorityQueue<>(WEAKEST_FIRST);
+        similarityDistribution = new int[10];
+        incompleteComparisons = new ArrayList<>();
+    }
+
+    /**
+     * Adds a comparison to the sink. It is only retained if it is among the best comparisons added so far.
+     * @param comparison is the comparison to add.
+     */
+    public synchronized void add(JPlagComparison comparison) {
+        Entry entry = new Entry(comparison);
+        similarityDistribution[distributionIndex(entry.similarity)]++;
+        numberOfComparisons++;
+        if (capacity == -1 || retainedComparisons.size() < capacity) {
+            retainedComparisons.add(entry);
+        } else if (capacity > 0 && WEAKEST_FIRST.compare(entry, retainedComparisons.peek()) > 0) {
+            retainedComparisons.poll();
+            retainedComparisons.add(entry);
+        }
+    }
+
+    /**
+     * Lists a comparison that exceeded its budget, independent of its similarity.
+     * @param comparison is the incomplete comparison.
+     */
+    public synchronized void addIncomplete(JPlagComparison comparison) {
+        incompleteComparisons.add(comparison);
+    }
+
+    /**
+     * @return the retained comparisons sorted by similarity (descending).
+     */
+    public synchronized List<JPlagComparison> getComparisons() {
+        return retainedComparisons.stream().sorted(WEAKEST_FIRST.reversed()).map(it -> it.comparison)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * @return all incomplete comparisons, see {@link JPlagComparison#isIncomplete()}.
+     */
+    public synchronized List<JPlagComparison> getIncompleteComparisons() {
+        return new ArrayList<>(incompleteComparisons);
+    }
+
+    /**
+     * @return the similarity distribution of all added comparisons, see {@link de.jplag.JPlagResult#getSimilarityDistribution()}.
+     */
+    public synchronized int[] getSimilarityDistribution() {
+        return similarityDistribution.clone();
+    }
+
+    /**
+     * @return the number of all added comparisons, including the ones that were not retained.
+     */
+    public synchronized int getNumberOfComparisons() {
+        return numberOfComparisons;
+    }
+
+    private static int distributionIndex(float similarity) {
+        int index = (int) (similarity / 10);
+        return Math.max(0, Math.min(index, 9));
+    }
+
+    /**
+     * Caches the similarity of a comparison, as it is costly to compute and required for every heap operation.
+     */
+    private static class Entry {
+        private final JPlagComparison comparison;
+        private final float similarity;
+        private final String smallerName;
+        private final String largerName;
+
+        Entry(JPlagComparison comparison) {
+            this.comparison = comparison;
+            this.similarity = comparison.similarity();
+            String firstName = comparison.getFirstSubmission().getName();
+            String secondName = comparison.getSecondSubmission().getName();
+            boolean ordered = firstName.compareTo(secondName) <= 0;
+            smallerName = ordered ? firstName : secondName;
+            largerName = ordered ? secondName : firstName;
+        }
+    }
+}
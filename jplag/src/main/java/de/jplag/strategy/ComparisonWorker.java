@@ -0,0 +1,150 @@
+package de.jplag.strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagComparison;
+import de.jplag.Match;
+import de.jplag.Submission;
+import de.jplag.TokenListCodec;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Worker process of the {@link ShardedComparisonStrategy}. Reads the token streams of all submissions and a shard of
+ * submission pairs from the standard input, compares the pairs and streams the matches back via the standard output.
+ * As the whole job is transferred via these two streams, workers can also be launched on remote machines.
+ */
+public final class ComparisonWorker {
+    private static final int PROTOCOL_MAGIC = 0x4A504C47; // "JPLG"
+    private static final int PROTOCOL_VERSION = 2;
+    private static final String BASE_CODE_NAME = "basecode";
+    private static final long FLUSH_INTERVAL_IN_MILLIS = 100;
+
+    private ComparisonWorker() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Runs a worker on the standard streams.
+     * @param args are ignored.
+     */
+    public static void main(String[] args) {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16));
+        System.setOut(System.err); // the standard output is reserved for the results
+        try {
+            run(new DataInputStream(new BufferedInputStream(System.in, 1 << 16)), output);
+            output.flush();
+        } catch (IOException exception) {
+            System.err.println("Comparison worker failed: " + exception.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the job header, which contains the relevant options and the token streams of all submissions.
+     * @param submissions are the submissions, their position in the list is used to reference them in the shards.
+     * @param options are the options of the run.
+     * @param output is the destination.
+     */
+    static void writeHeader(List<Submission> submissions, JPlagOptions options, DataOutput output) throws IOException {
+        output.writeInt(PROTOCOL_MAGIC);
+        output.writeInt(PROTOCOL_VERSION);
+        TokenListCodec.writeVarInt(output, options.getMinimumTokenMatch());
+        output.writeBoolean(options.hasBaseCode());
+        output.writeLong(options.getComparisonStepBudget());
+        output.writeLong(options.getComparisonTimeBudget());
+        TokenListCodec.writeVarInt(output, submissions.size());
+        for (Submission submission : submissions) {
+            TokenListCodec.write(submission.getTokenList(), output);
+        }
+    }
+
+    /**
+     * Writes a shard of submission pairs, referenced by the indices used in the header.
+     */
+    static void writeShard(List<int[]> pairs, DataOutput output) throws IOException {
+        TokenListCodec.writeVarInt(output, pairs.size());
+        for (int[] pair : pairs) {
+            TokenListCodec.writeVarInt(output, pair[0]);
+            TokenListCodec.writeVarInt(output, pair[1]);
+        }
+    }
+
+    /**
+     * Reads one comparison result of a worker.
+     * @param submissions are the submissions in the order used in the header.
+     * @param input is the output stream of the worker.
+     * @return the comparison with all its matches.
+     */
+    static JPlagComparison readComparison(List<Submission> submissions, DataInput input) throws IOException {
+        Submission first = submissions.get(TokenListCodec.readVarInt(input));
+        Submission second = submissions.get(TokenListCodec.readVarInt(input));
+        JPlagComparison comparison = new JPlagComparison(first, second);
+        if (input.readBoolean()) {
+            comparison.markAsIncomplete();
+        }
+        int numberOfMatches = TokenListCodec.readVarInt(input);
+        for (int i = 0; i < numberOfMatches; i++) {
+            comparison.addMatch(TokenListCodec.readVarInt(input), TokenListCodec.readVarInt(input), TokenListCodec.readVarInt(input));
+        }
+        return comparison;
+    }
+
+    private static void run(DataInput input, DataOutputStream output) throws IOException {
+        if (input.readInt() != PROTOCOL_MAGIC || input.readInt() != PROTOCOL_VERSION) {
+            throw new IOException("Unknown protocol!");
+        }
+        JPlagOptions options = new JPlagOptions(".", LanguageOption.getDefault());
+        options.setMinimumTokenMatch(TokenListCodec.readVarInt(input));
+        if (input.readBoolean()) {
+            options.setBaseCodeSubmissionName(BASE_CODE_NAME);
+        }
+        options.setComparisonStepBudget(input.readLong());
+        options.setComparisonTimeBudget(input.readLong());
+
+        int numberOfSubmissions = TokenListCodec.readVarInt(input);
+        List<Submission> submissions = new ArrayList<>(numberOfSubmissions);
+        for (int i = 0; i < numberOfSubmissions; i++) {
+            Submission submission = new Submission(Integer.toString(i), null, Collections.emptyList(), null, null);
+            submission.setTokenList(TokenListCodec.read(input));
+            submissions.add(submission);
+        }
+
+        GreedyStringTiling greedyStringTiling = new GreedyStringTiling(options);
+        int numberOfPairs = TokenListCodec.readVarInt(input);
+        long lastFlushInMillis = System.currentTimeMillis();
+        for (int i = 0; i < numberOfPairs; i++) {
+            Submission first = submissions.get(TokenListCodec.readVarInt(input));
+            Submission second = submissions.get(TokenListCodec.readVarInt(input));
+            writeComparison(greedyStringTiling.compare(first, second), output);
+            if (System.currentTimeMillis() - lastFlushInMillis >= FLUSH_INTERVAL_IN_MILLIS) {
+                output.flush(); // streams the results back instead of only sending them when the buffer is full
+                lastFlushInMillis = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static void writeComparison(JPlagComparison comparison, DataOutput output) throws IOException {
+        TokenListCodec.writeVarInt(output, Integer.parseInt(comparison.getFirstSubmission().getName()));
+        TokenListCodec.writeVarInt(output, Integer.parseInt(comparison.getSecondSubmission().getName()));
+        output.writeBoolean(comparison.isIncomplete());
+        TokenListCodec.writeVarInt(output, comparison.getMatches().size());
+        for (Match match : comparison.getMatches()) {
+            TokenListCodec.writeVarInt(output, match.getStartOfFirst());
+            TokenListCodec.writeVarInt(output, match.getStartOfSecond());
+            TokenListCodec.writeVarInt(output, match.getLength());
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package de.jplag.strategy;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import de.jplag.ErrorCollector;
 import de.jplag.GreedyStringTiling;
-import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
@@ -12,8 +11,8 @@ import de.jplag.options.JPlagOptions;
 
 public class NormalComparisonStrategy extends AbstractComparisonStrategy {
 
-    public NormalComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
-        super(options, greedyStringTiling);
+    public NormalComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ErrorCollector errorCollector) {
+        super(options, greedyStringTiling, errorCollector);
     }
 
     @Override
@@ -27,24 +26,45 @@ public class NormalComparisonStrategy extends AbstractComparisonStrategy {
         long timeBeforeStartInMillis = System.currentTimeMillis();
         int i, j, numberOfSubmissions = submissions.size();
         Submission first, second;
-        List<JPlagComparison> comparisons = new ArrayList<>();
+        ComparisonSink sink = createComparisonSink(submissionSet);
+        startProgress(countPairsToCompare(submissionSet));
 
-        for (i = 0; i < (numberOfSubmissions - 1); i++) {
+        outer: for (i = 0; i < (numberOfSubmissions - 1); i++) {
             first = submissions.get(i);
             if (first.getTokenList() == null) {
                 continue;
             }
             for (j = (i + 1); j < numberOfSubmissions; j++) {
+                if (isCancelled()) {
+                    break outer;
+                }
                 second = submissions.get(j);
-                if (second.getTokenList() == null) {
+                if (second.getTokenList() == null || isSkipped(submissionSet, first, second)) {
                     continue;
                 }
-                compareSubmissions(first, second, withBaseCode).ifPresent(it -> comparisons.add(it));
+                compareSubmissions(submissionSet, first, second, sink);
             }
         }
 
+        finishProgress();
         long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        return new JPlagResult(comparisons, durationInMillis, numberOfSubmissions, options);
+        return createResult(sink, durationInMillis, numberOfSubmissions);
+    }
+
+    /**
+     * @return the number of pairs that are compared, which excludes the skipped pairs.
+     */
+    private long countPairsToCompare(SubmissionSet submissionSet) {
+        List<Submission> submissions = submissionSet.getSubmissions();
+        long pairs = 0;
+        for (int i = 0; i < (submissions.size() - 1); i++) {
+            for (int j = (i + 1); j < submissions.size(); j++) {
+                if (!isSkipped(submissionSet, submissions.get(i), submissions.get(j))) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
     }
 
 }
@@ -1,18 +1,19 @@
 package de.jplag.strategy;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import de.jplag.ErrorCollector;
 import de.jplag.GreedyStringTiling;
-import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
@@ -26,13 +27,12 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
     private static final int TIMEOUT_IN_SECONDS = 5;
     private final ConcurrentMap<String, Lock> submissionLocks;
     private ExecutorService threadPool;
-    private final List<JPlagComparison> comparisons;
-    private int successfulComparisons;
+    private ComparisonSink sink;
+    private AtomicInteger successfulComparisons;
 
-    public ParallelComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
-        super(options, greedyStringTiling);
+    public ParallelComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ErrorCollector errorCollector) {
+        super(options, greedyStringTiling, errorCollector);
         submissionLocks = new ConcurrentHashMap<>();
-        comparisons = Collections.synchronizedList(new ArrayList<>());
     }
 
     @Override
@@ -43,21 +43,22 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
         if (withBaseCode) {
             compareSubmissionsToBaseCode(submissionSet);
         }
-        threadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        comparisons.clear();
+        threadPool = options.getComparisonThreadPool().orElseGet(() -> Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+        sink = createComparisonSink(submissionSet);
         submissionLocks.clear();
-        successfulComparisons = 0;
+        successfulComparisons = new AtomicInteger();
 
         // Parallel compare:
         List<Submission> submissions = submissionSet.getSubmissions();
-        List<SubmissionTuple> tuples = buildComparisonTuples(submissions);
+        List<SubmissionTuple> tuples = buildComparisonTuples(submissionSet);
         Collections.shuffle(tuples); // Reduces how often submission pairs must be re-submitted
+        startProgress(tuples.size());
         for (SubmissionTuple tuple : tuples) {
-            threadPool.execute(compareTuple(tuple, withBaseCode));
+            threadPool.execute(compareTuple(submissionSet, tuple));
         }
 
         // Ensure termination:
-        while (successfulComparisons < tuples.size()) {
+        while (successfulComparisons.get() < tuples.size() && !isCancelled()) {
             try {
                 Thread.sleep(5);
             } catch (InterruptedException exception) {
@@ -67,51 +68,34 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
 
         // Clean up and return result:
         shutdownThreadPool();
+        finishProgress();
         long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        return new JPlagResult(comparisons, durationInMillis, submissions.size(), options);
-    }
-
-    /**
-     * @return a list of all submission tuples to be processed.
-     */
-    private List<SubmissionTuple> buildComparisonTuples(List<Submission> submissions) {
-        List<SubmissionTuple> tuples = new ArrayList<>();
-        for (int i = 0; i < (submissions.size() - 1); i++) {
-            Submission first = submissions.get(i);
-            if (first.getTokenList() != null) {
-                for (int j = (i + 1); j < submissions.size(); j++) {
-                    Submission second = submissions.get(j);
-                    if (second.getTokenList() != null) {
-                        tuples.add(new SubmissionTuple(first, second));
-                    }
-                }
-            }
-        }
-        return tuples;
+        return createResult(sink, durationInMillis, submissions.size());
     }
 
     /**
      * Creates a runnable which compares a submission tuple. If the submissions are locked, the runnable is re-submitted.
+     * @param submissionSet contains the submissions and the checkpoint of the run.
      * @param tuple contains the submissions to compare.
-     * @param withBaseCode specifies if base code is used.
      * @return the runnable for parallel use.
      */
-    private Runnable compareTuple(SubmissionTuple tuple, boolean withBaseCode) {
+    private Runnable compareTuple(SubmissionSet submissionSet, SubmissionTuple tuple) {
         return new Runnable() {
             @Override
             public void run() {
+                if (isCancelled()) {
+                    return; // remaining tuples are dropped, the thread pool is shut down
+                }
                 Lock leftLock = getOrCreateLock(tuple.getLeft().getName());
                 Lock rightLock = getOrCreateLock(tuple.getRight().getName());
                 boolean hasLeft = leftLock.tryLock();
                 boolean hasRight = hasLeft && rightLock.tryLock();
                 try {
                     if (hasLeft && hasRight) { // both locks acquired!
-                        compareSubmissions(tuple.getLeft(), tuple.getRight(), withBaseCode).ifPresent(it -> comparisons.add(it));
-                        synchronized (this) {
-                            successfulComparisons++;
-                        }
-                    } else {
-                        threadPool.execute(this); // re-submit runnable, as at least one submission is locked.
+                        compareSubmissions(submissionSet, tuple.getLeft(), tuple.getRight(), sink);
+                        successfulComparisons.incrementAndGet();
+                    } else if (!isCancelled()) {
+                        resubmit(this); // as at least one submission is locked.
                     }
                 } finally {
                     if (hasRight) {
@@ -125,6 +109,19 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
         };
     }
 
+    /**
+     * Re-submits a runnable to the thread pool, unless the pool was shut down because the run was cancelled.
+     */
+    private void resubmit(Runnable runnable) {
+        try {
+            threadPool.execute(runnable);
+        } catch (RejectedExecutionException exception) {
+            if (!isCancelled()) {
+                throw exception;
+            }
+        }
+    }
+
     /**
      * @return a lock for a given key. If it does not exist, it is created in a thread-safe manner.
      */
@@ -134,10 +131,18 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
     }
 
     /**
-     * Shuts down the thread pool and awaits termination
+     * Shuts down the thread pool and awaits termination, unless it is shared with other runs. A shared thread pool only runs
+     * the remaining comparisons of a cancelled run, which return immediately.
      */
     private void shutdownThreadPool() {
-        threadPool.shutdown();
+        if (options.getComparisonThreadPool().isPresent()) {
+            return;
+        }
+        if (isCancelled()) {
+            threadPool.shutdownNow(); // drops the queued comparisons
+        } else {
+            threadPool.shutdown();
+        }
         try {
             if (!threadPool.awaitTermination(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
                 throw new IllegalStateException("Parallel comparison calculation timed out!");
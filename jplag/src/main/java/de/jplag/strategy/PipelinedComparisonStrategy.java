@@ -0,0 +1,237 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.jplag.ErrorCollector;
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagResult;
+import de.jplag.ParseListener;
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Strategy that compares the submissions while they are still being parsed. As soon as a submission is parsed, it is
+ * compared with the basecode and its comparisons with all submissions parsed before are scheduled, so reading and
+ * parsing the files overlaps with the comparisons. The number of scheduled comparisons is bounded: if the comparisons
+ * fall behind, the parser threads are blocked until enough of them are done.
+ * <p>
+ * Runs with a checkpoint or a corpus are not supported, as their submission pairs are only known once all submissions
+ * are parsed.
+ */
+public class PipelinedComparisonStrategy extends AbstractComparisonStrategy implements ParseListener {
+    private static final int TIMEOUT_IN_SECONDS = 5;
+    private static final int MAXIMUM_PENDING_COMPARISONS = 1 << 14;
+
+    private final ConcurrentMap<Submission, Lock> submissionLocks;
+    private final Semaphore pendingComparisons;
+    private ExecutorService threadPool;
+    private ComparisonSink sink;
+    private Optional<Submission> baseCode;
+    private List<Submission> parsedSubmissions;
+    private long scheduledComparisons;
+    private long completedComparisons;
+    private long timeBeforeStartInMillis;
+    private volatile boolean aborted;
+
+    public PipelinedComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ErrorCollector errorCollector) {
+        super(options, greedyStringTiling, errorCollector);
+        submissionLocks = new ConcurrentHashMap<>();
+        pendingComparisons = new Semaphore(MAXIMUM_PENDING_COMPARISONS);
+    }
+
+    @Override
+    public void parsingStarted(List<Submission> submissions, Optional<Submission> baseCode) {
+        timeBeforeStartInMillis = System.currentTimeMillis();
+        this.baseCode = baseCode;
+        baseCode.ifPresent(this::prepareBaseCode);
+        threadPool = options.getComparisonThreadPool().orElseGet(this::createThreadPool);
+        sink = createComparisonSink();
+        submissionLocks.clear();
+        aborted = false;
+        synchronized (this) {
+            parsedSubmissions = new ArrayList<>();
+            scheduledComparisons = 0;
+            completedComparisons = 0;
+        }
+
+        // estimated, as the number of valid submissions is not known yet:
+        long numberOfArchivedSubmissions = submissions.stream().filter(Submission::isArchived).count();
+        startProgress(numberOfPairs(submissions.size()) - numberOfPairs(numberOfArchivedSubmissions));
+    }
+
+    @Override
+    public void submissionParsed(Submission submission) {
+        if (baseCode.isPresent()) {
+            synchronized (baseCode.get()) { // the comparison marks the tokens of the basecode
+                compareWithBaseCode(submission, baseCode.get());
+            }
+        }
+
+        List<Submission> previousSubmissions;
+        synchronized (this) {
+            previousSubmissions = new ArrayList<>(parsedSubmissions);
+            parsedSubmissions.add(submission);
+        }
+        Collections.shuffle(previousSubmissions); // Reduces how often submission pairs must be re-submitted
+        for (Submission previousSubmission : previousSubmissions) {
+            if (isCancelled()) {
+                return;
+            }
+            if (previousSubmission.isArchived() && submission.isArchived()) {
+                continue;
+            }
+            pendingComparisons.acquireUninterruptibly(); // blocks the parser thread if the comparisons fall behind
+            synchronized (this) {
+                scheduledComparisons++;
+            }
+            submit(compareTuple(new SubmissionTuple(previousSubmission, submission)));
+        }
+    }
+
+    @Override
+    public void parsingFinished(boolean successful) {
+        if (!successful) {
+            aborted = true; // the remaining comparisons are dropped, as no result is collected
+            shutdownThreadPool();
+        }
+    }
+
+    /**
+     * Waits for the scheduled comparisons and collects the result. If the run was cancelled, the remaining comparisons are
+     * dropped and the comparisons made so far form the partial result.
+     */
+    @Override
+    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+        // Ensure termination:
+        synchronized (this) {
+            while (completedComparisons < scheduledComparisons && !isCancelled()) {
+                try {
+                    wait(TimeUnit.SECONDS.toMillis(TIMEOUT_IN_SECONDS)); // woken up by each completed comparison
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    options.getCancellationToken().cancel();
+                }
+            }
+        }
+
+        // Clean up and return result:
+        shutdownThreadPool();
+        finishProgress();
+        long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
+        return createResult(sink, durationInMillis, submissionSet.numberOfSubmissions());
+    }
+
+    /**
+     * Creates a runnable which compares a submission tuple. If the submissions are locked, the runnable is re-submitted.
+     * @param tuple contains the submissions to compare.
+     * @return the runnable for parallel use.
+     */
+    private Runnable compareTuple(SubmissionTuple tuple) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (isCancelled()) {
+                    complete(); // remaining tuples are dropped
+                    return;
+                }
+                Lock leftLock = submissionLocks.computeIfAbsent(tuple.getLeft(), it -> new ReentrantLock());
+                Lock rightLock = submissionLocks.computeIfAbsent(tuple.getRight(), it -> new ReentrantLock());
+                boolean hasLeft = leftLock.tryLock();
+                boolean hasRight = hasLeft && rightLock.tryLock();
+                try {
+                    if (hasLeft && hasRight) { // both locks acquired!
+                        addComparison(compare(tuple.getLeft(), tuple.getRight()), sink);
+                        complete();
+                    } else {
+                        submit(this); // as at least one submission is locked.
+                    }
+                } finally {
+                    if (hasRight) {
+                        rightLock.unlock();
+                    }
+                    if (hasLeft) {
+                        leftLock.unlock();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Submits a runnable to the thread pool. If the pool was shut down because the run was cancelled, the comparison is
+     * dropped.
+     */
+    private void submit(Runnable runnable) {
+        try {
+            threadPool.execute(runnable);
+        } catch (RejectedExecutionException exception) {
+            if (!isCancelled()) {
+                throw exception;
+            }
+            complete();
+        }
+    }
+
+    private synchronized void complete() {
+        completedComparisons++;
+        pendingComparisons.release();
+        notifyAll();
+    }
+
+    @Override
+    protected boolean isCancelled() {
+        return aborted || super.isCancelled();
+    }
+
+    /**
+     * Creates a thread pool whose threads end when they are idle, as the result of a run that fails after parsing is never
+     * collected, thus the pool is not shut down.
+     */
+    private ExecutorService createThreadPool() {
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, TIMEOUT_IN_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static long numberOfPairs(long numberOfSubmissions) {
+        return numberOfSubmissions * (numberOfSubmissions - 1) / 2;
+    }
+
+    /**
+     * Shuts down the thread pool, unless it is shared with other runs. A shared thread pool only runs the remaining
+     * comparisons of a cancelled run, which return immediately.
+     */
+    private void shutdownThreadPool() {
+        if (threadPool == null || options.getComparisonThreadPool().isPresent()) {
+            return;
+        }
+        if (isCancelled()) {
+            threadPool.shutdownNow(); // drops the queued comparisons
+        } else {
+            threadPool.shutdown();
+        }
+        try {
+            if (!threadPool.awaitTermination(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Pipelined comparison calculation timed out!");
+            }
+        } catch (InterruptedException exception) {
+            throw new IllegalStateException("Thread pool interrupted during comparison: " + exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package de.jplag.strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import de.jplag.ErrorCollector;
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Strategy that distributes the comparison of submissions to multiple {@link ComparisonWorker} processes. The token
+ * streams of all submissions are encoded once, the submission pairs are split into one shard per worker, and the
+ * results streamed back by the workers are merged into a single result.
+ */
+public class ShardedComparisonStrategy extends AbstractComparisonStrategy {
+
+    public ShardedComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ErrorCollector errorCollector) {
+        super(options, greedyStringTiling, errorCollector);
+    }
+
+    @Override
+    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+        long timeBeforeStartInMillis = System.currentTimeMillis();
+        boolean withBaseCode = submissionSet.hasBaseCode();
+        if (withBaseCode) {
+            compareSubmissionsToBaseCode(submissionSet);
+        }
+
+        List<Submission> submissions = submissionSet.getSubmissions();
+        ComparisonSink sink = createComparisonSink(submissionSet);
+        List<SubmissionTuple> tuples = buildComparisonTuples(submissionSet);
+        startProgress(tuples.size());
+        if (!tuples.isEmpty()) {
+            List<List<int[]>> shards = buildShards(tuples, submissions);
+            byte[] header = encodeHeader(submissions);
+            runWorkers(shards, header, submissionSet, sink);
+        }
+
+        finishProgress();
+        long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
+        return createResult(sink, durationInMillis, submissions.size());
+    }
+
+    /**
+     * Distributes the tuples round-robin over the workers, which balances shards of submissions with different sizes.
+     * @return one list of submission index pairs per worker.
+     */
+    private List<List<int[]>> buildShards(List<SubmissionTuple> tuples, List<Submission> submissions) {
+        Map<Submission, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            indices.put(submissions.get(i), i);
+        }
+        int numberOfShards = Math.min(options.getNumberOfWorkers(), tuples.size());
+        List<List<int[]>> shards = new ArrayList<>(numberOfShards);
+        for (int i = 0; i < numberOfShards; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tuples.size(); i++) {
+            SubmissionTuple tuple = tuples.get(i);
+            shards.get(i % numberOfShards).add(new int[] {indices.get(tuple.getLeft()), indices.get(tuple.getRight())});
+        }
+        return shards;
+    }
+
+    private byte[] encodeHeader(List<Submission> submissions) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            ComparisonWorker.writeHeader(submissions, options, output);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Could not encode the token streams: " + exception.getMessage(), exception);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void runWorkers(List<List<int[]>> shards, byte[] header, SubmissionSet submissionSet, ComparisonSink sink) {
+        ExecutorService threadPool = Executors.newFixedThreadPool(shards.size());
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (List<int[]> shard : shards) {
+                workers.add(threadPool.submit(() -> {
+                    runWorker(shard, header, submissionSet, sink);
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Comparison worker failed: " + exception.getCause().getMessage(), exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for comparison workers: " + exception.getMessage());
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Launches a worker process, sends the job and merges the streamed results into the sink.
+     */
+    private void runWorker(List<int[]> shard, byte[] header, SubmissionSet submissionSet, ComparisonSink sink)
+            throws IOException, InterruptedException {
+        List<Submission> submissions = submissionSet.getSubmissions();
+        Process process = new ProcessBuilder(workerCommand()).redirectError(Redirect.INHERIT).start();
+        FutureTask<Void> jobWriter = new FutureTask<>(() -> {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(process.getOutputStream(), 1 << 16))) {
+                output.write(header);
+                ComparisonWorker.writeShard(shard, output);
+            }
+            return null;
+        });
+        // The job is written concurrently, as the worker streams results back while it still reads the shard:
+        Thread jobWriterThread = new Thread(jobWriter, "comparison-worker-input");
+        jobWriterThread.setDaemon(true);
+        jobWriterThread.start();
+        try {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(process.getInputStream(), 1 << 16))) {
+                for (int i = 0; i < shard.size(); i++) {
+                    if (isCancelled()) {
+                        return; // the worker process is destroyed below
+                    }
+                    JPlagComparison comparison = ComparisonWorker.readComparison(submissions, input);
+                    addComparison(submissionSet, comparison, sink);
+                }
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("Worker process exited with code " + exitCode);
+            }
+            jobWriter.get();
+        } catch (ExecutionException exception) {
+            throw new IOException("Could not send the job to the worker process: " + exception.getCause().getMessage(), exception.getCause());
+        } finally {
+            process.destroy();
+        }
+    }
+
+    /**
+     * @return the command that starts a worker process with the same Java runtime and class path as this process.
+     */
+    protected List<String> workerCommand() {
+        String javaExecutable = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return List.of(javaExecutable, "-cp", System.getProperty("java.class.path"), ComparisonWorker.class.getName());
+    }
+}
@@ -0,0 +1,171 @@
+package de.jplag;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+import de.jplag.reporting.Report;
+
+/**
+ * Tests comparing submissions that are read from zip files instead of directories.
+ */
+public class ArchiveFileTest extends TestBase {
+
+    private static final int TAR_BLOCK_SIZE = 512;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRootArchiveWithNestedArchives() throws ExitException, IOException {
+        File rootArchive = temporaryFolder.newFile("course.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(rootArchive.toPath()))) {
+            for (String name : List.of("A", "B", "C", "D", "E")) {
+                if (name.equals("A") || name.equals("B")) {
+                    addFiles(zip, name + "/", name); // directories
+                } else {
+                    zip.putNextEntry(new ZipEntry(name + ".zip"));
+                    zip.write(zipSubmission(name));
+                }
+            }
+        }
+
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult result = new JPlag(new JPlagOptions(rootArchive.getPath(), LanguageOption.JAVA)).run();
+        assertSameComparisons(expected, result);
+
+        File reportDirectory = temporaryFolder.newFolder();
+        new Report(reportDirectory, result.getOptions()).writeResult(result);
+        String matchPage = Files.readString(new File(reportDirectory, "match0.html").toPath());
+        assertTrue(matchPage.contains("class Token"));
+    }
+
+    @Test
+    public void testArchivesInRootDirectoryWithoutInMemoryParsing() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        for (String name : List.of("A", "B", "C", "D", "E")) {
+            Files.write(rootDirectory.toPath().resolve(name + ".zip"), zipSubmission(name));
+        }
+
+        JPlagOptions expectedOptions = new JPlagOptions(Path.of(BASE_PATH, "PartialPlagiarism").toString(), LanguageOption.C_CPP);
+        expectedOptions.setFileSuffixes(new String[] {".java"});
+        JPlagResult expected = new JPlag(expectedOptions).run();
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.C_CPP);
+        options.setFileSuffixes(new String[] {".java"});
+        JPlagResult result = new JPlag(options).run();
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testTarSubmissions() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        for (String name : List.of("A", "B", "C", "D", "E")) {
+            Files.write(rootDirectory.toPath().resolve(name + ".tar"), tarSubmission(name));
+        }
+
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult result = new JPlag(new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA)).run();
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testMalformedArchiveIsIgnored() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        for (String name : List.of("A", "B", "C", "D", "E")) {
+            Files.write(rootDirectory.toPath().resolve(name + ".zip"), zipSubmission(name));
+        }
+        byte[] randomBytes = new byte[4 * TAR_BLOCK_SIZE];
+        new Random(42).nextBytes(randomBytes);
+        randomBytes[0] = 'x'; // a leading zero would end the archive
+        Files.write(rootDirectory.toPath().resolve("bad.tar"), randomBytes);
+
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult result = new JPlag(new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA)).run();
+        assertSameComparisons(expected, result);
+    }
+
+    private byte[] zipSubmission(String name) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(content)) {
+            addFiles(zip, "", name);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Writes the files of a submission as ustar archive, where the sizes of every other entry use the base-256 encoding.
+     */
+    private byte[] tarSubmission(String name) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (Stream<Path> files = Files.list(Path.of(BASE_PATH, "PartialPlagiarism", name))) {
+            boolean base256 = false;
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                byte[] data = Files.readAllBytes(file);
+                content.write(tarHeader(file.getFileName().toString(), data.length, base256));
+                content.write(data);
+                content.write(new byte[(TAR_BLOCK_SIZE - data.length % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE]);
+                base256 = !base256;
+            }
+        }
+        content.write(new byte[2 * TAR_BLOCK_SIZE]); // end of archive
+        return content.toByteArray();
+    }
+
+    private byte[] tarHeader(String fileName, int size, boolean base256) {
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+        putTarString(header, 0, fileName);
+        putTarString(header, 100, "0000644");
+        if (base256) {
+            header[124] = (byte) 0x80;
+            for (int index = 0; index < 4; index++) {
+                header[135 - index] = (byte) (size >>> (8 * index));
+            }
+        } else {
+            putTarString(header, 124, String.format("%011o", size));
+        }
+        header[156] = '0';
+        putTarString(header, 257, "ustar");
+        putTarString(header, 263, "00");
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        int checksum = 0;
+        for (byte value : header) {
+            checksum += value & 0xFF;
+        }
+        putTarString(header, 148, String.format("%06o", checksum));
+        return header;
+    }
+
+    private void putTarString(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    private void addFiles(ZipOutputStream zip, String prefix, String name) throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(BASE_PATH, "PartialPlagiarism", name))) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                zip.putNextEntry(new ZipEntry(prefix + file.getFileName()));
+                zip.write(Files.readAllBytes(file));
+                zip.closeEntry();
+            }
+        }
+    }
+}
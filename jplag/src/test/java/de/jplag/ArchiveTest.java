@@ -0,0 +1,106 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+import de.jplag.progress.JPlagProgressListener;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.strategy.ComparisonMode;
+
+/**
+ * Tests comparing the submissions of a root directory with archived submissions.
+ */
+public class ArchiveTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testArchivedSubmissionsAreNotComparedWithEachOther() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        File archiveDirectory = temporaryFolder.newFolder("archive");
+        copySubmissions(rootDirectory, "A", "B");
+        copySubmissions(archiveDirectory, "C", "D", "E");
+
+        List<Long> comparedPairs = new ArrayList<>();
+        JPlagResult result = runWithArchive(rootDirectory, archiveDirectory, null, ComparisonMode.NORMAL, comparedPairs);
+
+        assertEquals(5, result.getNumberOfSubmissions());
+        assertEquals(List.of(7L), comparedPairs); // A-B and both of them with each of the three archived submissions
+        assertNoArchivedPairs(result);
+    }
+
+    @Test
+    public void testArchivedSubmissionsAreRestoredFromCache() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        File archiveDirectory = temporaryFolder.newFolder("archive");
+        File cacheDirectory = temporaryFolder.newFolder();
+        copySubmissions(rootDirectory, "A", "B");
+        copySubmissions(archiveDirectory, "C", "D", "E");
+
+        JPlagResult expected = runWithArchive(rootDirectory, archiveDirectory, cacheDirectory, ComparisonMode.NORMAL, new ArrayList<>());
+        assertTrue(new File(cacheDirectory, "archive-tokens.bin").exists());
+
+        JPlagResult result = runWithArchive(rootDirectory, archiveDirectory, cacheDirectory, ComparisonMode.PARALLEL, new ArrayList<>());
+        assertNoArchivedPairs(result);
+        assertEquals(expected.getComparisons().size(), result.getComparisons().size());
+        for (int i = 0; i < expected.getComparisons().size(); i++) {
+            assertEquals(expected.getComparisons().get(i).similarity(), result.getComparisons().get(i).similarity(), DELTA);
+        }
+    }
+
+    @Test
+    public void testArchivedSubmissionsAreNotComparedWithEachOtherWhilePipelined() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        File archiveDirectory = temporaryFolder.newFolder("archive");
+        copySubmissions(rootDirectory, "A", "B");
+        copySubmissions(archiveDirectory, "C", "D", "E");
+
+        JPlagResult expected = runWithArchive(rootDirectory, archiveDirectory, null, ComparisonMode.NORMAL, new ArrayList<>());
+        List<Long> comparedPairs = new ArrayList<>();
+        JPlagResult result = runWithArchive(rootDirectory, archiveDirectory, null, ComparisonMode.PIPELINED, comparedPairs);
+        assertEquals(List.of(7L), comparedPairs);
+        assertNoArchivedPairs(result);
+        assertEquals(expected.getSimilarityDistribution()[0], result.getSimilarityDistribution()[0]);
+        assertEquals(expected.getComparisons().size(), result.getComparisons().size());
+    }
+
+    private void assertNoArchivedPairs(JPlagResult result) {
+        assertFalse(result.getComparisons().isEmpty());
+        for (JPlagComparison comparison : result.getComparisons()) {
+            assertFalse(comparison.getFirstSubmission().isArchived() && comparison.getSecondSubmission().isArchived());
+        }
+    }
+
+    private JPlagResult runWithArchive(File rootDirectory, File archiveDirectory, File cacheDirectory, ComparisonMode mode,
+            List<Long> comparedPairs) throws ExitException {
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA);
+        options.setArchiveDirectoryNames(archiveDirectory.getPath());
+        if (cacheDirectory != null) {
+            options.setArchiveCacheDirectoryName(cacheDirectory.getPath());
+        }
+        options.setComparisonMode(mode);
+        options.setProgressListener(new JPlagProgressListener() {
+            @Override
+            public void phaseStarted(ProgressPhase phase, long total) {
+                if (phase == ProgressPhase.COMPARE) {
+                    comparedPairs.add(total);
+                }
+            }
+        });
+        return new JPlag(options).run();
+    }
+}
@@ -0,0 +1,95 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.batch.BatchJob;
+import de.jplag.batch.BatchRunner;
+import de.jplag.exceptions.BatchException;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests running multiple jobs with the {@link BatchRunner}.
+ */
+public class BatchTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFailingJobDoesNotAffectOthers() throws ExitException, IOException {
+        File resultDirectory = temporaryFolder.newFolder();
+        File manifest = writeManifest("# nightly batch", //
+                jobLine("PartialPlagiarism", "-c parallel", resultDirectory, "partial"), //
+                "", //
+                jobLine("SimpleDuplicate", "", resultDirectory, "duplicate"), //
+                jobLine("DoesNotExist", "", resultDirectory, "missing"));
+
+        List<BatchJob> jobs = BatchRunner.readManifest(manifest);
+        assertEquals(3, jobs.size());
+        assertEquals(1, new BatchRunner(2).run(jobs));
+
+        assertTrue(jobs.get(0).isSuccessful());
+        assertTrue(jobs.get(1).isSuccessful());
+        assertFalse(jobs.get(2).isSuccessful());
+        assertTrue(new File(resultDirectory, "partial/index.html").exists());
+        assertTrue(new File(resultDirectory, "duplicate/index.html").exists());
+        assertFalse(new File(resultDirectory, "missing").exists());
+    }
+
+    @Test
+    public void testLanguageStateIsResetBetweenRuns() throws ExitException, IOException {
+        File firstRoot = writeTextSubmissions("the quick brown fox", "the lazy dog");
+        File secondRoot = writeTextSubmissions("lorem ipsum dolor", "sit amet consectetur");
+        AtomicReference<Language> sharedLanguage = new AtomicReference<>();
+        Function<ErrorConsumer, Language> languageProvider = errorConsumer -> sharedLanguage
+                .updateAndGet(it -> it == null ? JPlag.loadLanguage(LanguageOption.TEXT, errorConsumer) : it);
+
+        new JPlag(new JPlagOptions(firstRoot.getPath(), LanguageOption.TEXT), languageProvider).run();
+        int numberOfTokens = sharedLanguage.get().numberOfTokens();
+        new JPlag(new JPlagOptions(secondRoot.getPath(), LanguageOption.TEXT), languageProvider).run();
+        new JPlag(new JPlagOptions(firstRoot.getPath(), LanguageOption.TEXT), languageProvider).run();
+        assertEquals(numberOfTokens, sharedLanguage.get().numberOfTokens());
+    }
+
+    @Test(expected = BatchException.class)
+    public void testInvalidManifest() throws ExitException, IOException {
+        BatchRunner.readManifest(writeManifest("rootDirectory -l unknownLanguage"));
+    }
+
+    private String jobLine(String sampleName, String arguments, File resultDirectory, String resultName) {
+        String result = new File(resultDirectory, resultName).getPath();
+        return "\"" + Path.of(BASE_PATH, sampleName) + "\" " + arguments + " -r \"" + result + "\"";
+    }
+
+    private File writeTextSubmissions(String... contents) throws IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        for (int i = 0; i < contents.length; i++) {
+            File submission = new File(rootDirectory, "S" + i);
+            submission.mkdir();
+            Files.writeString(new File(submission, "text.txt").toPath(), (contents[i] + " ").repeat(10));
+        }
+        return rootDirectory;
+    }
+
+    private File writeManifest(String... lines) throws IOException {
+        File manifest = temporaryFolder.newFile();
+        Files.write(manifest.toPath(), List.of(lines));
+        return manifest;
+    }
+}
@@ -0,0 +1,73 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.jplag.csharp.CSharpTokenConstants;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests deriving the tokens of C# submissions from the lexer alone.
+ */
+public class CSharpLexerOnlyTest extends TestBase {
+
+    private static final String SAMPLE = "CSharpDuplicate";
+    private static final String[] FILES = {"Calculator.cs"};
+
+    @Test
+    public void testDeclarationsAndInvocations() {
+        Language language = JPlag.loadLanguage(LanguageOption.C_SHARP, new ErrorCollector(new JPlagOptions(BASE_PATH, LanguageOption.C_SHARP)));
+        File directory = Path.of(BASE_PATH, SAMPLE, "A").toFile();
+
+        ParseResult parsed = language.parseFiles(directory, FILES);
+        language.setLexerOnly(true);
+        ParseResult scanned = language.parseFiles(directory, FILES);
+
+        assertFalse(parsed.hasErrors());
+        assertFalse(scanned.hasErrors());
+        assertEquals(List.of(14, 20, 30), linesOf(scanned, CSharpTokenConstants._METHOD));
+        assertEquals(List.of(9), linesOf(scanned, CSharpTokenConstants._CONSTRUCTOR));
+        assertEquals(List.of(25, 35, 37, 37), linesOf(scanned, CSharpTokenConstants._INVOCATION));
+        assertEquals(List.of(22, 32), linesOf(scanned, CSharpTokenConstants._OBJECT_CREATION));
+        for (int type : new int[] {CSharpTokenConstants._METHOD, CSharpTokenConstants._CONSTRUCTOR, CSharpTokenConstants._INVOCATION}) {
+            assertEquals(linesOf(parsed, type), linesOf(scanned, type));
+        }
+    }
+
+    @Test
+    public void testSimilarityOfLexerOnlyTokens() throws ExitException {
+        JPlagResult result = runJPlag(SAMPLE, options -> {
+            options.setLanguageOption(LanguageOption.C_SHARP);
+            options.setLexerOnly(true);
+        });
+
+        assertEquals(3, result.getNumberOfSubmissions());
+        JPlagComparison mostSimilar = result.getComparisons().get(0);
+        assertEquals(Set.of("A", "B"), Set.of(mostSimilar.getFirstSubmission().getName(), mostSimilar.getSecondSubmission().getName()));
+        assertEquals(100, mostSimilar.similarity(), DELTA);
+        for (JPlagComparison comparison : result.getComparisons().subList(1, result.getComparisons().size())) {
+            assertTrue(comparison.similarity() < 50);
+        }
+    }
+
+    private List<Integer> linesOf(ParseResult result, int type) {
+        List<Integer> lines = new ArrayList<>();
+        for (Token token : result.getTokenList().allTokens()) {
+            if (token.type == type) {
+                lines.add(token.getLine());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,108 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+import de.jplag.progress.JPlagProgressListener;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressSnapshot;
+import de.jplag.strategy.ComparisonMode;
+
+/**
+ * Tests the cooperative cancellation of runs via a {@link CancellationToken}.
+ */
+public class CancellationTest extends TestBase {
+
+    @Test
+    public void testCancelBeforeParsing() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.getCancellationToken().cancel());
+
+        assertTrue(result.isCancelled());
+        assertEquals(0, result.getComparisons().size());
+    }
+
+    @Test
+    public void testCancelNormalComparison() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setProgressListener(cancelOnPhase(it, ProgressPhase.COMPARE)));
+
+        assertTrue(result.isCancelled());
+        assertEquals(0, result.getNumberOfComparisons());
+    }
+
+    @Test
+    public void testCancelParallelComparison() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonMode(ComparisonMode.PARALLEL);
+            it.setProgressListener(cancelOnPhase(it, ProgressPhase.COMPARE));
+        });
+
+        assertTrue(result.isCancelled());
+        assertTrue(result.getNumberOfComparisons() < 10);
+    }
+
+    @Test
+    public void testCancelPipelinedComparisonDuringParsing() throws ExitException {
+        ExecutorService comparisonThreadPool = Executors.newSingleThreadExecutor();
+        List<ProgressPhase> finishedPhases = new ArrayList<>();
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonMode(ComparisonMode.PIPELINED);
+            it.setComparisonThreadPool(comparisonThreadPool);
+            it.setProgressListener(new JPlagProgressListener() {
+                @Override
+                public void phaseFinished(ProgressSnapshot progress) {
+                    finishedPhases.add(progress.getPhase());
+                    if (progress.getPhase() == ProgressPhase.PARSE) {
+                        awaitTermination(comparisonThreadPool); // the comparisons scheduled while parsing are done before cancelling
+                        it.getCancellationToken().cancel();
+                    }
+                }
+            });
+        });
+
+        assertTrue(result.isCancelled());
+        assertEquals(10, result.getNumberOfComparisons());
+        assertTrue(finishedPhases.contains(ProgressPhase.COMPARE));
+    }
+
+    @Test
+    public void testAsyncRun() throws ExitException, InterruptedException, ExecutionException {
+        JPlagOptions options = new JPlagOptions(getBasePath() + "/PartialPlagiarism", LanguageOption.JAVA);
+        JPlagResult result = new JPlag(options).runAsync().get();
+
+        assertFalse(result.isCancelled());
+        assertEquals(10, result.getComparisons().size());
+    }
+
+    private void awaitTermination(ExecutorService threadPool) {
+        threadPool.shutdown();
+        try {
+            assertTrue(threadPool.awaitTermination(10, TimeUnit.SECONDS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private JPlagProgressListener cancelOnPhase(JPlagOptions options, ProgressPhase cancelledPhase) {
+        return new JPlagProgressListener() {
+            @Override
+            public void phaseStarted(ProgressPhase phase, long total) {
+                if (phase == cancelledPhase) {
+                    options.getCancellationToken().cancel();
+                }
+            }
+        };
+    }
+}
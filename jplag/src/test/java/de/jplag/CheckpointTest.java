@@ -0,0 +1,109 @@
+package de.jplag;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.storage.Checkpoint;
+import de.jplag.strategy.ComparisonMode;
+
+/**
+ * Tests resuming runs from a {@link Checkpoint}.
+ */
+public class CheckpointTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testResumeCompletedRun() throws ExitException, IOException {
+        File directory = temporaryFolder.newFolder();
+        JPlagResult expected = runJPlag("PartialPlagiarism", it -> it.setCheckpointDirectoryName(directory.getPath()));
+        assertTrue(new File(directory, "completed.bin").exists());
+
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setCheckpointDirectoryName(directory.getPath());
+            it.setResume(true);
+        });
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testResumePartialRunInParallel() throws ExitException, IOException {
+        File directory = temporaryFolder.newFolder();
+        JPlagResult expected = runJPlag("PartialPlagiarism", it -> it.setCheckpointDirectoryName(directory.getPath()));
+
+        // Simulates an interrupted run, where only the first pairs were completed:
+        BitSet completedPairs = new BitSet();
+        completedPairs.set(0, 4);
+        Files.write(new File(directory, "completed.bin").toPath(), completedPairs.toByteArray());
+
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setCheckpointDirectoryName(directory.getPath());
+            it.setResume(true);
+            it.setComparisonMode(ComparisonMode.PARALLEL);
+        });
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testResumeTwiceAfterPartiallyWrittenResults() throws ExitException, IOException {
+        File directory = temporaryFolder.newFolder();
+        JPlagResult expected = runJPlag("PartialPlagiarism", it -> it.setCheckpointDirectoryName(directory.getPath()));
+
+        // Simulates a crash while the first results were written, which only left the beginning of a record:
+        Path resultFile = new File(directory, "results.bin").toPath();
+        Files.write(resultFile, Arrays.copyOf(Files.readAllBytes(resultFile), 5));
+        Files.write(new File(directory, "completed.bin").toPath(), new BitSet().toByteArray());
+
+        for (int run = 0; run < 2; run++) {
+            JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+                it.setCheckpointDirectoryName(directory.getPath());
+                it.setResume(true);
+            });
+            assertSameComparisons(expected, result);
+        }
+    }
+
+    @Test
+    public void testChangedOptionsAreNotResumed() throws ExitException, IOException {
+        File directory = temporaryFolder.newFolder();
+        runJPlag("PartialPlagiarism", it -> it.setCheckpointDirectoryName(directory.getPath()));
+
+        JPlagResult expected = runJPlag("PartialPlagiarism", it -> it.setMinimumTokenMatch(5));
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setCheckpointDirectoryName(directory.getPath());
+            it.setResume(true);
+            it.setMinimumTokenMatch(5);
+        });
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testChangedBudgetIsNotResumed() throws ExitException, IOException {
+        File directory = temporaryFolder.newFolder();
+        JPlagResult budgetedResult = runJPlag("PartialPlagiarism", it -> {
+            it.setCheckpointDirectoryName(directory.getPath());
+            it.setComparisonStepBudget(1);
+        });
+        assertFalse(budgetedResult.getIncompleteComparisons().isEmpty());
+
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setCheckpointDirectoryName(directory.getPath());
+            it.setResume(true);
+        });
+        assertTrue(result.getIncompleteComparisons().isEmpty());
+        assertSameComparisons(runJPlagWithDefaultOptions("PartialPlagiarism"), result);
+    }
+}
@@ -0,0 +1,77 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+import de.jplag.progress.JPlagProgressListener;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.storage.Corpus;
+
+/**
+ * Tests incremental runs with a persisted {@link Corpus}.
+ */
+public class IncrementalTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNewSubmissionsAreComparedWithCorpus() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        File corpusDirectory = temporaryFolder.newFolder();
+        copySubmissions(rootDirectory, "A", "B", "C");
+        JPlagResult initialResult = runIncremental(rootDirectory, corpusDirectory, new ArrayList<>(), -1);
+        assertEquals(3, initialResult.getComparisons().size());
+
+        copySubmissions(rootDirectory, "D", "E");
+        List<Long> comparedPairs = new ArrayList<>();
+        JPlagResult result = runIncremental(rootDirectory, corpusDirectory, comparedPairs, -1);
+
+        assertEquals(List.of(7L), comparedPairs); // all pairs except the three pairs of A, B and C
+        assertSameComparisons(runJPlagWithDefaultOptions("PartialPlagiarism"), result);
+    }
+
+    @Test
+    public void testChangedBudgetRebuildsCorpus() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        File corpusDirectory = temporaryFolder.newFolder();
+        copySubmissions(rootDirectory, "A", "B", "C", "D", "E");
+        JPlagResult budgetedResult = runIncremental(rootDirectory, corpusDirectory, new ArrayList<>(), 1);
+        assertFalse(budgetedResult.getIncompleteComparisons().isEmpty());
+
+        List<Long> comparedPairs = new ArrayList<>();
+        JPlagResult result = runIncremental(rootDirectory, corpusDirectory, comparedPairs, -1);
+
+        assertEquals(List.of(10L), comparedPairs); // the comparisons with the step budget are not reused
+        assertTrue(result.getIncompleteComparisons().isEmpty());
+        assertSameComparisons(runJPlagWithDefaultOptions("PartialPlagiarism"), result);
+    }
+
+    private JPlagResult runIncremental(File rootDirectory, File corpusDirectory, List<Long> comparedPairs, long stepBudget) throws ExitException {
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA);
+        options.setCorpusDirectoryName(corpusDirectory.getPath());
+        options.setComparisonStepBudget(stepBudget);
+        options.setProgressListener(new JPlagProgressListener() {
+            @Override
+            public void phaseStarted(ProgressPhase phase, long total) {
+                if (phase == ProgressPhase.COMPARE) {
+                    comparedPairs.add(total);
+                }
+            }
+        });
+        return new JPlag(options).run();
+    }
+}
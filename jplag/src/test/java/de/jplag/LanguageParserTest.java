@@ -0,0 +1,91 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests the parser instances created by {@link Language#createParser()}.
+ */
+public class LanguageParserTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final String[] FILES = {"GSTiling.java", "Match.java", "Token.java"};
+
+    @Test
+    public void testParserInstancesParseLikeTheLanguage() {
+        Language language = JPlag.loadLanguage(LanguageOption.JAVA, new ErrorCollector(new JPlagOptions(BASE_PATH, LanguageOption.JAVA)));
+        File directory = Path.of(BASE_PATH, "PartialPlagiarism", "A").toFile();
+
+        ParseResult expected = language.parseFiles(directory, FILES);
+        for (LanguageParser parser : List.of(language.createParser(), language.createParser())) {
+            ParseResult result = parser.parseFiles(directory, FILES);
+            assertFalse(result.hasErrors());
+            assertEquals(expected.getTokenList().size(), result.getTokenList().size());
+        }
+    }
+
+    @Test
+    public void testParseTimesOfBatchedFiles() {
+        Language language = JPlag.loadLanguage(LanguageOption.JAVA, new ErrorCollector(new JPlagOptions(BASE_PATH, LanguageOption.JAVA)));
+        File directory = Path.of(BASE_PATH, "PartialPlagiarism", "A").toFile();
+
+        ParseResult result = language.parseFilesInBatch(List.of(directory), List.<String[]>of(FILES)).get(0);
+
+        assertEquals(Set.of(FILES), result.getFileParseTimes().keySet());
+        for (long parseTime : result.getFileParseTimes().values()) {
+            assertTrue(parseTime > 0);
+        }
+    }
+
+    @Test
+    public void testCharsParserDecodesLargeFilesInChunks() throws IOException {
+        Language language = JPlag.loadLanguage(LanguageOption.CHAR, new ErrorCollector(new JPlagOptions(BASE_PATH, LanguageOption.CHAR)));
+        String content = "ab \u00e91 \ud83d\ude00 Z\n".repeat(5000); // multi-byte characters end up on the chunk boundaries
+        List<Integer> expectedIndices = new ArrayList<>();
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) < 128 && Character.isLetterOrDigit(content.charAt(i))) {
+                expectedIndices.add(i);
+            }
+        }
+        File directory = temporaryFolder.newFolder();
+        Files.writeString(directory.toPath().resolve("text.txt"), content, StandardCharsets.UTF_8);
+        String[] files = {"text.txt"};
+
+        ParseResult result = language.parseFiles(directory, files);
+        ParseResult inMemoryResult = language.parseFilesInBatch(List.of(directory), List.<String[]>of(files), List.of(Map.of("text.txt", content)))
+                .get(0);
+
+        assertEquals(expectedIndices, indicesOf(result));
+        assertEquals(expectedIndices, indicesOf(inMemoryResult));
+    }
+
+    private List<Integer> indicesOf(ParseResult result) {
+        List<Integer> indices = new ArrayList<>();
+        for (Token token : result.getTokenList().allTokens()) {
+            if (token.getIndex() >= 0) { // the end of a file has no index
+                indices.add(token.getIndex());
+            }
+        }
+        return indices;
+    }
+}
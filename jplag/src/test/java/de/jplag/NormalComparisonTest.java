@@ -1,7 +1,10 @@
 package de.jplag;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import org.junit.Test;
@@ -80,6 +83,46 @@ public class NormalComparisonTest extends TestBase {
 
     }
 
+    /**
+     * Only the best comparisons are retained, but the distribution still covers all of them.
+     */
+    @Test
+    public void testRetainedComparisonsAreBounded() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setMaximumNumberOfComparisons(2));
+
+        assertEquals(2, result.getComparisons().size());
+        assertEquals(10, result.getNumberOfComparisons());
+        assertEquals(10, Arrays.stream(result.getSimilarityDistribution()).sum());
+        assertEquals(99.7f, result.getComparisons().get(0).similarity(), DELTA);
+        assertEquals(77.9f, result.getComparisons().get(1).similarity(), DELTA);
+    }
+
+    /**
+     * With an exhausted step budget, the comparisons are completed approximately and listed as incomplete.
+     */
+    @Test
+    public void testExhaustedStepBudget() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setComparisonStepBudget(1));
+
+        assertEquals(10, result.getComparisons().size());
+        assertFalse(result.getIncompleteComparisons().isEmpty());
+        result.getIncompleteComparisons().forEach(comparison -> assertTrue(comparison.isIncomplete()));
+        assertTrue(getSelectedComparison(result, "A", "C").get().isIncomplete());
+        assertTrue(getSelectedPercent(result, "A", "C") > 90f);
+    }
+
+    /**
+     * A sufficient step budget does not change the results.
+     */
+    @Test
+    public void testSufficientStepBudget() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setComparisonStepBudget(Long.MAX_VALUE));
+
+        assertTrue(result.getIncompleteComparisons().isEmpty());
+        assertEquals(99.7f, getSelectedPercent(result, "A", "C"), DELTA);
+        assertEquals(77.9f, getSelectedPercent(result, "A", "D"), DELTA);
+    }
+
     // TODO SH: Methods like this should be moved to the API and also should accept wildcards
     private float getSelectedPercent(JPlagResult result, String nameA, String nameB) {
         return getSelectedComparison(result, nameA, nameB)
@@ -0,0 +1,100 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests that parsing the submissions in parallel or in batches yields the same result as parsing them sequentially.
+ */
+public class ParallelParsingTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testParallelParsingMatchesSequentialParsing() throws ExitException {
+        JPlagResult expected = runJPlag("PartialPlagiarism", it -> it.setNumberOfParserThreads(1));
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setNumberOfParserThreads(4));
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testBatchedParsingMatchesSequentialParsing() throws ExitException {
+        JPlagResult expected = runJPlag("PartialPlagiarism", it -> it.setNumberOfParserThreads(1));
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setNumberOfParserThreads(2);
+            it.setParserBatchSize(2);
+        });
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testParserResourcesAreReleasedAfterEachRun() throws ExitException {
+        AtomicInteger releases = new AtomicInteger();
+        JPlagOptions options = new JPlagOptions(Path.of(BASE_PATH, "PartialPlagiarism").toString(), LanguageOption.JAVA);
+        options.setNumberOfParserThreads(4);
+        Function<ErrorConsumer, Language> languageProvider = errorConsumer -> new de.jplag.java.Language(errorConsumer) {
+            @Override
+            public void releaseParserResources() {
+                releases.incrementAndGet();
+                super.releaseParserResources();
+            }
+        };
+
+        JPlagResult expected = new JPlag(options, languageProvider).run();
+        assertEquals(1, releases.get());
+        JPlagResult result = new JPlag(options, languageProvider).run(); // the closed file managers are not reused
+        assertEquals(2, releases.get());
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testSyntaxErrorOnlyInvalidatesItsSubmissionInBatch() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        copySubmissions(rootDirectory, "A", "B", "C");
+        Path brokenSubmission = Files.createDirectories(rootDirectory.toPath().resolve("D"));
+        Files.writeString(brokenSubmission.resolve("Broken.java"), "public class Broken { void method( }");
+
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA);
+        options.setParserBatchSize(4);
+        JPlagResult result = new JPlag(options).run();
+        assertEquals(3, result.getNumberOfSubmissions());
+    }
+
+    /**
+     * The errors of a javac task are limited to 100 by default, which must not hide the errors of later submissions of a
+     * batch.
+     */
+    @Test
+    public void testSyntaxErrorsAfterManyErrorsInBatch() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        StringBuilder manyErrors = new StringBuilder("public class Broken {\n");
+        for (int i = 0; i < 150; i++) {
+            manyErrors.append("    void method").append(i).append("() { int x = ; }\n");
+        }
+        Files.writeString(Files.createDirectories(rootDirectory.toPath().resolve("A")).resolve("Broken.java"), manyErrors.append("}\n"));
+        copySubmissions(rootDirectory, "B", "C", "D");
+        // A missing semicolon leaves no erroneous node in the syntax tree, only the diagnostic reveals it:
+        Files.writeString(rootDirectory.toPath().resolve("B").resolve("Broken.java"), "public class Broken { void method() { int x = 1 } }");
+
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA);
+        options.setNumberOfParserThreads(1);
+        options.setParserBatchSize(4);
+        JPlagResult result = new JPlag(options).run();
+        assertEquals(2, result.getNumberOfSubmissions());
+    }
+}
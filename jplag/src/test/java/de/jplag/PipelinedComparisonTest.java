@@ -0,0 +1,43 @@
+package de.jplag;
+
+import static de.jplag.strategy.ComparisonMode.PIPELINED;
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.strategy.PipelinedComparisonStrategy;
+
+/**
+ * Tests the {@link PipelinedComparisonStrategy}, which compares the submissions while they are parsed, against the
+ * results of the normal comparison.
+ */
+public class PipelinedComparisonTest extends TestBase {
+
+    private static final Consumer<JPlagOptions> PIPELINED_MODE = it -> it.setComparisonMode(PIPELINED);
+
+    @Test
+    public void testPartialPlagiarism() throws ExitException {
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult result = runJPlag("PartialPlagiarism", PIPELINED_MODE);
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testPartialPlagiarismWithSequentialParsing() throws ExitException {
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult result = runJPlag("PartialPlagiarism", PIPELINED_MODE.andThen(it -> it.setNumberOfParserThreads(1)));
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testBasecodeComparison() throws ExitException {
+        JPlagResult expected = runJPlag("basecode", it -> it.setBaseCodeSubmissionName("base"));
+        JPlagResult result = runJPlag("basecode", PIPELINED_MODE.andThen(it -> it.setBaseCodeSubmissionName("base")));
+        assertSameComparisons(expected, result);
+        assertEquals(85f, result.getComparisons().get(0).similarity(), DELTA);
+    }
+}
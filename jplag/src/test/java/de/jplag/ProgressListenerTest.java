@@ -0,0 +1,69 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.progress.JPlagProgressListener;
+import de.jplag.progress.ProgressPhase;
+import de.jplag.progress.ProgressSnapshot;
+import de.jplag.strategy.ComparisonMode;
+
+/**
+ * Tests the progress reported to a {@link JPlagProgressListener}.
+ */
+public class ProgressListenerTest extends TestBase {
+
+    @Test
+    public void testPhasesOfNormalComparison() throws ExitException {
+        RecordingListener listener = new RecordingListener();
+        runJPlag("PartialPlagiarism", it -> it.setProgressListener(listener));
+
+        assertEquals(List.of(ProgressPhase.SCAN, ProgressPhase.PARSE, ProgressPhase.COMPARE), listener.startedPhases);
+        ProgressSnapshot parsing = listener.finishedPhases.get(1);
+        assertEquals(5, parsing.getCompleted());
+        assertEquals(5, parsing.getTotal());
+        assertTrue(parsing.getBytes() > 0);
+        assertTrue(parsing.getTokens() > 0);
+        ProgressSnapshot comparing = listener.finishedPhases.get(2);
+        assertEquals(10, comparing.getCompleted());
+        assertEquals(10, comparing.getTotal());
+        assertEquals(100f, comparing.getPercentage(), DELTA);
+        assertEquals(0, comparing.getEstimatedRemainingMillis());
+    }
+
+    @Test
+    public void testPhasesOfParallelComparisonWithBaseCode() throws ExitException {
+        RecordingListener listener = new RecordingListener();
+        runJPlag("basecode", it -> {
+            it.setBaseCodeSubmissionName("base");
+            it.setComparisonMode(ComparisonMode.PARALLEL);
+            it.setProgressListener(listener);
+        });
+
+        assertEquals(List.of(ProgressPhase.SCAN, ProgressPhase.PARSE, ProgressPhase.BASE_CODE, ProgressPhase.COMPARE), listener.startedPhases);
+        ProgressSnapshot comparing = listener.finishedPhases.get(3);
+        assertEquals(comparing.getTotal(), comparing.getCompleted());
+    }
+
+    private static class RecordingListener implements JPlagProgressListener {
+        private final List<ProgressPhase> startedPhases = Collections.synchronizedList(new ArrayList<>());
+        private final List<ProgressSnapshot> finishedPhases = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void phaseStarted(ProgressPhase phase, long total) {
+            startedPhases.add(phase);
+        }
+
+        @Override
+        public void phaseFinished(ProgressSnapshot progress) {
+            finishedPhases.add(progress);
+        }
+    }
+}
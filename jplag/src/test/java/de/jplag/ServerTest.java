@@ -0,0 +1,126 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.batch.BatchJob;
+import de.jplag.batch.BatchRunner;
+import de.jplag.server.JPlagServer;
+
+/**
+ * Tests submitting jobs to the {@link JPlagServer}.
+ */
+public class ServerTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private JPlagServer server;
+    private HttpClient client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new JPlagServer(1);
+        server.start(0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void testJobIsRunAndStreamsProgress() throws IOException, InterruptedException {
+        File resultDirectory = temporaryFolder.newFolder();
+        String arguments = "\"" + Path.of(BASE_PATH, "PartialPlagiarism") + "\" -r \"" + resultDirectory + "\"";
+        HttpResponse<String> submitted = send(HttpRequest.newBuilder(uri("/jobs?priority=5")).POST(HttpRequest.BodyPublishers.ofString(arguments)));
+        assertEquals(201, submitted.statusCode());
+        assertTrue(submitted.body().startsWith("{\"id\":1,"));
+
+        List<String> events = client.send(HttpRequest.newBuilder(uri("/jobs/1/events")).build(), HttpResponse.BodyHandlers.ofLines()).body()
+                .collect(Collectors.toList());
+        assertTrue(events.get(events.size() - 1).contains("\"state\":\"FINISHED\""));
+        assertTrue(events.stream().anyMatch(it -> it.contains("\"phase\":\"COMPARE\"")));
+
+        HttpResponse<String> result = send(HttpRequest.newBuilder(uri("/jobs/1/result")));
+        assertEquals(200, result.statusCode());
+        assertTrue(result.body().contains("\"numberOfSubmissions\":5"));
+        assertTrue(result.body().contains("\"comparisons\":[{\"first\":"));
+        assertTrue(new File(resultDirectory, "index.html").exists());
+
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/jobs/1")).DELETE()).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/jobs/1"))).statusCode());
+    }
+
+    @Test
+    public void testWorkerSurvivesErrorOfJob() throws IOException, InterruptedException {
+        server.stop();
+        server = new JPlagServer(1, new BatchRunner(1) {
+            @Override
+            public JPlagResult runJob(BatchJob job, ExecutorService comparisonThreadPool) {
+                if (job.getName().equals("job-1")) {
+                    throw new StackOverflowError("generated parser");
+                }
+                return super.runJob(job, comparisonThreadPool);
+            }
+        });
+        server.start(0);
+        String arguments = "\"" + Path.of(BASE_PATH, "PartialPlagiarism") + "\" -r \"" + temporaryFolder.newFolder() + "\"";
+        send(HttpRequest.newBuilder(uri("/jobs")).POST(HttpRequest.BodyPublishers.ofString(arguments)));
+        send(HttpRequest.newBuilder(uri("/jobs")).POST(HttpRequest.BodyPublishers.ofString(arguments)));
+
+        List<String> events = client.send(HttpRequest.newBuilder(uri("/jobs/2/events")).build(), HttpResponse.BodyHandlers.ofLines()).body()
+                .collect(Collectors.toList());
+        assertTrue(events.get(events.size() - 1).contains("\"state\":\"FINISHED\""));
+        String failedJob = send(HttpRequest.newBuilder(uri("/jobs/1"))).body();
+        assertTrue(failedJob.contains("\"state\":\"FAILED\""));
+        assertTrue(failedJob.contains("StackOverflowError"));
+    }
+
+    @Test
+    public void testThreadsRequireParallelComparisonMode() throws IOException, InterruptedException {
+        String arguments = "\"" + Path.of(BASE_PATH, "PartialPlagiarism") + "\" -r \"" + temporaryFolder.newFolder() + "\"";
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/jobs?threads=2")).POST(HttpRequest.BodyPublishers.ofString(arguments))).statusCode());
+        HttpResponse<String> submitted = send(
+                HttpRequest.newBuilder(uri("/jobs?threads=2")).POST(HttpRequest.BodyPublishers.ofString(arguments + " -c pipelined")));
+        assertEquals(201, submitted.statusCode());
+
+        List<String> events = client.send(HttpRequest.newBuilder(uri("/jobs/2/events")).build(), HttpResponse.BodyHandlers.ofLines()).body()
+                .collect(Collectors.toList());
+        assertTrue(events.get(events.size() - 1).contains("\"state\":\"FINISHED\""));
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException, InterruptedException {
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/jobs")).POST(HttpRequest.BodyPublishers.ofString("root -l unknown"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/jobs?priority=high")).POST(HttpRequest.BodyPublishers.ofString("root"))).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/jobs/42"))).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(uri("/jobs")).PUT(HttpRequest.BodyPublishers.noBody())).statusCode());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,82 @@
+package de.jplag;
+
+import static de.jplag.strategy.ComparisonMode.SHARDED;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+import de.jplag.strategy.ShardedComparisonStrategy;
+
+/**
+ * Tests the {@link ShardedComparisonStrategy} with local worker processes against the results of the normal comparison.
+ */
+public class ShardedComparisonTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final int LARGE_SHARD_SUBMISSIONS = 400;
+
+    private static final Consumer<JPlagOptions> SHARDED_MODE = it -> {
+        it.setComparisonMode(SHARDED);
+        it.setNumberOfWorkers(2);
+    };
+
+    @Test
+    public void testPartialPlagiarism() throws ExitException {
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult result = runJPlag("PartialPlagiarism", SHARDED_MODE);
+        assertSameComparisons(expected, result);
+    }
+
+    @Test
+    public void testBasecodeComparison() throws ExitException {
+        JPlagResult expected = runJPlag("basecode", it -> it.setBaseCodeSubmissionName("base"));
+        JPlagResult result = runJPlag("basecode", SHARDED_MODE.andThen(it -> it.setBaseCodeSubmissionName("base")));
+        assertSameComparisons(expected, result);
+        assertEquals(85f, result.getComparisons().get(0).similarity(), DELTA);
+    }
+
+    /**
+     * The shard of a single worker exceeds the pipe buffers in both directions, which deadlocks if the job is not sent
+     * while the results are already streamed back.
+     */
+    @Test(timeout = 120000)
+    public void testLargeShard() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        for (int i = 0; i < LARGE_SHARD_SUBMISSIONS; i++) {
+            File submission = new File(rootDirectory, "S" + i);
+            submission.mkdir();
+            Files.writeString(new File(submission, "Main.java").toPath(), largeShardSource(i));
+        }
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA);
+        SHARDED_MODE.andThen(it -> it.setNumberOfWorkers(1)).accept(options);
+        JPlagResult result = new JPlag(options).run();
+        int numberOfPairs = LARGE_SHARD_SUBMISSIONS * (LARGE_SHARD_SUBMISSIONS - 1) / 2;
+        assertEquals(numberOfPairs, Arrays.stream(result.getSimilarityDistribution()).sum());
+        assertEquals(100f, result.getComparisons().get(0).similarity(), DELTA);
+    }
+
+    private String largeShardSource(int index) {
+        StringBuilder source = new StringBuilder("public class Main {\n");
+        for (int method = 0; method < 4; method++) {
+            source.append("    void m").append(method).append("(int x) {\n");
+            for (int statement = 0; statement < (index + method) % 4 + 2; statement++) {
+                source.append("        if (x > ").append(statement).append(") { x = x * 2; } else { x--; }\n");
+            }
+            source.append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
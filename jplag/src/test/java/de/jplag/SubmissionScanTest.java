@@ -0,0 +1,107 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests scanning the files of the submissions in a root directory.
+ */
+public class SubmissionScanTest {
+
+    private static final String SOURCE = "public class Main {\n    int sum(int[] values) {\n        int sum = 0;\n"
+            + "        for (int value : values) {\n            sum += value;\n        }\n        return sum;\n    }\n}\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testExcludedDirectoriesAndFilesAreSkipped() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        writeSubmission(rootDirectory, "A", "Main.java", "generated/Generated.java", "nested/Main.java", "nested/Skipped.java", "notes.txt");
+        writeSubmission(rootDirectory, "B", "Main.java");
+        File exclusionFile = temporaryFolder.newFile();
+        Files.writeString(exclusionFile.toPath(), "generated\nSkipped.java\n");
+
+        List<Submission> submissions = scan(rootDirectory, it -> it.setExclusionFileName(exclusionFile.getPath()));
+
+        assertEquals(Set.of("Main.java", "nested/Main.java"), relativePaths(rootDirectory, submissions.get(0)));
+    }
+
+    @Test
+    public void testCyclicLinksAreSkipped() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        writeSubmission(rootDirectory, "A", "Main.java", "nested/Main.java");
+        writeSubmission(rootDirectory, "B", "Main.java");
+        Path submission = rootDirectory.toPath().resolve("A");
+        try {
+            Files.createSymbolicLink(submission.resolve("nested").resolve("loop"), submission);
+        } catch (UnsupportedOperationException | IOException exception) {
+            Assume.assumeNoException("Symbolic links are not supported", exception);
+        }
+
+        List<Submission> submissions = scan(rootDirectory, it -> {
+        });
+
+        assertEquals(Set.of("Main.java", "nested/Main.java"), relativePaths(rootDirectory, submissions.get(0)));
+    }
+
+    @Test
+    public void testOrderOfSubmissionsIsPreserved() throws ExitException, IOException {
+        File rootDirectory = temporaryFolder.newFolder();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String name = String.format("S%02d", i);
+            writeSubmission(rootDirectory, name, "Main.java", "util/Helper.java");
+            names.add(name);
+        }
+
+        List<Submission> submissions = scan(rootDirectory, it -> it.setNumberOfParserThreads(4));
+
+        assertEquals(names, submissions.stream().map(Submission::getName).collect(Collectors.toList()));
+        for (Submission submission : submissions) {
+            assertEquals(Set.of("Main.java", "util/Helper.java"), relativePaths(rootDirectory, submission));
+        }
+    }
+
+    private List<Submission> scan(File rootDirectory, Consumer<JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.JAVA);
+        customization.accept(options);
+        ErrorCollector errorCollector = new ErrorCollector(options);
+        Language language = JPlag.loadLanguage(options.getLanguageOption(), errorCollector);
+        options.setLanguage(language);
+        options.setLanguageDefaults(language);
+        return new SubmissionSetBuilder(language, options, errorCollector).buildSubmissionSet(null).getSubmissions();
+    }
+
+    private void writeSubmission(File rootDirectory, String name, String... files) throws IOException {
+        for (String file : files) {
+            Path path = rootDirectory.toPath().resolve(name).resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, SOURCE.replace("class Main", "class " + path.getFileName().toString().replace(".java", "")));
+        }
+    }
+
+    private Set<String> relativePaths(File rootDirectory, Submission submission) {
+        Path submissionDirectory = rootDirectory.toPath().resolve(submission.getName());
+        return submission.getFiles().stream().map(file -> submissionDirectory.relativize(file.toPath()).toString().replace(File.separatorChar, '/'))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,56 @@
+package de.jplag;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests matching file names against suffixes with a {@link SuffixMatcher}.
+ */
+public class SuffixMatcherTest {
+
+    @Test
+    public void testSuffixes() {
+        SuffixMatcher matcher = new SuffixMatcher(List.of(".java", ".jav"));
+        assertTrue(matcher.matches("Main.java"));
+        assertTrue(matcher.matches("Main.jav"));
+        assertTrue(matcher.matches(".java"));
+        assertFalse(matcher.matches("Main.ja"));
+        assertFalse(matcher.matches("Main.javax"));
+        assertFalse(matcher.matches("Main.JAVA"));
+        assertFalse(matcher.matches("java"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testOverlappingSuffixes() {
+        SuffixMatcher matcher = new SuffixMatcher(List.of("a.java", ".java"));
+        assertTrue(matcher.matches("Data.java"));
+        assertTrue(matcher.matches("Main.java"));
+        assertTrue(matcher.matches("a.java"));
+        assertFalse(matcher.matches("Main.jav"));
+
+        SuffixMatcher longerSuffixOnly = new SuffixMatcher(List.of("a.java"));
+        assertTrue(longerSuffixOnly.matches("Data.java"));
+        assertFalse(longerSuffixOnly.matches("Main.java"));
+        assertFalse(longerSuffixOnly.matches(".java"));
+    }
+
+    @Test
+    public void testEmptySuffixMatchesEveryName() {
+        SuffixMatcher matcher = new SuffixMatcher(List.of("", ".java"));
+        assertTrue(matcher.matches("Main.java"));
+        assertTrue(matcher.matches("README"));
+        assertTrue(matcher.matches(""));
+    }
+
+    @Test
+    public void testNoSuffixes() {
+        SuffixMatcher matcher = new SuffixMatcher(List.of());
+        assertFalse(matcher.matches("Main.java"));
+        assertFalse(matcher.matches(""));
+    }
+}
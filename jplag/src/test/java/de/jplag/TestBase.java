@@ -1,7 +1,15 @@
 package de.jplag;
 
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import de.jplag.exceptions.ExitException;
 import de.jplag.options.JPlagOptions;
@@ -34,4 +42,41 @@ public abstract class TestBase {
         JPlag jplag = new JPlag(options);
         return jplag.run();
     }
+
+    /**
+     * Copies submissions of the PartialPlagiarism sample into a directory, keeping the modification times of their files.
+     */
+    protected void copySubmissions(File directory, String... names) throws IOException {
+        for (String name : names) {
+            Path source = Path.of(BASE_PATH, "PartialPlagiarism", name);
+            Path target = directory.toPath().resolve(name);
+            Files.createDirectories(target);
+            try (Stream<Path> files = Files.list(source)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, target.resolve(file.getFileName()), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+
+    /**
+     * Asserts that two results contain the same comparisons in the same order. The order of the submissions within a
+     * comparison is ignored, as it depends on the token hash tables already built in a process.
+     */
+    protected void assertSameComparisons(JPlagResult expected, JPlagResult result) {
+        assertEquals(expected.getNumberOfSubmissions(), result.getNumberOfSubmissions());
+        assertEquals(expected.getNumberOfComparisons(), result.getNumberOfComparisons());
+        assertEquals(expected.getComparisons().size(), result.getComparisons().size());
+        for (int i = 0; i < expected.getComparisons().size(); i++) {
+            JPlagComparison expectedComparison = expected.getComparisons().get(i);
+            JPlagComparison comparison = result.getComparisons().get(i);
+            assertEquals(namesOf(expectedComparison), namesOf(comparison));
+            assertEquals(expectedComparison.similarity(), comparison.similarity(), DELTA);
+            assertEquals(expectedComparison.getMatches().size(), comparison.getMatches().size());
+        }
+    }
+
+    private Set<String> namesOf(JPlagComparison comparison) {
+        return Set.of(comparison.getFirstSubmission().getName(), comparison.getSecondSubmission().getName());
+    }
 }
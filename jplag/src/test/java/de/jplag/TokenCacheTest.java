@@ -0,0 +1,94 @@
+package de.jplag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests restoring the token streams of single files from the token cache.
+ */
+public class TokenCacheTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testTokensAreRestoredFromCache() throws ExitException, IOException {
+        File cacheDirectory = temporaryFolder.newFolder();
+        JPlagResult expected = runJPlagWithDefaultOptions("PartialPlagiarism");
+
+        JPlagResult firstResult = runJPlag("PartialPlagiarism", it -> it.setTokenCacheDirectoryName(cacheDirectory.getPath()));
+        long numberOfEntries = countEntries(cacheDirectory);
+        assertTrue(numberOfEntries > 0);
+        JPlagResult secondResult = runJPlag("PartialPlagiarism", it -> it.setTokenCacheDirectoryName(cacheDirectory.getPath()));
+        assertEquals(numberOfEntries, countEntries(cacheDirectory));
+
+        for (JPlagResult result : new JPlagResult[] {firstResult, secondResult}) {
+            assertEquals(expected.getComparisons().size(), result.getComparisons().size());
+            for (int i = 0; i < expected.getComparisons().size(); i++) {
+                assertEquals(expected.getComparisons().get(i).similarity(), result.getComparisons().get(i).similarity(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testCacheIsEvictedBeyondSizeLimit() throws ExitException, IOException {
+        File cacheDirectory = temporaryFolder.newFolder();
+        runJPlag("PartialPlagiarism", it -> {
+            it.setTokenCacheDirectoryName(cacheDirectory.getPath());
+            it.setTokenCacheSizeLimit(0);
+        });
+        assertEquals(0, countEntries(cacheDirectory));
+    }
+
+    @Test
+    public void testVocabularyOfTextIsRestoredWithCache() throws ExitException, IOException {
+        File cacheDirectory = temporaryFolder.newFolder();
+        File rootDirectory = temporaryFolder.newFolder();
+        String text = "the quick brown fox jumps over the lazy dog while the cat sleeps in the warm sun all day long ";
+        writeSubmission(rootDirectory, "A", text.repeat(3));
+        writeSubmission(rootDirectory, "B", "a completely different story about birds that sing early in the morning ".repeat(3));
+        runText(rootDirectory, cacheDirectory);
+
+        // the new submission is parsed after the others were restored, its words have to get the same types
+        writeSubmission(rootDirectory, "C", "some new words come first then " + text.repeat(3));
+        JPlagResult expected = runText(rootDirectory, null);
+        JPlagResult result = runText(rootDirectory, cacheDirectory);
+        assertEquals(expected.getComparisons().size(), result.getComparisons().size());
+        for (int i = 0; i < expected.getComparisons().size(); i++) {
+            assertEquals(expected.getComparisons().get(i).similarity(), result.getComparisons().get(i).similarity(), DELTA);
+        }
+    }
+
+    private JPlagResult runText(File rootDirectory, File cacheDirectory) throws ExitException {
+        JPlagOptions options = new JPlagOptions(rootDirectory.getPath(), LanguageOption.TEXT);
+        if (cacheDirectory != null) {
+            options.setTokenCacheDirectoryName(cacheDirectory.getPath());
+        }
+        return new JPlag(options).run();
+    }
+
+    private void writeSubmission(File rootDirectory, String name, String content) throws IOException {
+        Path submission = Files.createDirectories(rootDirectory.toPath().resolve(name));
+        Files.writeString(submission.resolve("text.txt"), content);
+    }
+
+    private long countEntries(File cacheDirectory) throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory.toPath())) {
+            return files.filter(it -> it.toString().endsWith(".bin")).count();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.jplag;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.Verbosity;
+
+/**
+ * Tests that the details of a run are only printed in the long verbosity mode.
+ */
+public class VerbosityTest extends TestBase {
+
+    @Test
+    public void testQuietRunOmitsDetails() throws ExitException {
+        String output = runAndCaptureOutput(Verbosity.QUIET);
+        assertFalse(output.contains("Comparing "));
+        assertFalse(output.contains("Compared "));
+    }
+
+    @Test
+    public void testLongRunPrintsDetails() throws ExitException {
+        String output = runAndCaptureOutput(Verbosity.LONG);
+        assertTrue(output.contains("Comparing A-B: "));
+        assertTrue(output.contains("Compared 1 submission pairs"));
+    }
+
+    private String runAndCaptureOutput(Verbosity verbosity) throws ExitException {
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            runJPlag("SimpleDuplicate", options -> options.setVerbosity(verbosity));
+        } finally {
+            System.setOut(standardOutput);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,26 @@
+package de.jplag.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.jplag.CommandLineArgument;
+
+public class ArchiveCacheTest extends CommandLineInterfaceTest {
+
+    @Test
+    public void testDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertFalse(options.hasArchiveCache());
+    }
+
+    @Test
+    public void testArchiveCache() {
+        String argument = buildArgument(CommandLineArgument.ARCHIVE_CACHE, "cache");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertTrue(options.hasArchiveCache());
+        assertEquals("cache", options.getArchiveCacheDirectoryName());
+    }
+}
@@ -0,0 +1,31 @@
+package de.jplag.cli;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.jplag.CommandLineArgument;
+
+public class BudgetTest extends CommandLineInterfaceTest {
+
+    @Test
+    public void testDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertEquals(-1, options.getComparisonStepBudget());
+        assertEquals(-1, options.getComparisonTimeBudget());
+    }
+
+    @Test
+    public void testStepBudget() {
+        String argument = buildArgument(CommandLineArgument.STEP_BUDGET, "1000");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(1000, options.getComparisonStepBudget());
+    }
+
+    @Test
+    public void testTimeBudget() {
+        String argument = buildArgument(CommandLineArgument.TIME_BUDGET, "250");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(250, options.getComparisonTimeBudget());
+    }
+}
@@ -0,0 +1,23 @@
+package de.jplag.cli;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.jplag.CommandLineArgument;
+
+public class LexerOnlyTest extends CommandLineInterfaceTest {
+
+    @Test
+    public void testDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertFalse(options.isLexerOnly());
+    }
+
+    @Test
+    public void testLexerOnly() {
+        buildOptionsFromCLI(CommandLineArgument.LEXER_ONLY.flag(), CURRENT_DIRECTORY);
+        assertTrue(options.isLexerOnly());
+    }
+}
@@ -0,0 +1,23 @@
+package de.jplag.cli;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.jplag.CommandLineArgument;
+
+public class ParserBatchSizeTest extends CommandLineInterfaceTest {
+
+    @Test
+    public void testDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertEquals(1, options.getParserBatchSize());
+    }
+
+    @Test
+    public void testParserBatchSize() {
+        String argument = buildArgument(CommandLineArgument.PARSER_BATCH_SIZE, "16");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(16, options.getParserBatchSize());
+    }
+}
@@ -0,0 +1,30 @@
+package de.jplag.cli;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.jplag.CommandLineArgument;
+
+public class ParserThreadsTest extends CommandLineInterfaceTest {
+
+    @Test
+    public void testDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertEquals(Runtime.getRuntime().availableProcessors(), options.getNumberOfParserThreads());
+    }
+
+    @Test
+    public void testParserThreads() {
+        String argument = buildArgument(CommandLineArgument.PARSER_THREADS, "3");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(3, options.getNumberOfParserThreads());
+    }
+
+    @Test
+    public void testLowerBound() {
+        String argument = buildArgument(CommandLineArgument.PARSER_THREADS, "0");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(1, options.getNumberOfParserThreads());
+    }
+}
@@ -0,0 +1,24 @@
+package de.jplag.cli;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.jplag.CommandLineArgument;
+import de.jplag.options.JPlagOptions;
+
+public class TokenCacheSizeTest extends CommandLineInterfaceTest {
+
+    @Test
+    public void testDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertEquals(JPlagOptions.DEFAULT_TOKEN_CACHE_SIZE_LIMIT, options.getTokenCacheSizeLimit());
+    }
+
+    @Test
+    public void testTokenCacheSizeInMegabytes() {
+        String argument = buildArgument(CommandLineArgument.TOKEN_CACHE_SIZE, "64");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(64L * 1024 * 1024, options.getTokenCacheSizeLimit());
+    }
+}
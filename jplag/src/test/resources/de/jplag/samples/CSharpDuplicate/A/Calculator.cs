@@ -0,0 +1,40 @@
+using System;
+
+namespace Samples
+{
+    public class Calculator
+    {
+        private int total;
+
+        public Calculator(int start)
+        {
+            total = start;
+        }
+
+        public int Add(int value)
+        {
+            total += value;
+            return total;
+        }
+
+        public int[] History(int count)
+        {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                values[i] = Add(i);
+            }
+            return values;
+        }
+
+        public static void Main(string[] args)
+        {
+            Calculator calculator = new Calculator(3);
+            if (args.Length > 0)
+            {
+                calculator.Add(args.Length);
+            }
+            Console.WriteLine(calculator.Add(4));
+        }
+    }
+}
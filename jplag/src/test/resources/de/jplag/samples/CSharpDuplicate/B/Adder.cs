@@ -0,0 +1,31 @@
+using System;
+
+namespace Copy
+{
+    public class Adder
+    {
+        private int sum;
+
+        public Adder(int initial) { sum = initial; }
+
+        public int Plus(int amount)
+        {
+            sum += amount;
+            return sum;
+        }
+
+        public int[] Steps(int n)
+        {
+            int[] result = new int[n];
+            for (int k = 0; k < n; k++) { result[k] = Plus(k); }
+            return result;
+        }
+
+        public static void Main(string[] arguments)
+        {
+            Adder adder = new Adder(3);
+            if (arguments.Length > 0) { adder.Plus(arguments.Length); }
+            Console.WriteLine(adder.Plus(4));
+        }
+    }
+}
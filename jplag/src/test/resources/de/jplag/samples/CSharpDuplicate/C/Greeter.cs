@@ -0,0 +1,32 @@
+using System;
+
+namespace Other
+{
+    public class Greeter
+    {
+        public static void Main(string[] args)
+        {
+            string name = "World";
+            switch (args.Length)
+            {
+                case 0:
+                    break;
+                default:
+                    name = args[0];
+                    break;
+            }
+            while (name.Length < 3)
+            {
+                name = name + "!";
+            }
+            try
+            {
+                Console.WriteLine("Hello " + name);
+            }
+            catch (Exception exception)
+            {
+                throw;
+            }
+        }
+    }
+}